@@ -1,3 +1,15 @@
+import groovy.json.JsonSlurper
+
+buildscript {
+    repositories {
+        mavenCentral()
+    }
+    dependencies {
+        // Used by GenerateSeedDatabase below
+        classpath(libs.sqlite.jdbc)
+    }
+}
+
 plugins {
     alias(libs.plugins.android.application)
     alias(libs.plugins.kotlin.android)
@@ -18,6 +30,9 @@ android {
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
         
+        // One Room database file per household instead of one shared file (see AppDatabase)
+        buildConfigField("boolean", "PER_HOUSEHOLD_DATABASES", "true")
+        
         javaCompileOptions {
             annotationProcessorOptions {
                 arguments["room.schemaLocation"] = "$projectDir/schemas"
@@ -52,6 +67,82 @@ android {
     kotlinOptions {
         jvmTarget = "17"
     }
+    
+    // Exported Room schemas, read by MigrationTestHelper in MigrationTest
+    sourceSets {
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
+    }
+}
+
+// Prepackaged database Room copies on first launch (AppDatabase.SEED_ASSET).
+// Tables come from the newest exported Room schema, so the seed always matches the entities;
+// rows come from the SQL files in seed/. Built in-process with sqlite-jdbc, so no sqlite3 tool is needed.
+abstract class GenerateSeedDatabase : DefaultTask() {
+    
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val schemaFiles: ConfigurableFileCollection
+    
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val seedFiles: ConfigurableFileCollection
+    
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+    
+    @TaskAction
+    fun generate() {
+        val schema = schemaFiles.files.maxByOrNull { it.nameWithoutExtension.toInt() }
+            ?: throw GradleException("No exported Room schema found in app/schemas")
+        @Suppress("UNCHECKED_CAST")
+        val database = (JsonSlurper().parse(schema) as Map<String, Any>)["database"] as Map<String, Any>
+        
+        val sql = StringBuilder()
+        // Room copies the asset as-is when user_version matches and migrates it otherwise
+        sql.append("PRAGMA user_version = ${database["version"]};\nBEGIN;\n")
+        @Suppress("UNCHECKED_CAST")
+        for (entity in database["entities"] as List<Map<String, Any>>) {
+            val table = entity["tableName"] as String
+            sql.append((entity["createSql"] as String).replace("\${TABLE_NAME}", table)).append(";\n")
+            for (index in entity["indices"] as List<Map<String, Any>>? ?: emptyList()) {
+                sql.append((index["createSql"] as String)
+                    .replace("\${TABLE_NAME}", table)
+                    .replace("\${INDEX_NAME}", index["name"] as String)).append(";\n")
+            }
+            // FTS content-sync triggers are normally created by Room in onCreate, which never runs for a seed
+            for (trigger in entity["contentSyncTriggers"] as List<String>? ?: emptyList()) {
+                sql.append(trigger).append(";\n")
+            }
+        }
+        // No room_master_table: Room validates a prepackaged file without one against the
+        // entities on first open and then records its own identity hash
+        for (file in seedFiles.files.sortedBy { it.name }) {
+            sql.append(file.readText()).append("\n")
+        }
+        sql.append("COMMIT;\nVACUUM;\n")
+        
+        val seed = outputDir.file("databases/seed.db").get().asFile
+        seed.parentFile.mkdirs()
+        seed.delete()
+        org.sqlite.JDBC.createConnection("jdbc:sqlite:${seed.absolutePath}", java.util.Properties()).use { connection ->
+            // sqlite3_exec runs the whole script, statement by statement, and stops at the first error
+            (connection as org.sqlite.SQLiteConnection).database._exec(sql.toString())
+        }
+        logger.lifecycle("Generated ${seed.name} (${seed.length()} bytes) from schema ${schema.name}")
+    }
+}
+
+androidComponents {
+    onVariants { variant ->
+        val variantName = variant.name.replaceFirstChar { it.uppercase() }
+        val generateSeedDatabase = tasks.register<GenerateSeedDatabase>("generate${variantName}SeedDatabase") {
+            schemaFiles.from(fileTree("schemas/com.kitchenkompanion.data.local.AppDatabase") { include("*.json") })
+            seedFiles.from(fileTree("seed") { include("*.sql") })
+            // Room writes the current version's schema while compiling; read it only after that
+            dependsOn("compile${variantName}JavaWithJavac")
+        }
+        variant.sources.assets?.addGeneratedSourceDirectory(generateSeedDatabase, GenerateSeedDatabase::outputDir)
+    }
 }
 
 dependencies {
@@ -73,6 +164,10 @@ dependencies {
     // Room
     implementation(libs.androidx.room.runtime)
     annotationProcessor(libs.androidx.room.compiler)
+    implementation(libs.androidx.room.paging)
+    
+    // Paging
+    implementation(libs.androidx.paging.runtime)
     
     // WorkManager
     implementation(libs.androidx.work.runtime)
@@ -110,6 +205,7 @@ dependencies {
     testImplementation(libs.junit)
     androidTestImplementation(libs.androidx.junit)
     androidTestImplementation(libs.androidx.espresso.core)
+    androidTestImplementation(libs.androidx.room.testing)
 }
 
 secrets {
@@ -0,0 +1,13 @@
+-- Common staple products keyed by barcode, so scanning them needs no network call.
+-- Names, sizes and nutrition per 100 g / 100 ml come from Open Food Facts (ODbL).
+-- Add rows here; the generate<Variant>SeedDatabase tasks pick them up on the next build.
+
+INSERT INTO products (barcode, name, brand, quantity, image_url,
+                      energy_kcal, fat, saturated_fat, carbohydrates, sugars, fiber, proteins, salt) VALUES
+    ('3017620422003', 'Nutella', 'Ferrero', '400 g', NULL,                      539, 30.9, 10.6, 57.5, 56.3, NULL, 6.3, 0.107),
+    ('8000500310427', 'Nutella Biscuits', 'Ferrero', '304 g', NULL,             511, 24.6, 10.9, 63.2, 36.1, NULL, 7.6, 0.395),
+    ('5449000000996', 'Coca-Cola', 'Coca-Cola', '330 ml', NULL,                  42, 0, 0, 10.6, 10.6, 0, 0, 0),
+    ('8076800195057', 'Spaghetti n.5', 'Barilla', '500 g', NULL,                359, 2.0, 0.5, 71.2, 3.5, 3.0, 13.0, 0.013),
+    ('7622210449283', 'Prince Chocolate Biscuits', 'LU', '300 g', NULL,         466, 17.0, 5.6, 69.0, 32.0, 4.2, 6.4, 0.58),
+    ('3274080005003', 'Spring Water', 'Cristaline', '1.5 l', NULL,                0, 0, 0, 0, 0, 0, 0, 0.0),
+    ('0737628064502', 'Thai Peanut Noodle Kit', 'Simply Asia', '155 g', NULL,   385, 7.7, 1.9, 71.2, 13.5, 1.9, 9.6, 1.47);
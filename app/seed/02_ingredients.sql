@@ -0,0 +1,74 @@
+-- Ingredient dictionary: lower-case words and two-word phrases found in item names,
+-- mapped to the canonical names used by recipe_ingredients. The longest matching alias wins,
+-- so 'peanut butter' is not read as 'butter'.
+
+INSERT INTO ingredients (alias, name) VALUES
+    ('baguette', 'bread'),
+    ('baked beans', 'beans'),
+    ('banana', 'banana'),
+    ('bananas', 'banana'),
+    ('basmati', 'rice'),
+    ('beans', 'beans'),
+    ('black beans', 'beans'),
+    ('bread', 'bread'),
+    ('brown sugar', 'sugar'),
+    ('butter', 'butter'),
+    ('carrot', 'carrot'),
+    ('carrots', 'carrot'),
+    ('caster sugar', 'sugar'),
+    ('cheddar', 'cheese'),
+    ('cheese', 'cheese'),
+    ('chicken', 'chicken'),
+    ('chicken breast', 'chicken'),
+    ('chicken thighs', 'chicken'),
+    ('egg', 'egg'),
+    ('eggs', 'egg'),
+    ('emmental', 'cheese'),
+    ('flour', 'flour'),
+    ('fusilli', 'pasta'),
+    ('garlic', 'garlic'),
+    ('gouda', 'cheese'),
+    ('honey', 'honey'),
+    ('jasmine', 'rice'),
+    ('kidney beans', 'beans'),
+    ('lemon', 'lemon'),
+    ('lemons', 'lemon'),
+    ('lentil', 'lentils'),
+    ('lentils', 'lentils'),
+    ('linguine', 'pasta'),
+    ('macaroni', 'pasta'),
+    ('milk', 'milk'),
+    ('mozzarella', 'cheese'),
+    ('oats', 'oats'),
+    ('olive oil', 'olive oil'),
+    ('onion', 'onion'),
+    ('onions', 'onion'),
+    ('parmesan', 'cheese'),
+    ('passata', 'tomato'),
+    ('pasta', 'pasta'),
+    ('peanut butter', 'peanut butter'),
+    ('penne', 'pasta'),
+    ('plain flour', 'flour'),
+    ('porridge', 'oats'),
+    ('potato', 'potato'),
+    ('potatoes', 'potato'),
+    ('rice', 'rice'),
+    ('rolled oats', 'oats'),
+    ('semi skimmed', 'milk'),
+    ('skimmed milk', 'milk'),
+    ('soy', 'soy sauce'),
+    ('soy sauce', 'soy sauce'),
+    ('spaghetti', 'pasta'),
+    ('spinach', 'spinach'),
+    ('sugar', 'sugar'),
+    ('tagliatelle', 'pasta'),
+    ('tomato', 'tomato'),
+    ('tomatoes', 'tomato'),
+    ('tortilla', 'tortilla'),
+    ('tortillas', 'tortilla'),
+    ('tuna', 'tuna'),
+    ('wheat flour', 'flour'),
+    ('whole milk', 'milk'),
+    ('wraps', 'tortilla'),
+    ('yoghurt', 'yogurt'),
+    ('yogurt', 'yogurt');
@@ -0,0 +1,76 @@
+-- Starter recipes served offline by RecipeService when the recipe API is unavailable.
+-- Ids are negative so they never collide with Spoonacular ids; recipe_payload is RecipeDetail JSON,
+-- stored uncompressed as a blob since plain SQL can't deflate; RecipePayloadCodec reads both.
+-- recipe_ingredients lists canonical ingredient names from 02_ingredients.sql, excluding salt, pepper and water.
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-1', 'Fluffy Pancakes', NULL, 'seed',
+     CAST('{"id":-1,"title":"Fluffy Pancakes","servings":4,"readyInMinutes":20,"extendedIngredients":[{"name":"flour","original":"200 g plain flour","amount":200,"unit":"g"},{"name":"milk","original":"300 ml milk","amount":300,"unit":"ml"},{"name":"egg","original":"2 eggs","amount":2,"unit":""},{"name":"sugar","original":"2 tbsp sugar","amount":2,"unit":"tbsp"},{"name":"butter","original":"30 g melted butter","amount":30,"unit":"g"}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Whisk the flour and sugar in a bowl."},{"number":2,"step":"Beat in the eggs, milk and melted butter until smooth."},{"number":3,"step":"Cook ladlefuls in a hot buttered pan for about 2 minutes per side."}]}]}' AS BLOB),
+     4, 20, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('flour', '-1'), ('milk', '-1'), ('egg', '-1'), ('sugar', '-1'), ('butter', '-1');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-2', 'Spaghetti with Tomato Sauce', NULL, 'seed',
+     CAST('{"id":-2,"title":"Spaghetti with Tomato Sauce","servings":4,"readyInMinutes":30,"extendedIngredients":[{"name":"pasta","original":"400 g spaghetti","amount":400,"unit":"g"},{"name":"tomato","original":"800 g chopped tomatoes","amount":800,"unit":"g"},{"name":"onion","original":"1 onion, diced","amount":1,"unit":""},{"name":"garlic","original":"2 cloves garlic, sliced","amount":2,"unit":"cloves"},{"name":"olive oil","original":"3 tbsp olive oil","amount":3,"unit":"tbsp"}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Soften the onion and garlic in the olive oil."},{"number":2,"step":"Add the tomatoes, season and simmer for 15 minutes."},{"number":3,"step":"Cook the spaghetti, drain and toss with the sauce."}]}]}' AS BLOB),
+     4, 30, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('pasta', '-2'), ('tomato', '-2'), ('onion', '-2'), ('garlic', '-2'), ('olive oil', '-2');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-3', 'Vegetable Fried Rice', NULL, 'seed',
+     CAST('{"id":-3,"title":"Vegetable Fried Rice","servings":2,"readyInMinutes":20,"extendedIngredients":[{"name":"rice","original":"300 g cooked rice","amount":300,"unit":"g"},{"name":"egg","original":"2 eggs","amount":2,"unit":""},{"name":"carrot","original":"1 carrot, diced","amount":1,"unit":""},{"name":"onion","original":"1 onion, diced","amount":1,"unit":""},{"name":"soy sauce","original":"2 tbsp soy sauce","amount":2,"unit":"tbsp"}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Stir-fry the onion and carrot in a little oil until tender."},{"number":2,"step":"Push aside, scramble the eggs in the pan."},{"number":3,"step":"Add the rice and soy sauce and fry until hot."}]}]}' AS BLOB),
+     2, 20, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('rice', '-3'), ('egg', '-3'), ('carrot', '-3'), ('onion', '-3'), ('soy sauce', '-3');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-4', 'Cheese Omelette', NULL, 'seed',
+     CAST('{"id":-4,"title":"Cheese Omelette","servings":1,"readyInMinutes":10,"extendedIngredients":[{"name":"egg","original":"3 eggs","amount":3,"unit":""},{"name":"cheese","original":"30 g grated cheese","amount":30,"unit":"g"},{"name":"milk","original":"1 tbsp milk","amount":1,"unit":"tbsp"},{"name":"butter","original":"1 tsp butter","amount":1,"unit":"tsp"}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Beat the eggs with the milk and a pinch of salt."},{"number":2,"step":"Melt the butter in a pan, pour in the eggs and stir gently."},{"number":3,"step":"Scatter over the cheese, fold and serve."}]}]}' AS BLOB),
+     1, 10, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('egg', '-4'), ('cheese', '-4'), ('milk', '-4'), ('butter', '-4');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-5', 'Overnight Oats', NULL, 'seed',
+     CAST('{"id":-5,"title":"Overnight Oats","servings":1,"readyInMinutes":5,"extendedIngredients":[{"name":"oats","original":"50 g rolled oats","amount":50,"unit":"g"},{"name":"milk","original":"120 ml milk","amount":120,"unit":"ml"},{"name":"yogurt","original":"2 tbsp yogurt","amount":2,"unit":"tbsp"},{"name":"banana","original":"1 banana, sliced","amount":1,"unit":""},{"name":"honey","original":"1 tsp honey","amount":1,"unit":"tsp"}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Stir the oats, milk and yogurt together in a jar."},{"number":2,"step":"Refrigerate overnight."},{"number":3,"step":"Top with banana and honey before serving."}]}]}' AS BLOB),
+     1, 5, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('oats', '-5'), ('milk', '-5'), ('yogurt', '-5'), ('banana', '-5'), ('honey', '-5');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-6', 'Lemon Garlic Roast Chicken with Potatoes', NULL, 'seed',
+     CAST('{"id":-6,"title":"Lemon Garlic Roast Chicken with Potatoes","servings":4,"readyInMinutes":75,"extendedIngredients":[{"name":"chicken","original":"1 kg chicken thighs","amount":1,"unit":"kg"},{"name":"potato","original":"800 g potatoes, cubed","amount":800,"unit":"g"},{"name":"garlic","original":"4 cloves garlic","amount":4,"unit":"cloves"},{"name":"lemon","original":"1 lemon","amount":1,"unit":""},{"name":"olive oil","original":"3 tbsp olive oil","amount":3,"unit":"tbsp"}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Heat the oven to 200 C."},{"number":2,"step":"Toss the chicken and potatoes with olive oil, garlic, lemon juice and seasoning."},{"number":3,"step":"Roast for 60 minutes, turning once, until golden."}]}]}' AS BLOB),
+     4, 75, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('chicken', '-6'), ('potato', '-6'), ('garlic', '-6'), ('lemon', '-6'), ('olive oil', '-6');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-7', 'Red Lentil Soup', NULL, 'seed',
+     CAST('{"id":-7,"title":"Red Lentil Soup","servings":4,"readyInMinutes":45,"extendedIngredients":[{"name":"lentils","original":"250 g red lentils","amount":250,"unit":"g"},{"name":"carrot","original":"2 carrots, diced","amount":2,"unit":""},{"name":"onion","original":"1 onion, diced","amount":1,"unit":""},{"name":"garlic","original":"2 cloves garlic","amount":2,"unit":"cloves"},{"name":"tomato","original":"400 g chopped tomatoes","amount":400,"unit":"g"}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Soften the onion, carrot and garlic in a little oil."},{"number":2,"step":"Add the lentils, tomatoes and 1 l water and simmer for 30 minutes."},{"number":3,"step":"Blend until smooth and season to taste."}]}]}' AS BLOB),
+     4, 45, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('lentils', '-7'), ('carrot', '-7'), ('onion', '-7'), ('garlic', '-7'), ('tomato', '-7');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-8', 'Tuna Pasta Salad', NULL, 'seed',
+     CAST('{"id":-8,"title":"Tuna Pasta Salad","servings":2,"readyInMinutes":20,"extendedIngredients":[{"name":"pasta","original":"200 g pasta","amount":200,"unit":"g"},{"name":"tuna","original":"1 can tuna, drained","amount":1,"unit":"can"},{"name":"tomato","original":"150 g cherry tomatoes","amount":150,"unit":"g"},{"name":"olive oil","original":"2 tbsp olive oil","amount":2,"unit":"tbsp"},{"name":"lemon","original":"1/2 lemon","amount":0.5,"unit":""}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Cook the pasta, drain and cool under running water."},{"number":2,"step":"Mix with the tuna and halved tomatoes."},{"number":3,"step":"Dress with olive oil, lemon juice and seasoning."}]}]}' AS BLOB),
+     2, 20, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('pasta', '-8'), ('tuna', '-8'), ('tomato', '-8'), ('olive oil', '-8'), ('lemon', '-8');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-9', 'Banana Bread', NULL, 'seed',
+     CAST('{"id":-9,"title":"Banana Bread","servings":8,"readyInMinutes":70,"extendedIngredients":[{"name":"banana","original":"3 ripe bananas","amount":3,"unit":""},{"name":"flour","original":"250 g flour","amount":250,"unit":"g"},{"name":"sugar","original":"100 g sugar","amount":100,"unit":"g"},{"name":"egg","original":"2 eggs","amount":2,"unit":""},{"name":"butter","original":"100 g melted butter","amount":100,"unit":"g"}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Heat the oven to 175 C and line a loaf tin."},{"number":2,"step":"Mash the bananas and mix in the butter, sugar and eggs."},{"number":3,"step":"Fold in the flour with 1 tsp baking soda and bake for 55 minutes."}]}]}' AS BLOB),
+     8, 70, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('banana', '-9'), ('flour', '-9'), ('sugar', '-9'), ('egg', '-9'), ('butter', '-9');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-10', 'Grilled Cheese Sandwich', NULL, 'seed',
+     CAST('{"id":-10,"title":"Grilled Cheese Sandwich","servings":1,"readyInMinutes":10,"extendedIngredients":[{"name":"bread","original":"2 slices bread","amount":2,"unit":"slices"},{"name":"cheese","original":"50 g cheese","amount":50,"unit":"g"},{"name":"butter","original":"1 tbsp butter","amount":1,"unit":"tbsp"}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Butter the outside of both slices."},{"number":2,"step":"Fill with the cheese."},{"number":3,"step":"Fry over medium heat until golden on both sides."}]}]}' AS BLOB),
+     1, 10, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('bread', '-10'), ('cheese', '-10'), ('butter', '-10');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-11', 'Bean and Cheese Quesadillas', NULL, 'seed',
+     CAST('{"id":-11,"title":"Bean and Cheese Quesadillas","servings":2,"readyInMinutes":15,"extendedIngredients":[{"name":"tortilla","original":"4 tortillas","amount":4,"unit":""},{"name":"beans","original":"400 g beans, drained","amount":400,"unit":"g"},{"name":"cheese","original":"100 g grated cheese","amount":100,"unit":"g"},{"name":"onion","original":"1/2 onion, diced","amount":0.5,"unit":""}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Roughly mash the beans with the onion."},{"number":2,"step":"Spread over two tortillas, add the cheese and top with the others."},{"number":3,"step":"Cook in a dry pan for 3 minutes per side and cut into wedges."}]}]}' AS BLOB),
+     2, 15, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('tortilla', '-11'), ('beans', '-11'), ('cheese', '-11'), ('onion', '-11');
+
+INSERT INTO recipe_cache (id, title, image_url, source, recipe_payload, servings, ready_in_minutes, cached_at) VALUES
+    ('-12', 'Mashed Potatoes', NULL, 'seed',
+     CAST('{"id":-12,"title":"Mashed Potatoes","servings":4,"readyInMinutes":30,"extendedIngredients":[{"name":"potato","original":"1 kg potatoes","amount":1,"unit":"kg"},{"name":"milk","original":"100 ml warm milk","amount":100,"unit":"ml"},{"name":"butter","original":"50 g butter","amount":50,"unit":"g"}],"analyzedInstructions":[{"name":"","steps":[{"number":1,"step":"Boil the peeled potatoes in salted water for 20 minutes."},{"number":2,"step":"Drain and mash with the butter and milk."},{"number":3,"step":"Season to taste."}]}]}' AS BLOB),
+     4, 30, CAST(strftime('%s', 'now') AS INTEGER) * 1000);
+INSERT INTO recipe_ingredients (ingredient, recipe_id) VALUES ('potato', '-12'), ('milk', '-12'), ('butter', '-12');
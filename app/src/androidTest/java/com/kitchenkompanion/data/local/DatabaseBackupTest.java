@@ -0,0 +1,152 @@
+package com.kitchenkompanion.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.kitchenkompanion.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File-level backup and restore: the copy is a consistent snapshot, a restore brings it
+ * back together with the outbox, and a damaged or foreign backup leaves current data alone.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseBackupTest {
+    
+    private static final String TAG = "DatabaseBackupTest";
+    private static final String HOUSEHOLD = "test-household-backup";
+    private static final String OTHER_HOUSEHOLD = "test-household-backup-other";
+    private static final int ITEMS = 5_000;
+    
+    private Context context;
+    private File backupFile;
+    
+    @Before
+    public void setUp() {
+        assumeTrue(BuildConfig.PER_HOUSEHOLD_DATABASES);
+        context = ApplicationProvider.getApplicationContext();
+        AppDatabase.deleteHousehold(context, HOUSEHOLD);
+        AppDatabase.deleteHousehold(context, OTHER_HOUSEHOLD);
+        backupFile = new File(context.getCacheDir(), "backup-test.db");
+    }
+    
+    @After
+    public void tearDown() {
+        if (context != null) {
+            AppDatabase.deleteHousehold(context, HOUSEHOLD);
+            AppDatabase.deleteHousehold(context, OTHER_HOUSEHOLD);
+            backupFile.delete();
+        }
+    }
+    
+    @Test
+    public void restoreBringsBackRowsAndOutbox() throws IOException {
+        AppDatabase database = AppDatabase.getInstance(context, HOUSEHOLD);
+        List<ItemEntity> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(item("item-" + i, HOUSEHOLD));
+        }
+        database.itemDao().insertAll(items);
+        database.syncOpDao().insert(SyncOpEntity.upsert(HOUSEHOLD, SyncOpEntity.TYPE_ITEM, "item-0"));
+        
+        long backupStart = SystemClock.elapsedRealtime();
+        long bytes = backup(HOUSEHOLD);
+        long backupMs = SystemClock.elapsedRealtime() - backupStart;
+        assertEquals(backupFile.length(), bytes);
+        
+        // Changes after the backup are undone by the restore
+        database.itemDao().deleteAllForHousehold(HOUSEHOLD);
+        database.itemDao().insert(item("after-backup", HOUSEHOLD));
+        
+        long restoreStart = SystemClock.elapsedRealtime();
+        int pendingOps = restore(HOUSEHOLD);
+        long restoreMs = SystemClock.elapsedRealtime() - restoreStart;
+        Log.i(TAG, "Backup of " + bytes + " bytes took " + backupMs + " ms, restore " + restoreMs + " ms");
+        
+        AppDatabase restored = AppDatabase.getInstance(context, HOUSEHOLD);
+        assertEquals(1, pendingOps);
+        assertEquals(ITEMS, restored.itemDao().getAllItemsSync(HOUSEHOLD).size());
+        assertNull(restored.itemDao().getItemByIdSync("after-backup"));
+        // Trigger-maintained counters come along with the file
+        assertEquals(ITEMS, restored.householdStatsDao().getSync(HOUSEHOLD).itemCount);
+        assertTrue(restoreMs < 1000);
+    }
+    
+    @Test
+    public void damagedBackupLeavesDataAlone() throws IOException {
+        AppDatabase database = AppDatabase.getInstance(context, HOUSEHOLD);
+        database.itemDao().insert(item("milk", HOUSEHOLD));
+        backup(HOUSEHOLD);
+        
+        try (RandomAccessFile file = new RandomAccessFile(backupFile, "rw")) {
+            // Overwrite the first page after the header, which holds the schema
+            file.seek(200);
+            file.write(new byte[1024]);
+        }
+        assertRestoreFails(HOUSEHOLD);
+        assertNotNull(AppDatabase.getInstance(context, HOUSEHOLD).itemDao().getItemByIdSync("milk"));
+    }
+    
+    @Test
+    public void backupOfAnotherHouseholdIsRejected() throws IOException {
+        AppDatabase.getInstance(context, OTHER_HOUSEHOLD).itemDao().insert(item("eggs", OTHER_HOUSEHOLD));
+        backup(OTHER_HOUSEHOLD);
+        
+        AppDatabase.getInstance(context, HOUSEHOLD).itemDao().insert(item("milk", HOUSEHOLD));
+        assertRestoreFails(HOUSEHOLD);
+        assertNotNull(AppDatabase.getInstance(context, HOUSEHOLD).itemDao().getItemByIdSync("milk"));
+    }
+    
+    private long backup(String householdId) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(backupFile)) {
+            return DatabaseBackup.backup(context, householdId, out.getChannel());
+        }
+    }
+    
+    private int restore(String householdId) throws IOException {
+        try (FileInputStream in = new FileInputStream(backupFile)) {
+            return DatabaseBackup.restore(context, householdId, in.getChannel());
+        }
+    }
+    
+    private void assertRestoreFails(String householdId) {
+        try {
+            restore(householdId);
+            fail("Restore accepted a bad backup");
+        } catch (IOException expected) {
+            Log.i(TAG, "Rejected: " + expected.getMessage());
+        }
+    }
+    
+    private static ItemEntity item(String id, String householdId) {
+        ItemEntity item = new ItemEntity();
+        item.id = id;
+        item.householdId = householdId;
+        item.name = id;
+        item.quantity = 1;
+        return item;
+    }
+}
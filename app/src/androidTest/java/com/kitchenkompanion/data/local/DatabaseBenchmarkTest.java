@@ -0,0 +1,354 @@
+package com.kitchenkompanion.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.AbstractWindowedCursor;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.gson.Gson;
+import com.kitchenkompanion.data.remote.dto.RecipeDetail;
+import com.kitchenkompanion.utils.DateUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Measures storage-level costs of DAO access paths on a large household.
+ * Results are logged under the "DatabaseBenchmark" tag; assertions only guard the direction.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseBenchmarkTest {
+    
+    private static final String TAG = "DatabaseBenchmark";
+    private static final String HOUSEHOLD_ID = "bench-household";
+    private static final int ITEM_COUNT = 5000;
+    private static final int KEY_LAYOUT_ITEM_COUNT = 50_000;
+    private static final int LOOKUPS = 2000;
+    private static final int RECIPE_COUNT = 200;
+    
+    private AppDatabase database;
+    
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+    }
+    
+    @After
+    public void tearDown() {
+        database.close();
+    }
+    
+    @Test
+    public void pantryRowProjectionShrinksCursorWindow() {
+        insertItems(ITEM_COUNT);
+        
+        String where = " FROM items WHERE household_id = ? AND is_deleted = 0 ORDER BY expiry_day ASC";
+        ScanStats full = scan("SELECT *" + where);
+        ScanStats slim = scan("SELECT id, name, quantity, unit, location, expiry_date, expiry_day, photo_url" + where);
+        
+        Log.i(TAG, "SELECT *:   " + full);
+        Log.i(TAG, "PantryRow:  " + slim);
+        
+        assertEquals(ITEM_COUNT, full.rows);
+        assertEquals(ITEM_COUNT, slim.rows);
+        assertTrue(slim.windows <= full.windows);
+        assertTrue(slim.bytes < full.bytes);
+    }
+    
+    /**
+     * Version 8 keyed items and item_nutrition by the UUID text; version 9 keys them by integer local_id.
+     * Both layouts are built as plain files with the same rows, so page counts compare directly.
+     */
+    @Test
+    public void integerKeysShrinkNutritionAndSyncUpdates() {
+        Context context = ApplicationProvider.getApplicationContext();
+        KeyLayoutStats uuidKeys = measureKeyLayout(context, "bench_uuid_keys.db",
+                "CREATE TABLE items (id TEXT NOT NULL, name TEXT, quantity REAL NOT NULL, " +
+                        "is_synced INTEGER NOT NULL, PRIMARY KEY(id))",
+                "CREATE TABLE item_nutrition (item_id TEXT NOT NULL, energy_kcal REAL, proteins REAL, " +
+                        "PRIMARY KEY(item_id))",
+                "UPDATE items SET is_synced = 1 WHERE id = ? AND is_synced = 0", false);
+        KeyLayoutStats localIdKeys = measureKeyLayout(context, "bench_local_id_keys.db",
+                "CREATE TABLE items (local_id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, id TEXT NOT NULL, " +
+                        "name TEXT, quantity REAL NOT NULL, is_synced INTEGER NOT NULL)",
+                "CREATE TABLE item_nutrition (item_local_id INTEGER NOT NULL, energy_kcal REAL, proteins REAL, " +
+                        "PRIMARY KEY(item_local_id))",
+                "UPDATE items SET is_synced = 1 WHERE local_id = ? AND is_synced = 0", true);
+        
+        Log.i(TAG, "UUID keys:     " + uuidKeys);
+        Log.i(TAG, "local_id keys: " + localIdKeys);
+        
+        assertTrue(localIdKeys.nutritionPages < uuidKeys.nutritionPages);
+        assertTrue(localIdKeys.totalPages < uuidKeys.totalPages);
+    }
+    
+    @Test
+    public void recipePayloadsDeflate() {
+        Gson gson = new Gson();
+        List<String> jsons = new ArrayList<>(RECIPE_COUNT);
+        List<byte[]> payloads = new ArrayList<>(RECIPE_COUNT);
+        long jsonBytes = 0;
+        long payloadBytes = 0;
+        for (int i = 0; i < RECIPE_COUNT; i++) {
+            String json = gson.toJson(recipeDetail(i));
+            byte[] payload = RecipePayloadCodec.encode(json);
+            jsons.add(json);
+            payloads.add(payload);
+            jsonBytes += json.getBytes(StandardCharsets.UTF_8).length;
+            payloadBytes += payload.length;
+        }
+        
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < RECIPE_COUNT; i++) {
+            assertEquals(jsons.get(i), RecipePayloadCodec.decode(payloads.get(i)));
+        }
+        double decodeMicros = (SystemClock.elapsedRealtimeNanos() - start) / 1000.0 / RECIPE_COUNT;
+        
+        double ratio = (double) jsonBytes / payloadBytes;
+        Log.i(TAG, "Recipe payloads: " + (jsonBytes / RECIPE_COUNT) + " B JSON -> " + (payloadBytes / RECIPE_COUNT)
+                + " B deflated per entry, " + String.format("%.1fx, %.1f us decode per entry", ratio, decodeMicros));
+        assertTrue(ratio > 2);
+    }
+    
+    /**
+     * A recipe detail shaped like a Spoonacular response with instructions and nutrition.
+     */
+    private static RecipeDetail recipeDetail(int seed) {
+        RecipeDetail recipe = new RecipeDetail();
+        recipe.id = 700000 + seed;
+        recipe.title = "Weeknight Recipe " + seed;
+        recipe.image = "https://img.spoonacular.com/recipes/" + recipe.id + "-556x370.jpg";
+        recipe.servings = 2 + seed % 4;
+        recipe.readyInMinutes = 15 + seed % 60;
+        recipe.sourceUrl = "https://www.example.com/recipes/" + recipe.id;
+        recipe.summary = "Weeknight Recipe " + seed + " is a <b>dairy free</b> main course that serves "
+                + recipe.servings + ". One serving contains <b>" + (300 + seed) + " calories</b>, <b>"
+                + (10 + seed % 20) + "g of protein</b>, and <b>" + (5 + seed % 15) + "g of fat</b>.";
+        recipe.cuisines = Arrays.asList("Mediterranean", "Italian", "European");
+        recipe.dishTypes = Arrays.asList("lunch", "main course", "main dish", "dinner");
+        recipe.extendedIngredients = new ArrayList<>();
+        String[] names = {"olive oil", "garlic", "onion", "tomato", "spaghetti", "parmesan", "basil", "salt",
+                "black pepper", "chicken breast", "lemon", "parsley"};
+        for (int i = 0; i < names.length; i++) {
+            RecipeDetail.ExtendedIngredient ingredient = new RecipeDetail.ExtendedIngredient();
+            ingredient.id = 1000 + (seed * 13 + i) % 9000;
+            ingredient.name = names[i];
+            ingredient.amount = 1 + (seed + i) % 7;
+            ingredient.unit = i % 2 == 0 ? "tablespoons" : "grams";
+            ingredient.original = ingredient.amount + " " + ingredient.unit + " " + names[i] + ", chopped";
+            ingredient.image = names[i].replace(' ', '-') + ".jpg";
+            recipe.extendedIngredients.add(ingredient);
+        }
+        RecipeDetail.AnalyzedInstruction instruction = new RecipeDetail.AnalyzedInstruction();
+        instruction.name = "";
+        instruction.steps = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            RecipeDetail.Step step = new RecipeDetail.Step();
+            step.number = i;
+            step.step = "Heat the " + names[i % names.length] + " in a large pan over medium heat and stir in the "
+                    + names[(i + seed) % names.length] + ". Cook for " + (2 + i) + " minutes until fragrant.";
+            instruction.steps.add(step);
+        }
+        recipe.analyzedInstructions = Collections.singletonList(instruction);
+        recipe.nutrition = new RecipeDetail.Nutrition();
+        recipe.nutrition.nutrients = new ArrayList<>();
+        String[] nutrients = {"Calories", "Fat", "Saturated Fat", "Carbohydrates", "Net Carbohydrates", "Sugar",
+                "Cholesterol", "Sodium", "Protein", "Vitamin C", "Fiber", "Iron", "Vitamin A", "Potassium",
+                "Magnesium", "Calcium", "Vitamin B6", "Folate", "Zinc", "Vitamin E"};
+        for (int i = 0; i < nutrients.length; i++) {
+            RecipeDetail.Nutrient nutrient = new RecipeDetail.Nutrient();
+            nutrient.name = nutrients[i];
+            nutrient.amount = ((seed * 31 + i * 17) % 1000) / 10.0;
+            nutrient.unit = i == 0 ? "kcal" : i < 9 ? "g" : "mg";
+            recipe.nutrition.nutrients.add(nutrient);
+        }
+        return recipe;
+    }
+    
+    private KeyLayoutStats measureKeyLayout(Context context, String name, String itemsSql, String nutritionSql,
+                                            String markSyncedSql, boolean integerKeys) {
+        File file = context.getDatabasePath(name);
+        SQLiteDatabase.deleteDatabase(file);
+        file.getParentFile().mkdirs();
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(file, null);
+        try {
+            db.execSQL(itemsSql);
+            if (integerKeys) {
+                // The UUID stays addressable for Firestore; the text layout gets this from its primary key
+                db.execSQL("CREATE UNIQUE INDEX index_items_id ON items (id)");
+            }
+            db.execSQL(nutritionSql);
+            
+            String[] ids = new String[KEY_LAYOUT_ITEM_COUNT];
+            db.beginTransaction();
+            try {
+                SQLiteStatement item = db.compileStatement(
+                        "INSERT INTO items (id, name, quantity, is_synced) VALUES (?, ?, 1, 0)");
+                for (int i = 0; i < KEY_LAYOUT_ITEM_COUNT; i++) {
+                    ids[i] = UUID.randomUUID().toString();
+                    item.bindString(1, ids[i]);
+                    item.bindString(2, "Item " + i);
+                    item.executeInsert();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            long itemPages = queryLong(db, "PRAGMA page_count");
+            
+            // Every fourth item came from a barcode scan and carries nutrition; local_id is i + 1
+            db.beginTransaction();
+            try {
+                SQLiteStatement nutrition = db.compileStatement("INSERT INTO item_nutrition VALUES (?, 250, 8)");
+                for (int i = 0; i < KEY_LAYOUT_ITEM_COUNT; i += 4) {
+                    if (integerKeys) {
+                        nutrition.bindLong(1, i + 1);
+                    } else {
+                        nutrition.bindString(1, ids[i]);
+                    }
+                    nutrition.executeInsert();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            
+            KeyLayoutStats stats = new KeyLayoutStats();
+            stats.totalPages = queryLong(db, "PRAGMA page_count");
+            stats.nutritionPages = stats.totalPages - itemPages;
+            
+            SQLiteStatement markSynced = db.compileStatement(markSyncedSql);
+            long start = SystemClock.elapsedRealtimeNanos();
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < LOOKUPS; i++) {
+                    int row = (int) ((i * 7919L) % KEY_LAYOUT_ITEM_COUNT);
+                    if (integerKeys) {
+                        markSynced.bindLong(1, row + 1);
+                    } else {
+                        markSynced.bindString(1, ids[row]);
+                    }
+                    markSynced.executeUpdateDelete();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            stats.markSyncedMicros = (SystemClock.elapsedRealtimeNanos() - start) / 1000.0 / LOOKUPS;
+            return stats;
+        } finally {
+            db.close();
+            SQLiteDatabase.deleteDatabase(file);
+        }
+    }
+    
+    private static long queryLong(SQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+    
+    private void insertItems(int count) {
+        List<ItemEntity> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ItemEntity item = new ItemEntity();
+            item.id = UUID.randomUUID().toString();
+            item.householdId = HOUSEHOLD_ID;
+            item.barcode = String.valueOf(4000000000000L + i);
+            item.name = "Item " + i;
+            item.quantity = 1 + (i % 5);
+            item.unit = "pcs";
+            item.location = "Pantry";
+            item.expiryDate = new Date(System.currentTimeMillis() + i * 3_600_000L);
+            item.expiryDay = DateUtils.toEpochDay(item.expiryDate);
+            item.photoUrl = "https://images.example.com/products/" + i + ".jpg";
+            item.notes = "Bought at the weekly market, keep sealed after opening. Batch " + i;
+            item.createdAt = new Date();
+            item.updatedAt = new Date();
+            items.add(item);
+        }
+        database.itemDao().insertAll(items);
+    }
+    
+    private ScanStats scan(String sql) {
+        ScanStats stats = new ScanStats();
+        long start = SystemClock.elapsedRealtimeNanos();
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(sql, new Object[]{HOUSEHOLD_ID}))) {
+            int windowStart = -1;
+            while (cursor.moveToNext()) {
+                stats.rows++;
+                for (int i = 0; i < cursor.getColumnCount(); i++) {
+                    switch (cursor.getType(i)) {
+                        case Cursor.FIELD_TYPE_STRING:
+                            stats.bytes += cursor.getString(i).length() * 2L; // UTF-16 on the heap
+                            break;
+                        case Cursor.FIELD_TYPE_BLOB:
+                            stats.bytes += cursor.getBlob(i).length;
+                            break;
+                        case Cursor.FIELD_TYPE_NULL:
+                            break;
+                        default:
+                            stats.bytes += 8;
+                    }
+                }
+                if (cursor instanceof AbstractWindowedCursor) {
+                    int position = ((AbstractWindowedCursor) cursor).getWindow().getStartPosition();
+                    if (position != windowStart) {
+                        stats.windows++;
+                        windowStart = position;
+                    }
+                }
+            }
+        }
+        stats.millis = (SystemClock.elapsedRealtimeNanos() - start) / 1_000_000.0;
+        return stats;
+    }
+    
+    private static class KeyLayoutStats {
+        long totalPages;
+        long nutritionPages;
+        double markSyncedMicros;
+        
+        @Override
+        public String toString() {
+            return totalPages + " pages, " + nutritionPages + " nutrition pages, "
+                    + String.format("%.1f us per markAsSynced", markSyncedMicros);
+        }
+    }
+    
+    private static class ScanStats {
+        int rows;
+        int windows;
+        long bytes;
+        double millis;
+        
+        @Override
+        public String toString() {
+            return rows + " rows, " + windows + " CursorWindow fills, "
+                    + (bytes / 1024) + " KiB materialized, " + String.format("%.1f ms", millis);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.kitchenkompanion.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.kitchenkompanion.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Per-household storage: each household gets its own file, rows left in the shared
+ * database move over on first open, and leaving a household deletes its file and those rows.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HouseholdDatabaseTest {
+    
+    private static final String HOUSEHOLD_A = "test-household-a";
+    private static final String HOUSEHOLD_B = "test-household-b";
+    
+    private Context context;
+    
+    @Before
+    public void setUp() {
+        assumeTrue(BuildConfig.PER_HOUSEHOLD_DATABASES);
+        context = ApplicationProvider.getApplicationContext();
+        AppDatabase.deleteHousehold(context, HOUSEHOLD_A);
+        AppDatabase.deleteHousehold(context, HOUSEHOLD_B);
+    }
+    
+    @After
+    public void tearDown() {
+        if (context != null) {
+            AppDatabase.deleteHousehold(context, HOUSEHOLD_A);
+            AppDatabase.deleteHousehold(context, HOUSEHOLD_B);
+            AppDatabase.getInstance(context).itemDao().deleteAllForHousehold(HOUSEHOLD_A);
+            AppDatabase.getInstance(context).itemDao().deleteAllForHousehold(HOUSEHOLD_B);
+        }
+    }
+    
+    @Test
+    public void householdsLiveInSeparateFiles() {
+        AppDatabase a = AppDatabase.getInstance(context, HOUSEHOLD_A);
+        AppDatabase b = AppDatabase.getInstance(context, HOUSEHOLD_B);
+        assertNotSame(a, b);
+        assertNotSame(AppDatabase.getInstance(context), a);
+        
+        a.itemDao().insert(item("milk", HOUSEHOLD_A));
+        assertNotNull(a.itemDao().getItemByIdSync("milk"));
+        assertNull(b.itemDao().getItemByIdSync("milk"));
+        assertTrue(AppDatabase.getStoredHouseholdIds(context).contains(HOUSEHOLD_A));
+    }
+    
+    @Test
+    public void firstOpenMovesRowsOutOfSharedDatabase() {
+        AppDatabase shared = AppDatabase.getInstance(context);
+        // Another household's row first, so oats has a different local_id in each file
+        shared.itemDao().insert(item("milk", HOUSEHOLD_B));
+        ItemNutritionEntity nutrition = new ItemNutritionEntity();
+        nutrition.itemLocalId = shared.itemDao().insert(item("oats", HOUSEHOLD_A));
+        nutrition.proteins = 13.5;
+        shared.itemNutritionDao().insert(nutrition);
+        shared.syncOpDao().insert(SyncOpEntity.upsert(HOUSEHOLD_A, SyncOpEntity.TYPE_ITEM, "oats"));
+        
+        AppDatabase household = AppDatabase.getInstance(context, HOUSEHOLD_A);
+        assertNotNull(household.itemDao().getItemByIdSync("oats"));
+        assertEquals(13.5, household.itemNutritionDao().getByItemIdSync("oats").proteins, 0.001);
+        assertEquals(1, household.syncOpDao().countPendingOps(HOUSEHOLD_A));
+        assertNull(shared.itemDao().getItemByIdSync("oats"));
+        assertNull(shared.itemNutritionDao().getByItemIdSync("oats"));
+        assertEquals(0, shared.syncOpDao().countPendingOps(HOUSEHOLD_A));
+    }
+    
+    @Test
+    public void switchingClosesOtherHouseholdsAndLeavingDeletesTheFile() {
+        AppDatabase a = AppDatabase.getInstance(context, HOUSEHOLD_A);
+        a.itemDao().insert(item("rice", HOUSEHOLD_A));
+        
+        AppDatabase.switchHousehold(context, HOUSEHOLD_B);
+        assertFalse(a.isOpen());
+        // Reopening is a file open; the data is still there
+        assertNotNull(AppDatabase.getInstance(context, HOUSEHOLD_A).itemDao().getItemByIdSync("rice"));
+        
+        AppDatabase.deleteHousehold(context, HOUSEHOLD_A);
+        assertFalse(context.getDatabasePath(AppDatabase.householdDatabaseName(HOUSEHOLD_A)).exists());
+        assertFalse(AppDatabase.getStoredHouseholdIds(context).contains(HOUSEHOLD_A));
+    }
+    
+    @Test
+    public void leavingDeletesRowsNotYetMovedOutOfSharedDatabase() {
+        AppDatabase shared = AppDatabase.getInstance(context);
+        shared.itemDao().insert(item("flour", HOUSEHOLD_A));
+        shared.syncOpDao().insert(SyncOpEntity.upsert(HOUSEHOLD_A, SyncOpEntity.TYPE_ITEM, "flour"));
+        
+        AppDatabase.deleteHousehold(context, HOUSEHOLD_A);
+        assertNull(shared.itemDao().getItemByIdSync("flour"));
+        assertEquals(0, shared.syncOpDao().countPendingOps(HOUSEHOLD_A));
+        // Nothing left to import when the household is opened again
+        assertNull(AppDatabase.getInstance(context, HOUSEHOLD_A).itemDao().getItemByIdSync("flour"));
+    }
+    
+    private static ItemEntity item(String id, String householdId) {
+        ItemEntity item = new ItemEntity();
+        item.id = id;
+        item.householdId = householdId;
+        item.name = id;
+        item.quantity = 1;
+        return item;
+    }
+}
@@ -0,0 +1,170 @@
+package com.kitchenkompanion.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+
+/**
+ * Writes through the DAOs the way the app does and checks that the trigger-maintained
+ * counters always equal a full recount.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HouseholdStatsTest {
+    
+    private static final String HH = "household";
+    private static final int TODAY = 20_000;
+    
+    private AppDatabase database;
+    
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.CALLBACK)
+                .build();
+        database.getOpenHelper().getWritableDatabase();
+    }
+    
+    @After
+    public void tearDown() {
+        database.close();
+    }
+    
+    @Test
+    public void countersFollowItemWrites() {
+        assertNull(database.householdStatsDao().getSync(HH));
+        
+        database.itemDao().insert(item("milk", 1, 2, TODAY + 1));
+        database.itemDao().insert(item("rice", 5, 1, TODAY + 30));
+        database.itemDao().insert(item("salt", 1, 0, null));
+        assertCounts(3, 1, 0);
+        
+        // @Insert(REPLACE) deletes and re-inserts; the row must be counted once
+        database.itemDao().insert(item("rice", 1, 1, TODAY + 2));
+        assertCounts(3, 2, 0);
+        
+        database.itemDao().softDelete("milk", new Date());
+        assertCounts(2, 1, 0);
+        
+        database.itemDao().deleteAllForHousehold(HH);
+        assertCounts(0, 0, 0);
+        assertEquals(0, count("SELECT COUNT(*) FROM item_expiry_counts"));
+    }
+    
+    @Test
+    public void lowStockCountFollowsQuantityAndThreshold() {
+        database.itemDao().insert(item("milk", 3, 1, TODAY + 1));
+        database.itemDao().insert(item("rice", 5, 1, TODAY + 30));
+        assertCounts(2, 0, 0);
+        
+        ItemEntity milk = database.itemDao().getItemByIdSync("milk");
+        milk.quantity = 1;
+        database.itemDao().update(milk);
+        assertCounts(2, 1, 0);
+        
+        ItemEntity rice = database.itemDao().getItemByIdSync("rice");
+        rice.lowStockThreshold = 5;
+        database.itemDao().update(rice);
+        assertCounts(2, 2, 0);
+        
+        // Both sides of the threshold move, but the row stays low on stock
+        milk = database.itemDao().getItemByIdSync("milk");
+        milk.quantity = 0.5;
+        milk.lowStockThreshold = 2;
+        database.itemDao().update(milk);
+        assertCounts(2, 2, 0);
+        
+        rice = database.itemDao().getItemByIdSync("rice");
+        rice.quantity = 10;
+        database.itemDao().update(rice);
+        assertCounts(2, 1, 0);
+    }
+    
+    @Test
+    public void countersFollowGroceryWrites() {
+        database.groceryDao().insert(entry("eggs"));
+        database.groceryDao().insert(entry("bread"));
+        assertCounts(0, 0, 2);
+        
+        database.groceryDao().updateCheckedStatus(localId("eggs"), true, new Date());
+        assertCounts(0, 0, 1);
+        
+        database.groceryDao().softDeleteCheckedItems(HH, new Date());
+        database.groceryDao().softDelete(localId("bread"), new Date());
+        assertCounts(0, 0, 0);
+    }
+    
+    @Test
+    public void expiringCountSumsBucketsUpToDay() {
+        database.itemDao().insert(item("old", 1, 0, TODAY - 10));
+        database.itemDao().insert(item("milk", 1, 0, TODAY + 1));
+        database.itemDao().insert(item("yogurt", 1, 0, TODAY + 1));
+        database.itemDao().insert(item("rice", 1, 0, TODAY + 30));
+        
+        try (Cursor cursor = database.query("SELECT COALESCE(SUM(item_count), 0) FROM item_expiry_counts " +
+                "WHERE household_id = ? AND expiry_day <= ?", new Object[]{HH, TODAY + 3})) {
+            cursor.moveToFirst();
+            assertEquals(3, cursor.getInt(0));
+        }
+        assertEquals(3, count("SELECT COUNT(*) FROM item_expiry_counts"));
+    }
+    
+    private void assertCounts(int items, int lowStock, int uncheckedEntries) {
+        HouseholdStatsEntity stats = database.householdStatsDao().getSync(HH);
+        assertEquals(items, stats.itemCount);
+        assertEquals(lowStock, stats.lowStockCount);
+        assertEquals(uncheckedEntries, stats.uncheckedGroceryCount);
+        
+        assertEquals(count("SELECT COUNT(*) FROM items WHERE is_deleted = 0"), stats.itemCount);
+        assertEquals(count("SELECT COUNT(*) FROM items WHERE is_deleted = 0 AND is_low_stock = 1"), stats.lowStockCount);
+    }
+    
+    private static ItemEntity item(String id, double quantity, double lowStockThreshold, Integer expiryDay) {
+        ItemEntity item = new ItemEntity();
+        item.id = id;
+        item.householdId = HH;
+        item.name = id;
+        item.quantity = quantity;
+        item.lowStockThreshold = lowStockThreshold;
+        item.expiryDay = expiryDay;
+        item.createdAt = new Date();
+        item.updatedAt = new Date();
+        return item;
+    }
+    
+    private static GroceryEntryEntity entry(String id) {
+        GroceryEntryEntity entry = new GroceryEntryEntity();
+        entry.id = id;
+        entry.householdId = HH;
+        entry.listId = "default";
+        entry.name = id;
+        entry.quantity = 1;
+        entry.createdAt = new Date();
+        entry.updatedAt = new Date();
+        return entry;
+    }
+    
+    private long localId(String entryId) {
+        return database.groceryDao().getEntryByIdSync(entryId).localId;
+    }
+    
+    private int count(String sql) {
+        try (Cursor cursor = database.query(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
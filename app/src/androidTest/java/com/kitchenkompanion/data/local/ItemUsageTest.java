@@ -0,0 +1,144 @@
+package com.kitchenkompanion.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Usage rates follow the logged uses without re-reading the log, and the run-out
+ * query picks items by their rate as of now.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemUsageTest {
+    
+    private static final String HH = "household";
+    private static final long DAY_MS = 86_400_000L;
+    private static final long START = 1_700_000_000_000L;
+    
+    private AppDatabase database;
+    
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.CALLBACK)
+                .build();
+        database.getOpenHelper().getWritableDatabase();
+    }
+    
+    @After
+    public void tearDown() {
+        database.close();
+    }
+    
+    @Test
+    public void steadyUseGivesSteadyRate() {
+        ItemEntity milk = insert("milk", 10);
+        // One unit a day for three weeks
+        for (int day = 1; day <= 21; day++) {
+            use(milk, 1, START + day * DAY_MS);
+        }
+        
+        ItemUsageEntity usage = database.itemUsageDao().getByItemLocalIdSync(milk.localId);
+        assertEquals(21, usage.useCount);
+        assertEquals(1.0, usage.ratePerDay, 0.05);
+        assertEquals(21, database.itemUsageDao().getRecentConsumptionSync(milk.localId, 100).size());
+        assertEquals(Integer.valueOf(4), usage.daysUntilEmpty(4.5, new Date(START + 21 * DAY_MS)));
+    }
+    
+    @Test
+    public void burstOfUsesIsNotReadAsHugeRate() {
+        ItemEntity rice = insert("rice", 5);
+        use(rice, 1, START + 60_000);
+        use(rice, 1, START + 120_000);
+        
+        // Two units within minutes count as two units over the minimum one-day window
+        assertTrue(database.itemUsageDao().getByItemLocalIdSync(rice.localId).ratePerDay <= 2.0);
+    }
+    
+    @Test
+    public void runningOutUsesRateAsOfNow() {
+        ItemEntity milk = insert("milk", 10);
+        ItemEntity salt = insert("salt", 10);
+        insert("flour", 1); // Never used, so no forecast
+        for (int day = 1; day <= 7; day++) {
+            use(milk, 1, START + day * DAY_MS);
+        }
+        use(salt, 0.1, START + 7 * DAY_MS);
+        
+        // milk has 3 left at about 1 a day; salt has 9.9 left at a few hundredths a day
+        Date now = new Date(START + 7 * DAY_MS);
+        List<ItemEntity> runningOut = database.itemUsageDao().getRunningOutSync(HH, 7, now);
+        assertEquals(1, runningOut.size());
+        assertEquals("milk", runningOut.get(0).id);
+        
+        database.itemDao().softDelete("milk", new Date());
+        assertTrue(database.itemUsageDao().getRunningOutSync(HH, 7, now).isEmpty());
+        assertNull(new ItemUsageEntity().daysUntilEmpty(1, now));
+    }
+    
+    @Test
+    public void rateFadesWhileItemGoesUnused() {
+        ItemEntity flour = insert("flour", 10);
+        // One heavy baking day, then nothing
+        use(flour, 6, START + DAY_MS);
+        
+        Date nextDay = new Date(START + 2 * DAY_MS);
+        assertEquals(1, database.itemUsageDao().getRunningOutSync(HH, 7, nextDay).size());
+        
+        // Two months later the stored rate is unchanged, but the rate as of now has faded
+        Date later = new Date(START + 60 * DAY_MS);
+        ItemUsageEntity usage = database.itemUsageDao().getByItemLocalIdSync(flour.localId);
+        assertEquals(6.0, usage.ratePerDay, 0.01);
+        assertTrue(usage.rateAt(later) < 0.1);
+        assertTrue(usage.daysUntilEmpty(4, later) > 30);
+        assertTrue(database.itemUsageDao().getRunningOutSync(HH, 7, later).isEmpty());
+    }
+    
+    private ItemEntity insert(String id, double quantity) {
+        ItemEntity item = new ItemEntity();
+        item.id = id;
+        item.householdId = HH;
+        item.name = id;
+        item.quantity = quantity;
+        item.createdAt = new Date(START);
+        item.updatedAt = new Date(START);
+        item.localId = database.itemDao().insert(item);
+        return item;
+    }
+    
+    /**
+     * Lowers the quantity the way ItemRepository.update does.
+     */
+    private void use(ItemEntity item, double amount, long at) {
+        ItemEntity before = database.itemDao().getItemByIdSync(item.id);
+        ItemEntity after = database.itemDao().getItemByIdSync(item.id);
+        after.quantity = before.quantity - amount;
+        after.updatedAt = new Date(at);
+        database.runInTransaction(() -> {
+            database.itemDao().update(after);
+            ItemConsumptionEntity use = new ItemConsumptionEntity(before, after);
+            database.itemUsageDao().insertConsumption(use);
+            ItemUsageEntity usage = database.itemUsageDao().getByItemLocalIdSync(before.localId);
+            if (usage == null) {
+                usage = new ItemUsageEntity(before);
+            }
+            usage.record(use.amount, use.consumedAt, before.updatedAt);
+            database.itemUsageDao().upsert(usage);
+        });
+    }
+}
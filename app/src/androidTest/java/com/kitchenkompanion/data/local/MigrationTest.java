@@ -0,0 +1,208 @@
+package com.kitchenkompanion.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.kitchenkompanion.utils.DateUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Checks {@link Migrations} against the schemas Room exported under app/schemas.
+ * Each step is validated against the exported schema of its target version, and version 1
+ * databases with data are upgraded to the current version through Room, which validates
+ * the result against the entities. A missing or wrong step fails here.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    
+    private static final String TAG = "MigrationTest";
+    private static final String DB_NAME = "migration-test";
+    private static final String HOUSEHOLD_ID = "household";
+    private static final int LARGE_ITEM_COUNT = 20_000;
+    
+    private static final String NUTRITION_JSON =
+            "{\"energy-kcal_100g\":389,\"fat_100g\":6.9,\"proteins_100g\":16.9,\"proteins_unit\":\"g\"," +
+            "\"iron_100g\":0.0047,\"iron_unit\":\"g\"}";
+    
+    private static final String RECIPE_JSON =
+            "{\"id\":716429,\"title\":\"Pasta with Garlic\",\"servings\":2,\"readyInMinutes\":45," +
+            "\"extendedIngredients\":[{\"name\":\"garlic\",\"original\":\"2 cloves garlic\",\"amount\":2,\"unit\":\"cloves\"}]}";
+    
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+    
+    private Context context;
+    private AppDatabase database;
+    
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+    }
+    
+    @After
+    public void tearDown() {
+        if (database != null) {
+            database.close();
+        }
+        context.deleteDatabase(DB_NAME);
+    }
+    
+    @Test
+    public void everyStepMatchesExportedSchema() throws IOException {
+        helper.createDatabase(DB_NAME, 1).close();
+        for (int version = 2; version <= AppDatabase.VERSION; version++) {
+            helper.runMigrationsAndValidate(DB_NAME, version, true, Migrations.ALL).close();
+        }
+    }
+    
+    @Test
+    public void migrateFromVersion1KeepsLocalData() throws IOException {
+        long expiry = System.currentTimeMillis() + 2 * 86_400_000L;
+        SupportSQLiteDatabase v1 = helper.createDatabase(DB_NAME, 1);
+        insertItem(v1, "oats", "Rolled oats", 1, 2, expiry, NUTRITION_JSON, false, false);
+        insertItem(v1, "milk", "Milk", 3, 1, expiry, null, true, false);
+        insertItem(v1, "old", "Old bread", 1, 0, expiry, null, false, true);
+        v1.execSQL("INSERT INTO grocery_entries (id, household_id, list_id, name, quantity, source, " +
+                "is_checked, created_at, updated_at, is_synced, is_deleted) " +
+                "VALUES ('eggs', ?, 'default', 'Eggs', 12, 'manual', 0, 0, 0, 0, 0)", new Object[]{HOUSEHOLD_ID});
+        v1.execSQL("INSERT INTO recipe_cache (id, title, source, recipe_json, servings, ready_in_minutes, cached_at) " +
+                "VALUES ('716429', 'Pasta with Garlic', 'spoonacular', ?, 2, 45, 0)", new Object[]{RECIPE_JSON});
+        v1.close();
+        
+        database = openMigrated();
+        
+        ItemEntity oats = database.itemDao().getItemByIdSync("oats");
+        assertNotNull(oats);
+        assertEquals("Rolled oats", oats.name);
+        assertTrue(oats.isLowStock);
+        assertEquals(DateUtils.toEpochDay(new Date(expiry)), oats.expiryDay);
+        
+        ItemEntity milk = database.itemDao().getItemByIdSync("milk");
+        assertTrue(milk.isSynced);
+        assertFalse(milk.isLowStock);
+        
+        ItemNutritionEntity nutrition = database.itemNutritionDao().getByItemIdSync("oats");
+        assertNotNull(nutrition);
+        assertEquals(16.9, nutrition.proteins, 0.001);
+        assertEquals(389, nutrition.energyKcal, 0.001);
+        assertTrue(nutrition.extraJson.contains("iron_100g"));
+        assertEquals(oats.localId, nutrition.itemLocalId);
+        assertNull(database.itemNutritionDao().getByItemIdSync("milk"));
+        
+        // Unsynced oats, the unsynced tombstone and the grocery entry are queued; synced milk is not
+        assertEquals(3, database.syncOpDao().countPendingOps(HOUSEHOLD_ID));
+        
+        assertEquals(1, count("SELECT COUNT(*) FROM items_fts WHERE items_fts MATCH 'oat*'"));
+        
+        RecipeCacheEntity recipe = database.recipeCacheDao().getRecipeById("716429");
+        assertEquals(RECIPE_JSON, RecipePayloadCodec.decode(recipe.recipePayload));
+        
+        // Counters are backfilled from the rows that existed before the triggers
+        HouseholdStatsEntity stats = database.householdStatsDao().getSync(HOUSEHOLD_ID);
+        assertEquals(2, stats.itemCount);
+        assertEquals(1, stats.lowStockCount);
+        assertEquals(1, stats.uncheckedGroceryCount);
+        
+        // Usage rates start empty and build up from uses after the upgrade
+        assertEquals(0, count("SELECT COUNT(*) FROM item_usage"));
+        // No watermark yet, so the first sync after the upgrade pulls everything once
+        assertNull(database.syncWatermarkDao().getSync(HOUSEHOLD_ID, "items"));
+    }
+    
+    @Test
+    public void migrateLargeDatabaseFromVersion1() throws IOException {
+        SupportSQLiteDatabase v1 = helper.createDatabase(DB_NAME, 1);
+        v1.beginTransaction();
+        try {
+            long expiry = System.currentTimeMillis();
+            for (int i = 0; i < LARGE_ITEM_COUNT; i++) {
+                // Every fourth item came from a barcode scan and carries nutrition
+                insertItem(v1, "item-" + i, "Item " + i, 1 + (i % 5), i % 3,
+                        expiry + i * 3_600_000L, i % 4 == 0 ? NUTRITION_JSON : null, i % 10 != 0, false);
+            }
+            v1.setTransactionSuccessful();
+        } finally {
+            v1.endTransaction();
+        }
+        v1.close();
+        
+        long start = SystemClock.elapsedRealtime();
+        database = openMigrated();
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        Log.i(TAG, "Migrated " + LARGE_ITEM_COUNT + " items from version 1 in " + elapsed + " ms");
+        
+        assertEquals(LARGE_ITEM_COUNT, count("SELECT COUNT(*) FROM items"));
+        assertEquals(LARGE_ITEM_COUNT / 4, count("SELECT COUNT(*) FROM item_nutrition"));
+        assertEquals(LARGE_ITEM_COUNT / 10, database.syncOpDao().countPendingOps(HOUSEHOLD_ID));
+        assertEquals(1, count("SELECT COUNT(*) FROM items_fts WHERE items_fts MATCH '19999'"));
+        // Budget for a mid-range device; the upgrade runs before the first screen renders
+        assertTrue("Migration took " + elapsed + " ms", elapsed < 10_000);
+    }
+    
+    private static void insertItem(SupportSQLiteDatabase db, String id, String name, double quantity,
+                                   double lowStockThreshold, long expiry, String nutritionJson,
+                                   boolean synced, boolean deleted) {
+        long now = System.currentTimeMillis();
+        ContentValues values = new ContentValues();
+        values.put("id", id);
+        values.put("household_id", HOUSEHOLD_ID);
+        values.put("barcode", id.replaceAll("\\D", ""));
+        values.put("name", name);
+        values.put("quantity", quantity);
+        values.put("unit", "pcs");
+        values.put("expiry_date", expiry);
+        values.put("location", "Pantry");
+        values.put("notes", "Keep sealed after opening");
+        values.put("nutrition_json", nutritionJson);
+        values.put("created_at", now);
+        values.put("updated_at", now);
+        values.put("low_stock_threshold", lowStockThreshold);
+        values.put("is_synced", synced ? 1 : 0);
+        values.put("is_deleted", deleted ? 1 : 0);
+        db.insert("items", SQLiteDatabase.CONFLICT_ABORT, values);
+    }
+    
+    private AppDatabase openMigrated() {
+        AppDatabase db = Room.databaseBuilder(context, AppDatabase.class, DB_NAME)
+                .addMigrations(Migrations.ALL)
+                .addCallback(AppDatabase.CALLBACK)
+                .build();
+        // Runs the migrations and Room's schema validation
+        db.getOpenHelper().getWritableDatabase();
+        return db;
+    }
+    
+    private int count(String sql) {
+        try (Cursor cursor = database.query(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
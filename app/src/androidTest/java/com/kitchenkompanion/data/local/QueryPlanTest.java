@@ -0,0 +1,295 @@
+package com.kitchenkompanion.data.local;
+
+import static org.junit.Assert.assertTrue;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.database.Cursor;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.paging.PagingSource;
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import kotlin.coroutines.EmptyCoroutineContext;
+import kotlinx.coroutines.BuildersKt;
+
+/**
+ * Calls every DAO query, captures the SQL Room runs for it through a query callback and
+ * fails on full table scans or temp B-tree sorts in its EXPLAIN QUERY PLAN.
+ * LiveData queries are observed once and paged queries load their first page, so the
+ * statements checked are exactly the ones the app runs.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+    
+    private static final String TAG = "QueryPlanTest";
+    private static final String HH = "household";
+    private static final Date NOW = new Date();
+    private static final int TODAY = (int) (NOW.getTime() / 86_400_000L);
+    
+    private AppDatabase database;
+    private final List<Statement> statements = new CopyOnWriteArrayList<>();
+    private final List<String> failures = new ArrayList<>();
+    
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.CALLBACK)
+                .setQueryCallback(this::onQuery, Runnable::run)
+                .build();
+        // Opens the database so the schema and triggers exist
+        database.getOpenHelper().getWritableDatabase();
+    }
+    
+    @After
+    public void tearDown() {
+        database.close();
+    }
+    
+    @Test
+    public void itemDaoQueriesUseIndexes() {
+        ItemDao dao = database.itemDao();
+        check("getAllItems", () -> observe(dao.getAllItems(HH)));
+        check("getAllItemsSync", () -> dao.getAllItemsSync(HH));
+        check("getAllItemsPaged", () -> load(dao.getAllItemsPaged(HH)));
+        check("getItemById", () -> observe(dao.getItemById("id")));
+        check("getItemByIdSync", () -> dao.getItemByIdSync("id"));
+        check("getLocalIdSync", () -> dao.getLocalIdSync("id"));
+        check("getSyncStatesSync", () -> dao.getSyncStatesSync(Arrays.asList("a", "b")));
+        check("getItemsAfterSync", () -> dao.getItemsAfterSync(HH, 0, 500));
+        check("getItemsByLocation", () -> observe(dao.getItemsByLocation(HH, "Fridge")));
+        check("getItemsByLocationPaged", () -> load(dao.getItemsByLocationPaged(HH, "Fridge")));
+        check("getExpiringItems", () -> observe(dao.getExpiringItems(HH, TODAY)));
+        check("getExpiringItemsPaged", () -> load(dao.getExpiringItemsPaged(HH, TODAY)));
+        check("getExpiringItemsSync", () -> dao.getExpiringItemsSync(HH, TODAY));
+        check("getLowStockItemsSync", () -> dao.getLowStockItemsSync(HH));
+        check("softDelete", () -> dao.softDelete("id", NOW));
+        check("markAsSynced", () -> dao.markAsSynced(1));
+        check("markAllAsSynced", () -> dao.markAllAsSynced(Arrays.asList(1L, 2L), HH, 0));
+        check("deleteAllForHousehold", () -> dao.deleteAllForHousehold(HH));
+        assertNoFailures();
+    }
+    
+    @Test
+    public void itemSearchOnlySortsForRelevance() {
+        // Ranking by match quality can't come from an index; the sort runs over FTS hits only
+        checkAllowingSort("searchItemsPaged", () -> load(database.itemDao().searchItemsPaged(HH, "milk*", "milk")));
+        assertNoFailures();
+    }
+    
+    @Test
+    public void groceryDaoQueriesUseIndexes() {
+        GroceryDao dao = database.groceryDao();
+        check("getAllEntries", () -> observe(dao.getAllEntries(HH)));
+        check("getAllEntriesSync", () -> dao.getAllEntriesSync(HH));
+        check("getEntryByIdSync", () -> dao.getEntryByIdSync("id"));
+        check("getSyncStatesSync", () -> dao.getSyncStatesSync(Arrays.asList("a", "b")));
+        check("getIdSync", () -> dao.getIdSync(1));
+        check("getEntriesAfterSync", () -> dao.getEntriesAfterSync(HH, 0, 500));
+        check("findByNameSync", () -> dao.findByNameSync(HH, "Milk"));
+        check("getCheckedEntryIdsSync", () -> dao.getCheckedEntryIdsSync(HH));
+        check("softDelete", () -> dao.softDelete(1, NOW));
+        check("updateCheckedStatus", () -> dao.updateCheckedStatus(1, true, NOW));
+        check("markAsSynced", () -> dao.markAsSynced(1));
+        check("markAllAsSynced", () -> dao.markAllAsSynced(Arrays.asList(1L, 2L), HH, 0));
+        check("softDeleteCheckedItems", () -> dao.softDeleteCheckedItems(HH, NOW));
+        check("deleteAllForHousehold", () -> dao.deleteAllForHousehold(HH));
+        assertNoFailures();
+    }
+    
+    @Test
+    public void supportingDaoQueriesUseIndexes() {
+        HouseholdDao households = database.householdDao();
+        check("getHouseholdById", () -> observe(households.getHouseholdById(HH)));
+        check("getHouseholdByIdSync", () -> households.getHouseholdByIdSync(HH));
+        check("deleteHousehold", () -> households.delete(HH));
+        
+        RecipeCacheDao recipes = database.recipeCacheDao();
+        check("getRecipeById", () -> recipes.getRecipeById("id"));
+        check("getRecentRecipes", () -> recipes.getRecentRecipes(10));
+        check("deleteOldCache", () -> recipes.deleteOldCache(NOW));
+        
+        SyncOpDao syncOps = database.syncOpDao();
+        check("getPendingOps", () -> syncOps.getPendingOps(HH, 500));
+        check("countPendingOps", () -> syncOps.countPendingOps(HH));
+        check("deleteBySeq", () -> syncOps.deleteBySeq(Arrays.asList(1L, 2L)));
+        check("deleteSyncOpsForHousehold", () -> syncOps.deleteAllForHousehold(HH));
+        
+        ItemNutritionDao nutrition = database.itemNutritionDao();
+        check("getNutritionByItemId", () -> observe(nutrition.getByItemId("id")));
+        check("getNutritionByItemIdSync", () -> nutrition.getByItemIdSync("id"));
+        check("getNutritionByItemLocalId", () -> nutrition.getByItemLocalIdSync(1));
+        check("deleteNutritionByItemLocalId", () -> nutrition.deleteByItemLocalId(1));
+        check("deleteNutritionByItemLocalIds", () -> nutrition.deleteByItemLocalIds(Arrays.asList(1L, 2L)));
+        check("deleteNutritionForHousehold", () -> nutrition.deleteAllForHousehold(HH));
+        
+        check("getProductByBarcode", () -> database.productDao().getByBarcode("3017620422003"));
+        check("findIngredientsByAliases", () -> database.ingredientDao().findByAliases(Arrays.asList("spaghetti", "milk")));
+        
+        HouseholdStatsDao stats = database.householdStatsDao();
+        check("observeHouseholdStats", () -> observe(stats.observe(HH, TODAY)));
+        check("getHouseholdStats", () -> stats.getSync(HH));
+        check("deleteHouseholdStats", () -> stats.deleteAllForHousehold(HH));
+        
+        ItemUsageDao usage = database.itemUsageDao();
+        check("getRecentConsumption", () -> usage.getRecentConsumptionSync(1, 20));
+        check("getUsageByItemLocalId", () -> usage.getByItemLocalIdSync(1));
+        check("getUsageByItemId", () -> observe(usage.getByItemId("id")));
+        check("getRunningOut", () -> usage.getRunningOutCandidatesSync(HH, 7));
+        check("deleteConsumptionForHousehold", () -> usage.deleteConsumptionForHousehold(HH));
+        check("deleteUsageForHousehold", () -> usage.deleteUsageForHousehold(HH));
+        
+        SyncWatermarkDao watermarks = database.syncWatermarkDao();
+        check("getWatermark", () -> watermarks.getSync(HH, "items"));
+        check("deleteWatermarksForHousehold", () -> watermarks.deleteAllForHousehold(HH));
+        assertNoFailures();
+    }
+    
+    @Test
+    public void recipeMatchOnlySortsByCoverage() {
+        // Grouping and ranking by matched count need a temp B-tree, but only over the matched rows
+        checkAllowingSort("findRecipesByIngredients",
+                () -> database.recipeCacheDao().findByIngredients(Arrays.asList("egg", "milk"), 20));
+        assertNoFailures();
+    }
+    
+    @Test
+    public void wholeTableQueriesOnlyScanWithoutSorting() {
+        // Weekly compaction reads the whole table once; an index for it would tax every write
+        checkAllowingScan("purgeItemTombstones", () -> database.itemDao().purgeSyncedTombstones(NOW));
+        checkAllowingScan("purgeGroceryTombstones", () -> database.groceryDao().purgeSyncedTombstones(NOW));
+        checkAllowingScan("deleteNutritionOrphans", () -> database.itemNutritionDao().deleteOrphans());
+        checkAllowingScan("deleteUsageOrphans", () -> database.itemUsageDao().deleteUsageOrphans());
+        checkAllowingScan("deleteConsumptionOrphans", () -> database.itemUsageDao().deleteConsumptionOrphans());
+        checkAllowingScan("pruneConsumption", () -> database.itemUsageDao().pruneConsumption(NOW));
+        // One row per household the user belongs to, and the cache is cleared by hand
+        checkAllowingScan("getAllHouseholds", () -> observe(database.householdDao().getAllHouseholds()));
+        checkAllowingScan("getAllHouseholdsSync", () -> database.householdDao().getAllHouseholdsSync());
+        checkAllowingScan("deleteAllHouseholds", () -> database.householdDao().deleteAll());
+        checkAllowingScan("clearRecipeCache", () -> database.recipeCacheDao().clearCache());
+        assertNoFailures();
+    }
+    
+    private void onQuery(String sql, List<Object> args) {
+        // Room's own statements (transactions, invalidation tracking) aren't DAO queries
+        String verb = sql.trim().toUpperCase(Locale.ROOT);
+        if ((verb.startsWith("SELECT") || verb.startsWith("UPDATE") || verb.startsWith("DELETE"))
+                && !sql.contains("room_")) {
+            statements.add(new Statement(sql, args.toArray()));
+        }
+    }
+    
+    private void check(String name, Runnable daoCall) {
+        verify(name, daoCall, false, false);
+    }
+    
+    private void checkAllowingSort(String name, Runnable daoCall) {
+        verify(name, daoCall, false, true);
+    }
+    
+    private void checkAllowingScan(String name, Runnable daoCall) {
+        verify(name, daoCall, true, false);
+    }
+    
+    private void verify(String name, Runnable daoCall, boolean allowScan, boolean allowTempSort) {
+        statements.clear();
+        daoCall.run();
+        if (statements.isEmpty()) {
+            failures.add(name + " ran no query");
+        }
+        for (Statement statement : statements) {
+            explain(name, statement, allowScan, allowTempSort);
+        }
+    }
+    
+    private void explain(String name, Statement statement, boolean allowScan, boolean allowTempSort) {
+        // An index walk in ORDER BY order stops after LIMIT rows, so it isn't a full scan
+        boolean limited = statement.sql.toUpperCase(Locale.ROOT).contains(" LIMIT ");
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + statement.sql, statement.args))) {
+            int detailColumn = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                String detail = cursor.getString(detailColumn);
+                Log.d(TAG, name + ": " + detail);
+                if (!allowScan && isTableScan(detail, limited)) {
+                    failures.add(name + " scans: " + detail + "\n  in " + statement.sql);
+                }
+                if (!allowTempSort && detail.contains("USE TEMP B-TREE")) {
+                    failures.add(name + " sorts: " + detail + "\n  in " + statement.sql);
+                }
+            }
+        }
+    }
+    
+    /**
+     * "SCAN items" on newer SQLite, "SCAN TABLE items" on older. Virtual tables are FTS lookups
+     * and subquery scans read the rows of an inner query, whose own plan lines are checked too.
+     */
+    private static boolean isTableScan(String detail, boolean limited) {
+        if (!detail.startsWith("SCAN") || detail.contains("VIRTUAL TABLE")) return false;
+        if (detail.contains("subquery") || detail.contains("SUBQUERY")) return false;
+        return !(limited && (detail.contains("USING INDEX") || detail.contains("USING COVERING INDEX")));
+    }
+    
+    private static <T> void observe(LiveData<T> liveData) {
+        CountDownLatch loaded = new CountDownLatch(1);
+        Observer<T> observer = value -> loaded.countDown();
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        instrumentation.runOnMainSync(() -> liveData.observeForever(observer));
+        try {
+            assertTrue("LiveData never emitted", loaded.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        } finally {
+            instrumentation.runOnMainSync(() -> liveData.removeObserver(observer));
+        }
+    }
+    
+    /**
+     * Loads the first page, which runs the count and the page query Room wraps around the DAO SQL.
+     */
+    private static <T> void load(PagingSource<Integer, T> source) {
+        PagingSource.LoadParams<Integer> params = new PagingSource.LoadParams.Refresh<>(null, 20, false);
+        try {
+            BuildersKt.<PagingSource.LoadResult<Integer, T>>runBlocking(EmptyCoroutineContext.INSTANCE,
+                    (scope, continuation) -> source.load(params, continuation));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+    
+    private void assertNoFailures() {
+        assertTrue(TextUtils.join("\n", failures), failures.isEmpty());
+    }
+    
+    private static final class Statement {
+        final String sql;
+        final Object[] args;
+        
+        Statement(String sql, Object[] args) {
+            this.sql = sql;
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.kitchenkompanion.data.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Opens a fresh database from the generated seed asset the way the app does on first launch.
+ * Room rejects the copy if it doesn't match the entities, so a stale seed fails here.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SeedDatabaseTest {
+    
+    private static final String DB_NAME = "seed-test";
+    
+    private Context context;
+    private AppDatabase database;
+    
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        database = Room.databaseBuilder(context, AppDatabase.class, DB_NAME)
+                .createFromAsset(AppDatabase.SEED_ASSET)
+                .addMigrations(Migrations.ALL)
+                .addCallback(AppDatabase.CALLBACK)
+                .build();
+    }
+    
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(DB_NAME);
+    }
+    
+    @Test
+    public void seedResolvesStapleBarcodes() {
+        ProductEntity nutella = database.productDao().getByBarcode("3017620422003");
+        assertNotNull(nutella);
+        assertEquals("Nutella", nutella.name);
+        assertNotNull(nutella.energyKcal);
+    }
+    
+    @Test
+    public void seedMatchesRecipesThroughDictionary() {
+        List<IngredientEntity> entries = database.ingredientDao().findByAliases(Arrays.asList("spaghetti", "eggs"));
+        assertEquals(2, entries.size());
+        
+        List<RecipeMatch> matches = database.recipeCacheDao().findByIngredients(Arrays.asList("egg", "milk", "cheese"), 5);
+        assertFalse(matches.isEmpty());
+        assertEquals(RecipeCacheEntity.SOURCE_SEED, matches.get(0).recipe.source);
+        assertNotNull(RecipePayloadCodec.decode(matches.get(0).recipe.recipePayload));
+        
+        // Seed recipes survive cache expiry
+        database.recipeCacheDao().deleteOldCache(new Date(Long.MAX_VALUE));
+        assertFalse(database.recipeCacheDao().findByIngredients(Collections.singletonList("egg"), 5).isEmpty());
+    }
+    
+    @Test
+    public void seedKeepsFullTextSearchInSync() {
+        // Room creates the FTS triggers in onCreate, which never runs for a copied asset
+        ItemEntity item = new ItemEntity();
+        item.id = "seed-item";
+        item.householdId = "household";
+        item.name = "Rolled oats";
+        database.itemDao().insert(item);
+        
+        try (Cursor cursor = database.query("SELECT COUNT(*) FROM items_fts WHERE items_fts MATCH 'oats'", null)) {
+            cursor.moveToFirst();
+            assertEquals(1, cursor.getInt(0));
+        }
+    }
+}
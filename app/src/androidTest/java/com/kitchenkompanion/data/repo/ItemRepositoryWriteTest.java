@@ -0,0 +1,119 @@
+package com.kitchenkompanion.data.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.work.WorkManager;
+
+import com.kitchenkompanion.data.local.AppDatabase;
+import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.SyncOpEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Buffered item writes: repeated edits to one item become one row write and one outbox op,
+ * and an item added and removed within the window never reaches the database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemRepositoryWriteTest {
+    
+    private static final String HH = "test-household-writes";
+    
+    private Context context;
+    private AppDatabase database;
+    private ItemRepository repository;
+    
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        database = AppDatabase.getInstance(context, HH);
+        clear();
+        repository = new ItemRepository(context, HH);
+    }
+    
+    @After
+    public void tearDown() {
+        clear();
+        WorkManager.getInstance(context).cancelAllWork();
+    }
+    
+    private void clear() {
+        database.itemDao().deleteAllForHousehold(HH);
+        database.syncOpDao().deleteAllForHousehold(HH);
+    }
+    
+    @Test
+    public void repeatedEditsCommitOnce() throws Exception {
+        repository.insert(item("milk", 4), HH);
+        repository.flush().get();
+        database.syncOpDao().deleteAllForHousehold(HH);
+        
+        for (int quantity = 3; quantity >= 1; quantity--) {
+            repository.update(item("milk", quantity), HH);
+        }
+        repository.flush().get();
+        
+        ItemEntity stored = database.itemDao().getItemByIdSync("milk");
+        assertEquals(1.0, stored.quantity, 0.001);
+        assertEquals(HH, stored.householdId);
+        assertEquals(1, database.syncOpDao().countPendingOps(HH));
+    }
+    
+    @Test
+    public void insertThenDeleteWritesNothing() throws Exception {
+        repository.insert(item("eggs", 12), HH);
+        repository.update(item("eggs", 10), HH);
+        repository.delete("eggs", HH);
+        repository.insert(item("bread", 1), HH);
+        repository.update(item("bread", 2), HH);
+        repository.flush().get();
+        
+        assertNull(database.itemDao().getItemByIdSync("eggs"));
+        ItemEntity bread = database.itemDao().getItemByIdSync("bread");
+        // The edit merged into the insert
+        assertEquals(2.0, bread.quantity, 0.001);
+        assertTrue(bread.createdAt != null);
+        assertEquals(1, database.syncOpDao().countPendingOps(HH));
+    }
+    
+    @Test
+    public void editDuringPushStaysUnsynced() throws Exception {
+        repository.insert(item("milk", 2), HH);
+        repository.insert(item("bread", 1), HH);
+        repository.flush().get();
+        List<SyncOpEntity> pushed = database.syncOpDao().getPendingOps(HH, 10);
+        
+        // Edited while the worker's batch for the two inserts is being committed
+        repository.update(item("milk", 1), HH);
+        repository.flush().get();
+        
+        ItemEntity milk = database.itemDao().getItemByIdSync("milk");
+        ItemEntity bread = database.itemDao().getItemByIdSync("bread");
+        database.itemDao().markAllAsSynced(Arrays.asList(milk.localId, bread.localId),
+                HH, pushed.get(pushed.size() - 1).seq);
+        
+        assertFalse(database.itemDao().getItemByIdSync("milk").isSynced);
+        assertTrue(database.itemDao().getItemByIdSync("bread").isSynced);
+    }
+    
+    private static ItemEntity item(String id, double quantity) {
+        ItemEntity item = new ItemEntity();
+        item.id = id;
+        item.name = id;
+        item.quantity = quantity;
+        return item;
+    }
+}
@@ -0,0 +1,82 @@
+package com.kitchenkompanion.data.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sync requests for a household merge into one queued run instead of one run per change.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyncSchedulerTest {
+    
+    private static final String HH = "test-household-sync";
+    
+    private WorkManager workManager;
+    
+    @Before
+    public void setUp() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        workManager = WorkManager.getInstance(context);
+        workManager.cancelUniqueWork(SyncScheduler.workName(HH)).getResult().get();
+        // Long enough that the queued run can't start while the test looks at it
+        SyncScheduler.setDebounceDelay(10, TimeUnit.MINUTES);
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        SyncScheduler.setDebounceDelay(SyncScheduler.DEFAULT_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        workManager.cancelUniqueWork(SyncScheduler.workName(HH)).getResult().get();
+    }
+    
+    @Test
+    public void burstOfRequestsQueuesOneRun() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            SyncScheduler.requestSync(workManager, HH);
+        }
+        SyncScheduler.requestSync(workManager, HH).get();
+        
+        assertEquals(1, countUnfinished());
+    }
+    
+    @Test
+    public void syncNowReplacesTheWaitingRun() throws Exception {
+        SyncScheduler.requestSync(workManager, HH).get();
+        SyncScheduler.syncNow(workManager, HH).get();
+        
+        List<WorkInfo> infos = workManager.getWorkInfosForUniqueWork(SyncScheduler.workName(HH)).get();
+        int cancelled = 0;
+        for (WorkInfo info : infos) {
+            if (info.getState() == WorkInfo.State.CANCELLED) {
+                cancelled++;
+            }
+        }
+        assertTrue(cancelled >= 1);
+        // The expedited run may already have finished; it never runs next to another one
+        assertTrue(countUnfinished() <= 1);
+    }
+    
+    private int countUnfinished() throws Exception {
+        int unfinished = 0;
+        for (WorkInfo info : workManager.getWorkInfosForUniqueWork(SyncScheduler.workName(HH)).get()) {
+            if (!info.getState().isFinished()) {
+                unfinished++;
+            }
+        }
+        return unfinished;
+    }
+}
@@ -14,6 +14,9 @@ import androidx.work.WorkManager;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.kitchenkompanion.auth.HouseholdSelectionActivity;
+import com.kitchenkompanion.data.local.AppDatabase;
+import com.kitchenkompanion.data.repo.DatabaseMaintenanceWorker;
 import com.kitchenkompanion.features.notifications.ExpiryCheckWorker;
 
 import java.util.concurrent.TimeUnit;
@@ -46,6 +49,12 @@ public class KitchenKompanionApp extends Application {
                 .build();
         firestore.setFirestoreSettings(settings);
         
+        // Open the active household's database before the first screen asks for it
+        String householdId = getCurrentHouseholdId();
+        if (householdId != null) {
+            AppDatabase.preload(this, householdId);
+        }
+        
         // Create notification channels
         createNotificationChannels();
         
@@ -57,6 +66,13 @@ public class KitchenKompanionApp extends Application {
         return instance;
     }
     
+    /**
+     * Household selected on this device, or null before the user picks one.
+     */
+    public String getCurrentHouseholdId() {
+        return HouseholdSelectionActivity.getSelectedHouseholdId(this);
+    }
+    
     /**
      * Schedule periodic background tasks.
      */
@@ -80,6 +96,25 @@ public class KitchenKompanionApp extends Application {
                 ExistingPeriodicWorkPolicy.KEEP, // Don't replace if already scheduled
                 expiryCheckWork
         );
+        
+        // Schedule weekly tombstone compaction and vacuum while the device is idle
+        Constraints maintenanceConstraints = new Constraints.Builder()
+                .setRequiresBatteryNotLow(true)
+                .setRequiresDeviceIdle(true)
+                .build();
+        
+        PeriodicWorkRequest maintenanceWork = new PeriodicWorkRequest.Builder(
+                DatabaseMaintenanceWorker.class,
+                7, TimeUnit.DAYS
+        )
+        .setConstraints(maintenanceConstraints)
+        .build();
+        
+        WorkManager.getInstance(this).enqueueUniquePeriodicWork(
+                DatabaseMaintenanceWorker.WORK_NAME,
+                ExistingPeriodicWorkPolicy.KEEP,
+                maintenanceWork
+        );
     }
     
     private void createNotificationChannels() {
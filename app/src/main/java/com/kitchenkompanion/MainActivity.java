@@ -1,22 +1,39 @@
 package com.kitchenkompanion;
 
+import android.content.Context;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.text.format.Formatter;
 import android.view.Menu;
 import android.view.MenuItem;
+import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import androidx.navigation.NavController;
 import androidx.navigation.fragment.NavHostFragment;
 import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
 
 import com.google.android.material.bottomnavigation.BottomNavigationView;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.android.material.snackbar.Snackbar;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.kitchenkompanion.auth.AuthActivity;
+import com.kitchenkompanion.data.local.AppDatabase;
+import com.kitchenkompanion.data.local.HouseholdStatsDao;
+import com.kitchenkompanion.data.repo.BackupRepository;
+import com.kitchenkompanion.data.repo.TransferRepository;
 import com.kitchenkompanion.features.barcode.BarcodeScannerActivity;
+import com.kitchenkompanion.features.transfer.TransferSnackbar;
+import com.kitchenkompanion.utils.DateUtils;
+import com.kitchenkompanion.utils.ExpiryStatus;
 
 /**
  * Main activity for Kitchen Kompanion.
@@ -27,6 +44,19 @@ public class MainActivity extends AppCompatActivity {
     private FirebaseAuth mAuth;
     private NavController navController;
     private AppBarConfiguration appBarConfiguration;
+    // Last expiry day the pantry badge counts; moves forward when the date changes
+    private final MutableLiveData<Integer> badgeExpiryDay = new MutableLiveData<>();
+    private TransferRepository transferRepository;
+    private BackupRepository backupRepository;
+    
+    private final ActivityResultLauncher<String[]> importPantryLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::importPantry);
+    private final ActivityResultLauncher<String> exportPantryLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/csv"), this::exportPantry);
+    private final ActivityResultLauncher<String> backupLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/octet-stream"), this::backup);
+    private final ActivityResultLauncher<String[]> restoreLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::restore);
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -68,6 +98,42 @@ public class MainActivity extends AppCompatActivity {
             ).build();
             
             NavigationUI.setupActionBarWithNavController(this, navController, appBarConfiguration);
+            
+            observeBadges(bottomNav);
+        }
+    }
+    
+    @Override
+    protected void onResume() {
+        super.onResume();
+        int lastDay = DateUtils.epochDayFromToday(ExpiryStatus.SOON_DAYS);
+        Integer current = badgeExpiryDay.getValue();
+        if (current == null || current != lastDay) {
+            badgeExpiryDay.setValue(lastDay);
+        }
+    }
+    
+    /**
+     * Pantry shows items expired or expiring soon, grocery shows unchecked entries.
+     * Both come from the trigger-maintained household_stats row, so no list is loaded.
+     */
+    private void observeBadges(BottomNavigationView bottomNav) {
+        String householdId = KitchenKompanionApp.getInstance().getCurrentHouseholdId();
+        if (householdId == null) return;
+        
+        HouseholdStatsDao statsDao = AppDatabase.getInstance(this, householdId).householdStatsDao();
+        Transformations.switchMap(badgeExpiryDay, lastDay -> statsDao.observe(householdId, lastDay))
+                .observe(this, stats -> {
+                    showBadge(bottomNav, R.id.pantryFragment, stats != null ? stats.expiringCount : 0);
+                    showBadge(bottomNav, R.id.groceryFragment, stats != null ? stats.counts.uncheckedGroceryCount : 0);
+                });
+    }
+    
+    private static void showBadge(BottomNavigationView bottomNav, int menuItemId, int count) {
+        if (count > 0) {
+            bottomNav.getOrCreateBadge(menuItemId).setNumber(count);
+        } else {
+            bottomNav.removeBadge(menuItemId);
         }
     }
     
@@ -84,6 +150,18 @@ public class MainActivity extends AppCompatActivity {
         if (id == R.id.action_scan) {
             openBarcodeScanner();
             return true;
+        } else if (id == R.id.action_import_pantry) {
+            importPantryLauncher.launch(new String[]{"text/*", "application/json", "application/octet-stream"});
+            return true;
+        } else if (id == R.id.action_export_pantry) {
+            exportPantryLauncher.launch("pantry.csv");
+            return true;
+        } else if (id == R.id.action_backup) {
+            backupLauncher.launch("kitchen_kompanion_backup.db");
+            return true;
+        } else if (id == R.id.action_restore) {
+            confirmRestore();
+            return true;
         } else if (id == R.id.action_settings) {
             // Navigate to settings
             return true;
@@ -101,6 +179,103 @@ public class MainActivity extends AppCompatActivity {
         startActivity(intent);
     }
     
+    private void importPantry(Uri uri) {
+        TransferRepository repository = getTransferRepository();
+        if (uri == null || repository == null) return;
+        repository.importItems(uri, TransferSnackbar.forImport(findViewById(R.id.nav_host_fragment)));
+    }
+    
+    private void exportPantry(Uri uri) {
+        TransferRepository repository = getTransferRepository();
+        if (uri == null || repository == null) return;
+        repository.exportItems(uri, TransferSnackbar.forExport(findViewById(R.id.nav_host_fragment)));
+    }
+    
+    private void backup(Uri uri) {
+        BackupRepository repository = getBackupRepository();
+        if (uri == null || repository == null) return;
+        repository.backup(uri, new BackupRepository.BackupCallback() {
+            @Override
+            public void onComplete(BackupRepository.BackupResult result) {
+                String size = Formatter.formatShortFileSize(MainActivity.this, result.bytes);
+                runOnUiThread(() -> showMessage(getString(R.string.backup_saved, size)));
+            }
+            
+            @Override
+            public void onError(String error) {
+                runOnUiThread(() -> showMessage(getString(R.string.backup_failed, error)));
+            }
+        });
+    }
+    
+    private void confirmRestore() {
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.restore_confirm_title)
+                .setMessage(R.string.restore_confirm_message)
+                .setPositiveButton(R.string.restore, (dialog, which) -> restoreLauncher.launch(new String[]{"*/*"}))
+                .setNegativeButton(R.string.cancel, null)
+                .show();
+    }
+    
+    private void restore(Uri uri) {
+        BackupRepository repository = getBackupRepository();
+        if (uri == null || repository == null) return;
+        repository.restore(uri, new BackupRepository.BackupCallback() {
+            @Override
+            public void onComplete(BackupRepository.BackupResult result) {
+                runOnUiThread(() -> {
+                    Toast.makeText(getApplicationContext(), R.string.backup_restored, Toast.LENGTH_SHORT).show();
+                    // View models still hold the closed database; start over with fresh ones.
+                    // Goes through the application context, since this activity may already be destroyed.
+                    Context appContext = getApplicationContext();
+                    appContext.startActivity(new Intent(appContext, MainActivity.class)
+                            .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK));
+                    if (!isFinishing()) finish();
+                });
+            }
+            
+            @Override
+            public void onError(String error) {
+                runOnUiThread(() -> showMessage(getString(R.string.restore_failed, error)));
+            }
+        });
+    }
+    
+    private void showMessage(String message) {
+        // Backup and restore callbacks can land after the activity is gone
+        if (isFinishing() || isDestroyed()) return;
+        Snackbar.make(findViewById(R.id.nav_host_fragment), message, Snackbar.LENGTH_LONG).show();
+    }
+    
+    private TransferRepository getTransferRepository() {
+        if (transferRepository == null) {
+            String householdId = KitchenKompanionApp.getInstance().getCurrentHouseholdId();
+            if (householdId == null) return null;
+            transferRepository = new TransferRepository(getApplicationContext(), householdId);
+        }
+        return transferRepository;
+    }
+    
+    private BackupRepository getBackupRepository() {
+        if (backupRepository == null) {
+            String householdId = KitchenKompanionApp.getInstance().getCurrentHouseholdId();
+            if (householdId == null) return null;
+            backupRepository = new BackupRepository(getApplicationContext(), householdId);
+        }
+        return backupRepository;
+    }
+    
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (transferRepository != null) {
+            transferRepository.shutdown();
+        }
+        if (backupRepository != null) {
+            backupRepository.shutdown();
+        }
+    }
+    
     @Override
     public boolean onSupportNavigateUp() {
         return NavigationUI.navigateUp(navController, appBarConfiguration)
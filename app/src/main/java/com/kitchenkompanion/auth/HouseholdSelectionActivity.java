@@ -21,10 +21,12 @@ import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textview.MaterialTextView;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.kitchenkompanion.MainActivity;
 import com.kitchenkompanion.R;
+import com.kitchenkompanion.data.local.AppDatabase;
 import com.kitchenkompanion.databinding.ActivityHouseholdSelectionBinding;
 
 import java.util.ArrayList;
@@ -33,15 +35,21 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Activity for selecting or creating a household.
+ * Long-pressing a household offers to leave it, which also removes its local data.
  */
 public class HouseholdSelectionActivity extends AppCompatActivity {
     
     private static final String PREFS_NAME = "KitchenKompanionPrefs";
     private static final String PREF_HOUSEHOLD_ID = "householdId";
     
+    // Deleting a household's local data touches the file system; keep it off the main thread
+    private static final ExecutorService DB_EXECUTOR = Executors.newSingleThreadExecutor();
+    
     private ActivityHouseholdSelectionBinding binding;
     private FirebaseFirestore firestore;
     private FirebaseUser currentUser;
@@ -70,7 +78,7 @@ public class HouseholdSelectionActivity extends AppCompatActivity {
         setSupportActionBar(binding.toolbar);
         
         households = new ArrayList<>();
-        adapter = new HouseholdAdapter(households, this::onHouseholdSelected);
+        adapter = new HouseholdAdapter(households, this::onHouseholdSelected, this::showLeaveHouseholdDialog);
         
         binding.householdList.setLayoutManager(new LinearLayoutManager(this));
         binding.householdList.setAdapter(adapter);
@@ -156,12 +164,45 @@ public class HouseholdSelectionActivity extends AppCompatActivity {
         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         prefs.edit().putString(PREF_HOUSEHOLD_ID, householdId).apply();
         
+        // Opens the household's own database file and closes the previous one
+        AppDatabase.switchHousehold(this, householdId);
+        
         // Navigate to MainActivity
         Intent intent = new Intent(this, MainActivity.class);
         startActivity(intent);
         finish();
     }
     
+    private void showLeaveHouseholdDialog(Household household) {
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(R.string.leave_household)
+                .setMessage(getString(R.string.leave_household_message, household.name))
+                .setPositiveButton(R.string.leave_household, (dialog, which) -> leaveHousehold(household))
+                .setNegativeButton(R.string.cancel, null)
+                .show();
+    }
+    
+    private void leaveHousehold(Household household) {
+        firestore.collection("households")
+                .document(household.id)
+                .update("members", FieldValue.arrayRemove(currentUser.getUid()))
+                .addOnSuccessListener(aVoid -> {
+                    SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+                    if (household.id.equals(prefs.getString(PREF_HOUSEHOLD_ID, null))) {
+                        prefs.edit().remove(PREF_HOUSEHOLD_ID).apply();
+                    }
+                    Context appContext = getApplicationContext();
+                    DB_EXECUTOR.execute(() -> AppDatabase.deleteHousehold(appContext, household.id));
+                    
+                    households.remove(household);
+                    adapter.notifyDataSetChanged();
+                    binding.emptyView.setVisibility(households.isEmpty() ? View.VISIBLE : View.GONE);
+                })
+                .addOnFailureListener(e -> {
+                    Toast.makeText(this, "Failed to leave household", Toast.LENGTH_SHORT).show();
+                });
+    }
+    
     public static String getSelectedHouseholdId(Context context) {
         SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         return prefs.getString(PREF_HOUSEHOLD_ID, null);
@@ -179,14 +220,17 @@ public class HouseholdSelectionActivity extends AppCompatActivity {
         
         private final List<Household> households;
         private final OnHouseholdClickListener listener;
+        private final OnHouseholdClickListener longClickListener;
         
         interface OnHouseholdClickListener {
             void onHouseholdClick(Household household);
         }
         
-        HouseholdAdapter(List<Household> households, OnHouseholdClickListener listener) {
+        HouseholdAdapter(List<Household> households, OnHouseholdClickListener listener,
+                         OnHouseholdClickListener longClickListener) {
             this.households = households;
             this.listener = listener;
+            this.longClickListener = longClickListener;
         }
         
         @NonNull
@@ -200,7 +244,7 @@ public class HouseholdSelectionActivity extends AppCompatActivity {
         @Override
         public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
             Household household = households.get(position);
-            holder.bind(household, listener);
+            holder.bind(household, listener, longClickListener);
         }
         
         @Override
@@ -216,9 +260,14 @@ public class HouseholdSelectionActivity extends AppCompatActivity {
                 nameText = view.findViewById(R.id.household_name);
             }
             
-            void bind(Household household, OnHouseholdClickListener listener) {
+            void bind(Household household, OnHouseholdClickListener listener,
+                      OnHouseholdClickListener longClickListener) {
                 nameText.setText(household.name);
                 itemView.setOnClickListener(v -> listener.onHouseholdClick(household));
+                itemView.setOnLongClickListener(v -> {
+                    longClickListener.onHouseholdClick(household);
+                    return true;
+                });
             }
         }
     }
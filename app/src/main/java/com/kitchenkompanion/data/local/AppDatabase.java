@@ -1,36 +1,106 @@
 package com.kitchenkompanion.data.local;
 
 import android.content.Context;
+import android.util.Log;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.work.WorkManager;
+
+import com.kitchenkompanion.BuildConfig;
+import com.kitchenkompanion.data.repo.SyncScheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Room database for Kitchen Kompanion.
  * Version 1: Initial schema with items, grocery entries, households, and recipe cache.
+ * Version 2: Full-text search index over items (items_fts).
+ * Version 3: Sync outbox (sync_ops) replacing is_synced scans.
+ * Version 4: Nutrition moved from items.nutrition_json to the typed item_nutrition table.
+ * Version 5: Composite indexes for list queries and a trigger-maintained items.is_low_stock flag.
+ * Version 6: Integer items.expiry_day for index-friendly expiry ranges.
+ * Version 7: Barcode products, ingredient dictionary and recipe ingredients, prefilled from {@link #SEED_ASSET}.
+ * Version 8: Trigger-maintained household counters (household_stats, item_expiry_counts).
+ * Version 9: Integer local_id primary keys for items, grocery entries and households; nutrition keyed by it.
+ * Version 10: Cached recipes stored as deflated recipe_payload blobs ({@link RecipePayloadCodec}).
+ * Version 11: Consumption log (item_consumption) and per-item usage rates (item_usage) for run-out forecasts.
+ * Version 12: Per-collection pull watermarks (sync_watermarks) for incremental Firestore pulls.
+ * Upgrades run the steps in {@link Migrations}; local data is never dropped on upgrade.
+ *
+ * Storage modes (BuildConfig.PER_HOUSEHOLD_DATABASES):
+ * - Shared: one file holds every household; household tables are filtered by household_id.
+ * - Per household: the shared file keeps the product, ingredient and recipe catalog, and each
+ *   household's items, grocery entries and outbox live in their own file from
+ *   {@link #getInstance(Context, String)}. Switching households opens a file, leaving deletes one.
  */
 @Database(
     entities = {
         ItemEntity.class,
         GroceryEntryEntity.class,
         HouseholdEntity.class,
-        RecipeCacheEntity.class
+        RecipeCacheEntity.class,
+        ItemFtsEntity.class,
+        SyncOpEntity.class,
+        ItemNutritionEntity.class,
+        ProductEntity.class,
+        IngredientEntity.class,
+        RecipeIngredientEntity.class,
+        HouseholdStatsEntity.class,
+        ItemExpiryCountEntity.class,
+        ItemConsumptionEntity.class,
+        ItemUsageEntity.class,
+        SyncWatermarkEntity.class
     },
-    version = 1,
+    version = AppDatabase.VERSION,
     exportSchema = true
 )
 @TypeConverters({Converters.class})
 public abstract class AppDatabase extends RoomDatabase {
     
+    private static final String TAG = "AppDatabase";
+    static final int VERSION = 12;
     private static final String DATABASE_NAME = "kitchen_kompanion_db";
+    private static final String HOUSEHOLD_DATABASE_PREFIX = "kitchen_kompanion_hh_";
+    
+    // Generated at build time by the generate<Variant>SeedDatabase tasks; copied on first launch only
+    static final String SEED_ASSET = "databases/seed.db";
     private static volatile AppDatabase INSTANCE;
     
+    // Open household databases by household id; guarded by itself
+    private static final Map<String, AppDatabase> HOUSEHOLD_INSTANCES = new HashMap<>();
+    
     public abstract ItemDao itemDao();
     public abstract GroceryDao groceryDao();
     public abstract HouseholdDao householdDao();
     public abstract RecipeCacheDao recipeCacheDao();
+    public abstract SyncOpDao syncOpDao();
+    public abstract ItemNutritionDao itemNutritionDao();
+    public abstract ProductDao productDao();
+    public abstract IngredientDao ingredientDao();
+    public abstract HouseholdStatsDao householdStatsDao();
+    public abstract ItemUsageDao itemUsageDao();
+    public abstract SyncWatermarkDao syncWatermarkDao();
+    
+    static final Callback CALLBACK = new Callback() {
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            // @Insert(REPLACE) deletes the old row; without recursive triggers that
+            // delete skips the FTS content-sync trigger and leaves stale index entries.
+            db.execSQL("PRAGMA recursive_triggers = ON");
+            DatabaseTriggers.install(db);
+        }
+    };
     
     public static AppDatabase getInstance(Context context) {
         if (INSTANCE == null) {
@@ -41,13 +111,184 @@ public abstract class AppDatabase extends RoomDatabase {
                             AppDatabase.class,
                             DATABASE_NAME
                     )
-                    .fallbackToDestructiveMigration() // For development; use proper migrations in production
+                    .createFromAsset(SEED_ASSET)
+                    .addMigrations(Migrations.ALL)
+                    .fallbackToDestructiveMigrationOnDowngrade()
+                    .addCallback(CALLBACK)
                     .build();
                 }
             }
         }
         return INSTANCE;
     }
+    
+    /**
+     * Database for a household's items, grocery entries and sync outbox.
+     * In shared mode, or without a household, this is the shared database.
+     * Household databases open on first use and stay open until closed or deleted here.
+     */
+    public static AppDatabase getInstance(Context context, String householdId) {
+        if (!BuildConfig.PER_HOUSEHOLD_DATABASES || householdId == null) {
+            return getInstance(context);
+        }
+        synchronized (HOUSEHOLD_INSTANCES) {
+            AppDatabase database = HOUSEHOLD_INSTANCES.get(householdId);
+            if (database == null) {
+                Context appContext = context.getApplicationContext();
+                database = Room.databaseBuilder(
+                        appContext,
+                        AppDatabase.class,
+                        householdDatabaseName(householdId)
+                )
+                .addMigrations(Migrations.ALL)
+                .fallbackToDestructiveMigrationOnDowngrade()
+                .addCallback(CALLBACK)
+                .addCallback(new SharedDatabaseImport(appContext, householdId))
+                .build();
+                HOUSEHOLD_INSTANCES.put(householdId, database);
+            }
+            return database;
+        }
+    }
+    
+    /**
+     * Opens the household's database on a background thread so the first query doesn't pay for it.
+     */
+    public static void preload(Context context, String householdId) {
+        AppDatabase database = getInstance(context, householdId);
+        database.getQueryExecutor().execute(() -> database.getOpenHelper().getWritableDatabase());
+    }
+    
+    /**
+     * Makes householdId the active household: its database is opened eagerly and every
+     * other household database is closed. Work still using a closed one fails and retries.
+     */
+    public static void switchHousehold(Context context, String householdId) {
+        preload(context, householdId);
+        synchronized (HOUSEHOLD_INSTANCES) {
+            Iterator<Map.Entry<String, AppDatabase>> iterator = HOUSEHOLD_INSTANCES.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, AppDatabase> entry = iterator.next();
+                if (!entry.getKey().equals(householdId)) {
+                    entry.getValue().close();
+                    iterator.remove();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Closes a household database if it is open; the next getInstance reopens it.
+     */
+    public static void closeHousehold(String householdId) {
+        synchronized (HOUSEHOLD_INSTANCES) {
+            AppDatabase database = HOUSEHOLD_INSTANCES.remove(householdId);
+            if (database != null) {
+                database.close();
+            }
+        }
+    }
+    
+    /**
+     * Removes all local data of a household the user left. Must not run on the main thread.
+     * Its queued sync is cancelled first so the worker can't reopen the household afterwards.
+     * The household's rows go from the shared database in both modes: in per-household mode
+     * rows of a household never opened since the switch are still there, and
+     * {@link SharedDatabaseImport} would bring them back. Then the household's file is deleted.
+     */
+    public static void deleteHousehold(Context context, String householdId) {
+        Context appContext = context.getApplicationContext();
+        WorkManager.getInstance(appContext).cancelUniqueWork(SyncScheduler.workName(householdId));
+        AppDatabase database = getInstance(appContext);
+        database.runInTransaction(() -> {
+            database.itemNutritionDao().deleteAllForHousehold(householdId);
+            database.itemUsageDao().deleteConsumptionForHousehold(householdId);
+            database.itemUsageDao().deleteUsageForHousehold(householdId);
+            database.itemDao().deleteAllForHousehold(householdId);
+            database.groceryDao().deleteAllForHousehold(householdId);
+            database.syncOpDao().deleteAllForHousehold(householdId);
+            database.syncWatermarkDao().deleteAllForHousehold(householdId);
+            database.householdStatsDao().deleteAllForHousehold(householdId);
+            database.householdDao().delete(householdId);
+        });
+        if (BuildConfig.PER_HOUSEHOLD_DATABASES) {
+            closeHousehold(householdId);
+            boolean deleted = appContext.deleteDatabase(householdDatabaseName(householdId));
+            Log.i(TAG, "Deleted database of household " + householdId + ": " + deleted);
+        }
+    }
+    
+    /**
+     * Ids of households with a database file on this device, open or not.
+     */
+    public static List<String> getStoredHouseholdIds(Context context) {
+        List<String> householdIds = new ArrayList<>();
+        if (!BuildConfig.PER_HOUSEHOLD_DATABASES) {
+            return householdIds;
+        }
+        for (String name : context.getApplicationContext().databaseList()) {
+            // Skip the -wal, -shm and -journal side files and restores in progress
+            if (name.startsWith(HOUSEHOLD_DATABASE_PREFIX) && !name.endsWith("-wal")
+                    && !name.endsWith("-shm") && !name.endsWith("-journal")
+                    && !name.endsWith(DatabaseBackup.RESTORE_SUFFIX)) {
+                householdIds.add(name.substring(HOUSEHOLD_DATABASE_PREFIX.length()));
+            }
+        }
+        return householdIds;
+    }
+    
+    /**
+     * File behind {@link #getInstance(Context, String)} for the household.
+     */
+    static File getDatabaseFile(Context context, String householdId) {
+        String name = BuildConfig.PER_HOUSEHOLD_DATABASES && householdId != null
+                ? householdDatabaseName(householdId) : DATABASE_NAME;
+        return context.getApplicationContext().getDatabasePath(name);
+    }
+    
+    /**
+     * Swaps a verified copy in for the household's database file (the shared file in shared mode).
+     * The open instance is closed first and getInstance is held off until the new file is in place;
+     * objects still holding the old instance fail and have to fetch it again.
+     */
+    static void replaceDatabaseFile(Context context, String householdId, File replacement) throws IOException {
+        File target = getDatabaseFile(context, householdId);
+        if (!BuildConfig.PER_HOUSEHOLD_DATABASES || householdId == null) {
+            synchronized (AppDatabase.class) {
+                if (INSTANCE != null) {
+                    INSTANCE.close();
+                    INSTANCE = null;
+                }
+                moveDatabaseFile(replacement, target);
+            }
+            return;
+        }
+        synchronized (HOUSEHOLD_INSTANCES) {
+            closeHousehold(householdId);
+            moveDatabaseFile(replacement, target);
+        }
+    }
+    
+    private static void moveDatabaseFile(File source, File target) throws IOException {
+        // Side files of the old database would be replayed into the new one
+        for (String suffix : new String[]{"-wal", "-shm", "-journal"}) {
+            File sideFile = new File(target.getPath() + suffix);
+            if (sideFile.exists() && !sideFile.delete()) {
+                throw new IOException("Cannot delete " + sideFile);
+            }
+        }
+        if (!source.renameTo(target)) {
+            throw new IOException("Cannot move " + source + " to " + target);
+        }
+    }
+    
+    static String householdDatabaseName(String householdId) {
+        return HOUSEHOLD_DATABASE_PREFIX + householdId;
+    }
+    
+    static String sharedDatabaseName() {
+        return DATABASE_NAME;
+    }
 }
 
 
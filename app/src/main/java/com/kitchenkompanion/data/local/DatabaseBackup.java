@@ -0,0 +1,197 @@
+package com.kitchenkompanion.data.local;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.kitchenkompanion.BuildConfig;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Whole-file backup and restore of a household's database.
+ *
+ * Backup checkpoints the WAL into the main file and copies that file with
+ * {@link FileChannel#transferTo} while holding the write lock, so the copy is a consistent
+ * snapshot and no row is decoded on the way. Restore copies the file into a temporary
+ * file next to the database, checks it (SQLite integrity check, schema version, household)
+ * and only then swaps it in; a rejected backup leaves the current data untouched.
+ * Backups from older app versions are migrated when the restored file is opened.
+ *
+ * In per-household mode the backup holds one household; in shared mode it holds the
+ * shared file with every household and the catalog.
+ */
+public final class DatabaseBackup {
+    
+    private static final String TAG = "DatabaseBackup";
+    
+    static final String RESTORE_SUFFIX = "-restore";
+    
+    // Writes that commit between the checkpoint and the lock land in the WAL; the checkpoint is then retried
+    private static final int MAX_CHECKPOINT_ATTEMPTS = 5;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private static final String[] REQUIRED_TABLES = {"items", "grocery_entries", "sync_ops"};
+    
+    private DatabaseBackup() {
+    }
+    
+    /**
+     * Writes a snapshot of the household's database to target, at its current position.
+     *
+     * @return bytes written
+     */
+    @WorkerThread
+    public static long backup(Context context, String householdId, FileChannel target) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        SupportSQLiteDatabase db = AppDatabase.getInstance(context, householdId).getOpenHelper().getWritableDatabase();
+        File file = AppDatabase.getDatabaseFile(context, householdId);
+        File wal = new File(file.getPath() + "-wal");
+        
+        for (int attempt = 1; attempt <= MAX_CHECKPOINT_ATTEMPTS; attempt++) {
+            boolean checkpointed = checkpoint(db);
+            // Holding the write lock keeps other connections from committing, and so from checkpointing into the file
+            db.beginTransaction();
+            try {
+                // TRUNCATE leaves an empty WAL; anything in it now is missing from the main file
+                if (checkpointed && wal.length() == 0) {
+                    long bytes;
+                    try (FileChannel source = new FileInputStream(file).getChannel()) {
+                        bytes = copy(source, target);
+                    }
+                    target.force(true);
+                    Log.i(TAG, "Backed up " + bytes + " bytes in " + (SystemClock.elapsedRealtime() - start) + " ms");
+                    return bytes;
+                }
+            } finally {
+                db.endTransaction();
+            }
+            Log.d(TAG, "Database changed during checkpoint, attempt " + attempt);
+        }
+        throw new IOException("Database is busy, try the backup again");
+    }
+    
+    /**
+     * Replaces the household's database with the backup read from source.
+     * Must not run while a transaction on the household database is open on this thread.
+     *
+     * @return pending sync ops in the restored database
+     */
+    @WorkerThread
+    public static int restore(Context context, String householdId, FileChannel source) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        File target = AppDatabase.getDatabaseFile(context, householdId);
+        File restored = new File(target.getPath() + RESTORE_SUFFIX);
+        File directory = target.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        try {
+            long bytes;
+            try (FileOutputStream out = new FileOutputStream(restored)) {
+                bytes = copy(source, out.getChannel());
+                out.getFD().sync();
+            }
+            verify(restored, householdId);
+            AppDatabase.replaceDatabaseFile(context, householdId, restored);
+            
+            // Opens the restored file, running migrations if the backup is from an older version
+            int pendingOps = AppDatabase.getInstance(context, householdId).syncOpDao().countPendingOps(householdId);
+            Log.i(TAG, "Restored " + bytes + " bytes with " + pendingOps + " pending sync ops in "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
+            return pendingOps;
+        } finally {
+            // Removes the copy if it was rejected, and its side files either way
+            SQLiteDatabase.deleteDatabase(restored);
+        }
+    }
+    
+    /**
+     * Copies source from its start to target at target's position.
+     */
+    static long copy(FileChannel source, FileChannel target) throws IOException {
+        long size = source.size();
+        long position = 0;
+        if (size > 0) {
+            while (position < size) {
+                long transferred = source.transferTo(position, size - position, target);
+                if (transferred <= 0) {
+                    throw new IOException("Copy stopped after " + position + " of " + size + " bytes");
+                }
+                position += transferred;
+            }
+            return position;
+        }
+        // Pipes from some document providers report no size and can't be transferred from by position
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (source.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += target.write(buffer);
+            }
+            buffer.clear();
+        }
+        return position;
+    }
+    
+    /**
+     * True if the WAL was fully copied into the main file and truncated.
+     */
+    private static boolean checkpoint(SupportSQLiteDatabase db) {
+        try (Cursor cursor = db.query("PRAGMA wal_checkpoint(TRUNCATE)")) {
+            // Columns: busy, WAL frames, frames checkpointed; not in WAL mode gives 0, -1, -1
+            return cursor.moveToFirst() && cursor.getInt(0) == 0;
+        }
+    }
+    
+    private static void verify(File file, String householdId) throws IOException {
+        // The default error handler would delete the file before we could report why
+        try (SQLiteDatabase db = SQLiteDatabase.openDatabase(file.getPath(), null,
+                SQLiteDatabase.OPEN_READWRITE, dbObj -> { })) {
+            int version = db.getVersion();
+            if (version == 0) {
+                throw new IOException("Not a Kitchen Kompanion backup");
+            }
+            if (version > AppDatabase.VERSION) {
+                throw new IOException("Backup is from a newer app version (" + version + ")");
+            }
+            String integrity = queryString(db, "PRAGMA integrity_check", null);
+            if (!"ok".equals(integrity)) {
+                throw new IOException("Backup is damaged: " + integrity);
+            }
+            for (String table : REQUIRED_TABLES) {
+                if (queryString(db, "SELECT name FROM sqlite_master WHERE type = 'table' AND name = ?",
+                        new String[]{table}) == null) {
+                    throw new IOException("Backup has no " + table + " table");
+                }
+            }
+            if (BuildConfig.PER_HOUSEHOLD_DATABASES && householdId != null) {
+                String other = queryString(db, "SELECT household_id FROM items WHERE household_id != ? " +
+                        "UNION ALL SELECT household_id FROM grocery_entries WHERE household_id != ? LIMIT 1",
+                        new String[]{householdId, householdId});
+                if (other != null) {
+                    throw new IOException("Backup belongs to another household");
+                }
+            }
+        } catch (SQLiteException e) {
+            throw new IOException("Backup can't be opened: " + e.getMessage(), e);
+        }
+    }
+    
+    private static String queryString(SQLiteDatabase db, String sql, String[] args) {
+        try (Cursor cursor = db.rawQuery(sql, args)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+}
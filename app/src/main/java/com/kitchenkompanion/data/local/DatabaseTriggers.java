@@ -0,0 +1,127 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * SQL triggers that Room has no annotation for.
+ * Installed idempotently every time the database is opened, so fresh installs,
+ * migrated databases and prepackaged databases all end up with the same set.
+ */
+final class DatabaseTriggers {
+    
+    private DatabaseTriggers() {
+    }
+    
+    // Only writes when the flag actually flips, so ordinary inserts don't churn the FTS triggers
+    private static final String UPDATE_LOW_STOCK_FLAG =
+            "UPDATE items SET is_low_stock = (NEW.quantity <= NEW.low_stock_threshold) " +
+            "WHERE id = NEW.id AND is_low_stock IS NOT (NEW.quantity <= NEW.low_stock_threshold); ";
+    
+    // Trigger bodies can't use INSERT OR IGNORE: an outer INSERT OR REPLACE from @Insert(REPLACE)
+    // overrides the conflict policy of statements inside the trigger and would reset the row
+    private static final String LIVE_ITEM = "NEW.is_deleted = 0";
+    private static final String WAS_LIVE_ITEM = "OLD.is_deleted = 0";
+    private static final String UNCHECKED_ENTRY = "NEW.is_deleted = 0 AND NEW.is_checked = 0";
+    private static final String WAS_UNCHECKED_ENTRY = "OLD.is_deleted = 0 AND OLD.is_checked = 0";
+    
+    // The counters read low stock from the columns, not from is_low_stock: the flag is set by another
+    // AFTER trigger, and SQLite doesn't define which of two triggers on the same event runs first
+    private static final String NEW_LOW_STOCK = "(NEW.quantity <= NEW.low_stock_threshold)";
+    private static final String OLD_LOW_STOCK = "(OLD.quantity <= OLD.low_stock_threshold)";
+    
+    static void install(SupportSQLiteDatabase db) {
+        // items.is_low_stock mirrors quantity <= low_stock_threshold so the low-stock
+        // query can use an index instead of comparing two columns on every row
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS items_low_stock_after_insert " +
+                "AFTER INSERT ON items BEGIN " + UPDATE_LOW_STOCK_FLAG + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS items_low_stock_after_update " +
+                "AFTER UPDATE OF quantity, low_stock_threshold ON items BEGIN " + UPDATE_LOW_STOCK_FLAG + "END");
+        
+        // household_stats and item_expiry_counts count live rows. Updates only fire when a counted
+        // column changes, and move the row out of its old buckets and into its new ones.
+        // Dropped first because earlier versions of these three counted is_low_stock.
+        db.execSQL("DROP TRIGGER IF EXISTS household_stats_items_after_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS household_stats_items_after_delete");
+        db.execSQL("DROP TRIGGER IF EXISTS household_stats_items_after_update");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS household_stats_items_after_insert " +
+                "AFTER INSERT ON items WHEN " + LIVE_ITEM + " BEGIN " + addItem(LIVE_ITEM) + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS household_stats_items_after_delete " +
+                "AFTER DELETE ON items WHEN " + WAS_LIVE_ITEM + " BEGIN " + removeItem(WAS_LIVE_ITEM) + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS household_stats_items_after_update " +
+                "AFTER UPDATE OF household_id, is_deleted, quantity, low_stock_threshold, expiry_day ON items " +
+                "WHEN OLD.household_id IS NOT NEW.household_id OR OLD.is_deleted != NEW.is_deleted " +
+                "OR " + OLD_LOW_STOCK + " != " + NEW_LOW_STOCK + " OR OLD.expiry_day IS NOT NEW.expiry_day " +
+                "BEGIN " + removeItem(WAS_LIVE_ITEM) + addItem(LIVE_ITEM) + "END");
+        
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS household_stats_grocery_after_insert " +
+                "AFTER INSERT ON grocery_entries WHEN " + UNCHECKED_ENTRY + " BEGIN " + addEntry(UNCHECKED_ENTRY) + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS household_stats_grocery_after_delete " +
+                "AFTER DELETE ON grocery_entries WHEN " + WAS_UNCHECKED_ENTRY + " BEGIN " + removeEntry(WAS_UNCHECKED_ENTRY) + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS household_stats_grocery_after_update " +
+                "AFTER UPDATE OF household_id, is_deleted, is_checked ON grocery_entries " +
+                "WHEN OLD.household_id IS NOT NEW.household_id OR OLD.is_deleted != NEW.is_deleted " +
+                "OR OLD.is_checked != NEW.is_checked " +
+                "BEGIN " + removeEntry(WAS_UNCHECKED_ENTRY) + addEntry(UNCHECKED_ENTRY) + "END");
+    }
+    
+    /**
+     * Recounts household_stats and item_expiry_counts from scratch; for databases that had rows
+     * before the triggers existed.
+     */
+    static void rebuildHouseholdStats(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM household_stats");
+        db.execSQL("DELETE FROM item_expiry_counts");
+        db.execSQL("INSERT INTO household_stats (household_id, item_count, low_stock_count, unchecked_grocery_count) " +
+                "SELECT household_id, SUM(item), SUM(low_stock), SUM(unchecked) FROM (" +
+                "SELECT household_id, 1 AS item, (quantity <= low_stock_threshold) AS low_stock, 0 AS unchecked FROM items " +
+                "WHERE is_deleted = 0 AND household_id IS NOT NULL " +
+                "UNION ALL SELECT household_id, 0, 0, 1 FROM grocery_entries " +
+                "WHERE is_deleted = 0 AND is_checked = 0 AND household_id IS NOT NULL) " +
+                "GROUP BY household_id");
+        db.execSQL("INSERT INTO item_expiry_counts (household_id, expiry_day, item_count) " +
+                "SELECT household_id, expiry_day, COUNT(*) FROM items " +
+                "WHERE is_deleted = 0 AND household_id IS NOT NULL AND expiry_day IS NOT NULL " +
+                "GROUP BY household_id, expiry_day");
+    }
+    
+    private static String ensureStatsRow(String condition) {
+        return "INSERT INTO household_stats (household_id, item_count, low_stock_count, unchecked_grocery_count) " +
+                "SELECT NEW.household_id, 0, 0, 0 WHERE " + condition + " AND NEW.household_id IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM household_stats WHERE household_id = NEW.household_id); ";
+    }
+    
+    private static String addItem(String condition) {
+        return ensureStatsRow(condition) +
+                "UPDATE household_stats SET item_count = item_count + 1, " +
+                "low_stock_count = low_stock_count + " + NEW_LOW_STOCK + " " +
+                "WHERE " + condition + " AND household_id = NEW.household_id; " +
+                "INSERT INTO item_expiry_counts (household_id, expiry_day, item_count) " +
+                "SELECT NEW.household_id, NEW.expiry_day, 0 WHERE " + condition + " " +
+                "AND NEW.household_id IS NOT NULL AND NEW.expiry_day IS NOT NULL AND NOT EXISTS " +
+                "(SELECT 1 FROM item_expiry_counts WHERE household_id = NEW.household_id AND expiry_day = NEW.expiry_day); " +
+                "UPDATE item_expiry_counts SET item_count = item_count + 1 " +
+                "WHERE " + condition + " AND household_id = NEW.household_id AND expiry_day = NEW.expiry_day; ";
+    }
+    
+    private static String removeItem(String condition) {
+        return "UPDATE household_stats SET item_count = item_count - 1, " +
+                "low_stock_count = low_stock_count - " + OLD_LOW_STOCK + " " +
+                "WHERE " + condition + " AND household_id = OLD.household_id; " +
+                "UPDATE item_expiry_counts SET item_count = item_count - 1 " +
+                "WHERE " + condition + " AND household_id = OLD.household_id AND expiry_day = OLD.expiry_day; " +
+                // Empty buckets are dropped so the expiring sum only visits days that have items
+                "DELETE FROM item_expiry_counts " +
+                "WHERE household_id = OLD.household_id AND expiry_day = OLD.expiry_day AND item_count <= 0; ";
+    }
+    
+    private static String addEntry(String condition) {
+        return ensureStatsRow(condition) +
+                "UPDATE household_stats SET unchecked_grocery_count = unchecked_grocery_count + 1 " +
+                "WHERE " + condition + " AND household_id = NEW.household_id; ";
+    }
+    
+    private static String removeEntry(String condition) {
+        return "UPDATE household_stats SET unchecked_grocery_count = unchecked_grocery_count - 1 " +
+                "WHERE " + condition + " AND household_id = OLD.household_id; ";
+    }
+}
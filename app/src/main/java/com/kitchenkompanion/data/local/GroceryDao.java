@@ -7,6 +7,7 @@ import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
 import java.util.Date;
 import java.util.List;
@@ -17,8 +18,8 @@ import java.util.List;
 @Dao
 public interface GroceryDao {
     
-    @Query("SELECT * FROM grocery_entries WHERE household_id = :householdId AND is_deleted = 0 ORDER BY is_checked ASC, created_at DESC")
-    LiveData<List<GroceryEntryEntity>> getAllEntries(String householdId);
+    @Query("SELECT local_id, id, name, quantity, unit, source, is_checked FROM grocery_entries WHERE household_id = :householdId AND is_deleted = 0 ORDER BY is_checked ASC, created_at DESC")
+    LiveData<List<GroceryRow>> getAllEntries(String householdId);
     
     @Query("SELECT * FROM grocery_entries WHERE household_id = :householdId AND is_deleted = 0 ORDER BY is_checked ASC, created_at DESC")
     List<GroceryEntryEntity> getAllEntriesSync(String householdId);
@@ -26,11 +27,21 @@ public interface GroceryDao {
     @Query("SELECT * FROM grocery_entries WHERE id = :entryId")
     GroceryEntryEntity getEntryByIdSync(String entryId);
     
+    @Query("SELECT local_id, id, is_synced, updated_at FROM grocery_entries WHERE id IN (:entryIds)")
+    List<SyncState> getSyncStatesSync(List<String> entryIds);
+    
+    @Query("SELECT id FROM grocery_entries WHERE local_id = :localId")
+    String getIdSync(long localId);
+    
+    // Export pages in local_id order; +household_id keeps the plan on the rowid range instead of an index plus sort
+    @Query("SELECT * FROM grocery_entries WHERE +household_id = :householdId AND is_deleted = 0 AND local_id > :afterLocalId ORDER BY local_id LIMIT :limit")
+    List<GroceryEntryEntity> getEntriesAfterSync(String householdId, long afterLocalId, int limit);
+    
     @Query("SELECT * FROM grocery_entries WHERE household_id = :householdId AND name = :name AND is_deleted = 0 LIMIT 1")
     GroceryEntryEntity findByNameSync(String householdId, String name);
     
-    @Query("SELECT * FROM grocery_entries WHERE is_synced = 0")
-    List<GroceryEntryEntity> getUnsyncedEntries();
+    @Query("SELECT id FROM grocery_entries WHERE is_checked = 1 AND household_id = :householdId AND is_deleted = 0")
+    List<String> getCheckedEntryIdsSync(String householdId);
     
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insert(GroceryEntryEntity entry);
@@ -38,26 +49,48 @@ public interface GroceryDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<GroceryEntryEntity> entries);
     
+    /**
+     * Updates rows in place by local_id and inserts those with localId 0.
+     */
+    @Upsert
+    void upsertAll(List<GroceryEntryEntity> entries);
+    
     @Update
     void update(GroceryEntryEntity entry);
     
     @Delete
     void delete(GroceryEntryEntity entry);
     
-    @Query("UPDATE grocery_entries SET is_deleted = 1, updated_at = :timestamp WHERE id = :entryId")
-    void softDelete(String entryId, Date timestamp);
+    @Query("UPDATE grocery_entries SET is_deleted = 1, is_synced = 0, updated_at = :timestamp WHERE local_id = :localId")
+    void softDelete(long localId, Date timestamp);
+    
+    @Query("UPDATE grocery_entries SET is_checked = :checked, updated_at = :timestamp, is_synced = 0 WHERE local_id = :localId")
+    void updateCheckedStatus(long localId, boolean checked, Date timestamp);
     
-    @Query("UPDATE grocery_entries SET is_checked = :checked, updated_at = :timestamp, is_synced = 0 WHERE id = :entryId")
-    void updateCheckedStatus(String entryId, boolean checked, Date timestamp);
+    @Query("UPDATE grocery_entries SET is_synced = 1 WHERE local_id = :localId AND is_synced = 0")
+    void markAsSynced(long localId);
     
-    @Query("UPDATE grocery_entries SET is_synced = 1 WHERE id = :entryId")
-    void markAsSynced(String entryId);
+    /**
+     * Marks pushed rows synced unless the outbox got another op for them after afterSeq,
+     * i.e. they were changed again while the push was in flight and still need pushing.
+     */
+    @Query("UPDATE grocery_entries SET is_synced = 1 WHERE local_id IN (:localIds) AND is_synced = 0 " +
+           "AND id NOT IN (SELECT entity_id FROM sync_ops WHERE household_id = :householdId " +
+           "AND seq > :afterSeq AND entity_type = 'grocery_entry')")
+    void markAllAsSynced(List<Long> localIds, String householdId, long afterSeq);
     
-    @Query("DELETE FROM grocery_entries WHERE is_checked = 1 AND household_id = :householdId")
-    void deleteCheckedItems(String householdId);
+    @Query("UPDATE grocery_entries SET is_deleted = 1, is_synced = 0, updated_at = :timestamp WHERE is_checked = 1 AND household_id = :householdId AND is_deleted = 0")
+    void softDeleteCheckedItems(String householdId, Date timestamp);
     
     @Query("DELETE FROM grocery_entries WHERE household_id = :householdId")
     void deleteAllForHousehold(String householdId);
+    
+    /**
+     * Hard-deletes soft-deleted entries whose deletion has reached Firestore and is older than the cutoff.
+     * @return number of rows removed
+     */
+    @Query("DELETE FROM grocery_entries WHERE is_deleted = 1 AND is_synced = 1 AND updated_at < :cutoff")
+    int purgeSyncedTombstones(Date cutoff);
 }
 
 
@@ -1,5 +1,6 @@
 package com.kitchenkompanion.data.local;
 
+import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Index;
@@ -9,17 +10,29 @@ import java.util.Date;
 
 /**
  * Room entity for grocery list entries.
+ * The list index matches the screen order (unchecked first, newest first), so the
+ * list is read straight off the index.
+ * Keyed like {@link ItemEntity}: integer local_id, UUID id for Firestore.
  */
 @Entity(
     tableName = "grocery_entries",
     indices = {
+        @Index(value = "id", unique = true),
         @Index(value = "list_id"),
-        @Index(value = "household_id")
+        @Index(
+            value = {"household_id", "is_deleted", "is_checked", "created_at"},
+            orders = {Index.Order.ASC, Index.Order.ASC, Index.Order.ASC, Index.Order.DESC}
+        ),
+        @Index(value = {"household_id", "name"})
     }
 )
 public class GroceryEntryEntity {
     
-    @PrimaryKey
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "local_id")
+    public long localId;
+    
+    @NonNull
     @ColumnInfo(name = "id")
     public String id;
     
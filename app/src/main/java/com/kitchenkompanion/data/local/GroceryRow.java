@@ -0,0 +1,51 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.ColumnInfo;
+
+import java.util.Objects;
+
+/**
+ * Slim projection of {@link GroceryEntryEntity} for the grocery list.
+ */
+public class GroceryRow {
+    
+    @ColumnInfo(name = "local_id")
+    public long localId;
+    
+    @ColumnInfo(name = "id")
+    public String id;
+    
+    @ColumnInfo(name = "name")
+    public String name;
+    
+    @ColumnInfo(name = "quantity")
+    public double quantity;
+    
+    @ColumnInfo(name = "unit")
+    public String unit;
+    
+    @ColumnInfo(name = "source")
+    public String source;
+    
+    @ColumnInfo(name = "is_checked")
+    public boolean isChecked;
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GroceryRow)) return false;
+        GroceryRow other = (GroceryRow) o;
+        return localId == other.localId
+                && Double.compare(quantity, other.quantity) == 0
+                && isChecked == other.isChecked
+                && Objects.equals(id, other.id)
+                && Objects.equals(name, other.name)
+                && Objects.equals(unit, other.unit)
+                && Objects.equals(source, other.source);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(localId, id, name, quantity, unit, source, isChecked);
+    }
+}
@@ -1,18 +1,30 @@
 package com.kitchenkompanion.data.local;
 
+import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.util.Date;
 
 /**
  * Room entity for household information.
+ * Keyed like {@link ItemEntity}: integer local_id, UUID id for Firestore.
  */
-@Entity(tableName = "households")
+@Entity(
+    tableName = "households",
+    indices = {
+        @Index(value = "id", unique = true)
+    }
+)
 public class HouseholdEntity {
     
-    @PrimaryKey
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "local_id")
+    public long localId;
+    
+    @NonNull
     @ColumnInfo(name = "id")
     public String id;
     
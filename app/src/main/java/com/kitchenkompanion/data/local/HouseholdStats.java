@@ -0,0 +1,16 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Embedded;
+
+/**
+ * Household counters plus the number of items expiring by a given day.
+ */
+public class HouseholdStats {
+    
+    @Embedded
+    public HouseholdStatsEntity counts;
+    
+    @ColumnInfo(name = "expiring_count")
+    public int expiringCount;
+}
@@ -0,0 +1,28 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+/**
+ * DAO for the trigger-maintained household counters.
+ */
+@Dao
+public interface HouseholdStatsDao {
+    
+    /**
+     * One primary-key row plus the expiry buckets up to lastExpiryDay; emits null until the
+     * household has its first live item or unchecked grocery entry.
+     */
+    @Query("SELECT household_stats.*, " +
+            "(SELECT COALESCE(SUM(item_expiry_counts.item_count), 0) FROM item_expiry_counts " +
+            "WHERE item_expiry_counts.household_id = :householdId AND item_expiry_counts.expiry_day <= :lastExpiryDay) AS expiring_count " +
+            "FROM household_stats WHERE household_stats.household_id = :householdId")
+    LiveData<HouseholdStats> observe(String householdId, int lastExpiryDay);
+    
+    @Query("SELECT * FROM household_stats WHERE household_id = :householdId")
+    HouseholdStatsEntity getSync(String householdId);
+    
+    @Query("DELETE FROM household_stats WHERE household_id = :householdId")
+    void deleteAllForHousehold(String householdId);
+}
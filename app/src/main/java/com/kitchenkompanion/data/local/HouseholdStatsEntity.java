@@ -0,0 +1,32 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Running counts for one household, maintained by triggers in {@link DatabaseTriggers}
+ * on every write to items and grocery_entries. Never written from app code.
+ * Only live rows count: tombstones and checked grocery entries are left out.
+ */
+@Entity(tableName = "household_stats")
+public class HouseholdStatsEntity {
+    
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "household_id")
+    public String householdId = "";
+    
+    @ColumnInfo(name = "item_count")
+    public int itemCount;
+    
+    @ColumnInfo(name = "low_stock_count")
+    public int lowStockCount;
+    
+    @ColumnInfo(name = "unchecked_grocery_count")
+    public int uncheckedGroceryCount;
+    
+    public HouseholdStatsEntity() {
+    }
+}
@@ -0,0 +1,16 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * DAO for the ingredient dictionary.
+ */
+@Dao
+public interface IngredientDao {
+    
+    @Query("SELECT * FROM ingredients WHERE alias IN (:aliases)")
+    List<IngredientEntity> findByAliases(List<String> aliases);
+}
@@ -0,0 +1,27 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Ingredient dictionary entry mapping a word or phrase found in item names to a
+ * canonical ingredient, e.g. "spaghetti" -> "pasta" or "semi-skimmed milk" -> "milk".
+ * Shipped in the seed database and used to match pantry items against recipes.
+ */
+@Entity(tableName = "ingredients")
+public class IngredientEntity {
+    
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "alias")
+    public String alias = ""; // Lower case
+    
+    @NonNull
+    @ColumnInfo(name = "name")
+    public String name = ""; // Canonical ingredient name, as used in recipe_ingredients
+    
+    public IngredientEntity() {
+    }
+}
@@ -0,0 +1,55 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.util.Date;
+
+/**
+ * Append-only log of pantry use: one row each time an edit lowers an item's quantity.
+ * Forecasts never read it back; {@link ItemUsageEntity} keeps the running averages.
+ * The log is local to the device and pruned by DatabaseMaintenanceWorker.
+ */
+@Entity(
+    tableName = "item_consumption",
+    indices = {
+        @Index(value = {"item_local_id", "seq"})
+    }
+)
+public class ItemConsumptionEntity {
+    
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "seq")
+    public long seq;
+    
+    @ColumnInfo(name = "item_local_id")
+    public long itemLocalId;
+    
+    @ColumnInfo(name = "household_id")
+    public String householdId;
+    
+    @ColumnInfo(name = "amount")
+    public double amount; // Quantity used, in the item's unit
+    
+    @ColumnInfo(name = "remaining")
+    public double remaining; // Quantity left after this use
+    
+    @ColumnInfo(name = "consumed_at")
+    public Date consumedAt;
+    
+    public ItemConsumptionEntity() {
+    }
+    
+    /**
+     * Use of an item between two of its stored states.
+     */
+    public ItemConsumptionEntity(ItemEntity before, ItemEntity after) {
+        this.itemLocalId = before.localId;
+        this.householdId = before.householdId;
+        this.amount = before.quantity - after.quantity;
+        this.remaining = after.quantity;
+        this.consumedAt = after.updatedAt;
+    }
+}
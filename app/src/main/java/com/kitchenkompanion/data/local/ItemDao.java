@@ -1,69 +1,130 @@
 package com.kitchenkompanion.data.local;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
 import java.util.Date;
 import java.util.List;
 
 /**
  * DAO for pantry items.
+ * List-screen queries return {@link PantryRow}; full {@link ItemEntity} loads are for
+ * the edit screen, sync and background jobs.
  */
 @Dao
 public interface ItemDao {
     
-    @Query("SELECT * FROM items WHERE household_id = :householdId AND is_deleted = 0 ORDER BY expiry_date ASC")
-    LiveData<List<ItemEntity>> getAllItems(String householdId);
+    @Query("SELECT id, name, quantity, unit, location, expiry_date, expiry_day, photo_url FROM items WHERE household_id = :householdId AND is_deleted = 0 ORDER BY expiry_day ASC")
+    LiveData<List<PantryRow>> getAllItems(String householdId);
     
-    @Query("SELECT * FROM items WHERE household_id = :householdId AND is_deleted = 0 ORDER BY expiry_date ASC")
+    @Query("SELECT * FROM items WHERE household_id = :householdId AND is_deleted = 0 ORDER BY expiry_day ASC")
     List<ItemEntity> getAllItemsSync(String householdId);
     
+    @Query("SELECT id, name, quantity, unit, location, expiry_date, expiry_day, photo_url FROM items WHERE household_id = :householdId AND is_deleted = 0 ORDER BY expiry_day ASC")
+    PagingSource<Integer, PantryRow> getAllItemsPaged(String householdId);
+    
     @Query("SELECT * FROM items WHERE id = :itemId")
     LiveData<ItemEntity> getItemById(String itemId);
     
     @Query("SELECT * FROM items WHERE id = :itemId")
     ItemEntity getItemByIdSync(String itemId);
     
-    @Query("SELECT * FROM items WHERE household_id = :householdId AND location = :location AND is_deleted = 0 ORDER BY expiry_date ASC")
-    LiveData<List<ItemEntity>> getItemsByLocation(String householdId, String location);
+    @Query("SELECT local_id FROM items WHERE id = :itemId")
+    Long getLocalIdSync(String itemId);
     
-    @Query("SELECT * FROM items WHERE household_id = :householdId AND expiry_date <= :date AND is_deleted = 0 ORDER BY expiry_date ASC")
-    LiveData<List<ItemEntity>> getExpiringItems(String householdId, Date date);
+    @Query("SELECT local_id, id, is_synced, updated_at FROM items WHERE id IN (:itemIds)")
+    List<SyncState> getSyncStatesSync(List<String> itemIds);
     
-    @Query("SELECT * FROM items WHERE household_id = :householdId AND expiry_date <= :date AND is_deleted = 0 ORDER BY expiry_date ASC")
-    List<ItemEntity> getExpiringItemsSync(String householdId, Date date);
+    // Export pages in local_id order; +household_id keeps the plan on the rowid range instead of an index plus sort
+    @Query("SELECT * FROM items WHERE +household_id = :householdId AND is_deleted = 0 AND local_id > :afterLocalId ORDER BY local_id LIMIT :limit")
+    List<ItemEntity> getItemsAfterSync(String householdId, long afterLocalId, int limit);
     
-    @Query("SELECT * FROM items WHERE household_id = :householdId AND quantity <= low_stock_threshold AND is_deleted = 0")
-    List<ItemEntity> getLowStockItemsSync(String householdId);
+    @Query("SELECT id, name, quantity, unit, location, expiry_date, expiry_day, photo_url FROM items WHERE household_id = :householdId AND location = :location AND is_deleted = 0 ORDER BY expiry_day ASC")
+    LiveData<List<PantryRow>> getItemsByLocation(String householdId, String location);
+    
+    @Query("SELECT id, name, quantity, unit, location, expiry_date, expiry_day, photo_url FROM items WHERE household_id = :householdId AND location = :location AND is_deleted = 0 ORDER BY expiry_day ASC")
+    PagingSource<Integer, PantryRow> getItemsByLocationPaged(String householdId, String location);
+    
+    @Query("SELECT id, name, quantity, unit, location, expiry_date, expiry_day, photo_url FROM items WHERE household_id = :householdId AND expiry_day <= :epochDay AND is_deleted = 0 ORDER BY expiry_day ASC")
+    LiveData<List<PantryRow>> getExpiringItems(String householdId, int epochDay);
+    
+    @Query("SELECT id, name, quantity, unit, location, expiry_date, expiry_day, photo_url FROM items WHERE household_id = :householdId AND expiry_day <= :epochDay AND is_deleted = 0 ORDER BY expiry_day ASC")
+    PagingSource<Integer, PantryRow> getExpiringItemsPaged(String householdId, int epochDay);
     
-    @Query("SELECT * FROM items WHERE is_synced = 0")
-    List<ItemEntity> getUnsyncedItems();
+    @Query("SELECT * FROM items WHERE household_id = :householdId AND expiry_day <= :epochDay AND is_deleted = 0 ORDER BY expiry_day ASC")
+    List<ItemEntity> getExpiringItemsSync(String householdId, int epochDay);
     
+    @Query("SELECT * FROM items WHERE household_id = :householdId AND is_low_stock = 1 AND is_deleted = 0")
+    List<ItemEntity> getLowStockItemsSync(String householdId);
+    
+    /**
+     * Full-text search over name, notes and barcode via items_fts.
+     * {@code ftsQuery} is an FTS4 MATCH expression (e.g. "mil* alm*"); {@code namePrefix}
+     * is the raw first term, used to rank name-prefix hits above notes/barcode hits.
+     */
+    @Query("SELECT items.id, items.name, items.quantity, items.unit, items.location, items.expiry_date, items.expiry_day, items.photo_url " +
+           "FROM items JOIN items_fts ON items.rowid = items_fts.rowid " +
+           "WHERE items_fts MATCH :ftsQuery AND items.household_id = :householdId AND items.is_deleted = 0 " +
+           "ORDER BY CASE WHEN items.name LIKE :namePrefix || '%' THEN 0 " +
+           "WHEN items.name LIKE '%' || :namePrefix || '%' THEN 1 ELSE 2 END, items.expiry_day ASC")
+    PagingSource<Integer, PantryRow> searchItemsPaged(String householdId, String ftsQuery, String namePrefix);
+    
+    /**
+     * Leave localId at 0 for a new item. For an existing one pass its localId, otherwise
+     * the replace gives the row a new local_id and its nutrition row is orphaned.
+     * @return local_id of the stored row
+     */
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insert(ItemEntity item);
+    long insert(ItemEntity item);
     
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<ItemEntity> items);
     
+    /**
+     * Updates rows in place by local_id and inserts those with localId 0. Unlike a replace,
+     * an existing row is never deleted, so its nutrition row stays attached.
+     * @return local_id of each inserted row, or -1 where a row was updated
+     */
+    @Upsert
+    List<Long> upsertAll(List<ItemEntity> items);
+    
     @Update
     void update(ItemEntity item);
     
     @Delete
     void delete(ItemEntity item);
     
-    @Query("UPDATE items SET is_deleted = 1, updated_at = :timestamp WHERE id = :itemId")
+    @Query("UPDATE items SET is_deleted = 1, is_synced = 0, updated_at = :timestamp WHERE id = :itemId")
     void softDelete(String itemId, Date timestamp);
     
-    @Query("UPDATE items SET is_synced = 1 WHERE id = :itemId")
-    void markAsSynced(String itemId);
+    @Query("UPDATE items SET is_synced = 1 WHERE local_id = :localId AND is_synced = 0")
+    void markAsSynced(long localId);
+    
+    /**
+     * Marks pushed rows synced unless the outbox got another op for them after afterSeq,
+     * i.e. they were changed again while the push was in flight and still need pushing.
+     */
+    @Query("UPDATE items SET is_synced = 1 WHERE local_id IN (:localIds) AND is_synced = 0 " +
+           "AND id NOT IN (SELECT entity_id FROM sync_ops WHERE household_id = :householdId " +
+           "AND seq > :afterSeq AND entity_type = 'item')")
+    void markAllAsSynced(List<Long> localIds, String householdId, long afterSeq);
     
     @Query("DELETE FROM items WHERE household_id = :householdId")
     void deleteAllForHousehold(String householdId);
+    
+    /**
+     * Hard-deletes soft-deleted items whose deletion has reached Firestore and is older than the cutoff.
+     * @return number of rows removed
+     */
+    @Query("DELETE FROM items WHERE is_deleted = 1 AND is_synced = 1 AND updated_at < :cutoff")
+    int purgeSyncedTombstones(Date cutoff);
 }
 
 
@@ -1,26 +1,40 @@
 package com.kitchenkompanion.data.local;
 
+import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * Room entity representing a pantry/fridge item.
+ * Composite indexes lead with household_id and is_deleted because every list query
+ * filters on both; the trailing expiry_day column serves the ORDER BY without a temp sort.
+ *
+ * local_id is the rowid, used for joins and writes that stay on this device; id is the
+ * UUID shared with Firestore and other devices, unique but not the primary key.
  */
 @Entity(
     tableName = "items",
     indices = {
+        @Index(value = "id", unique = true),
         @Index(value = "barcode"),
-        @Index(value = "expiry_date"),
-        @Index(value = "household_id")
+        @Index(value = {"household_id", "is_deleted", "expiry_day"}),
+        @Index(value = {"household_id", "location", "is_deleted", "expiry_day"}),
+        @Index(value = {"household_id", "is_low_stock", "is_deleted"})
     }
 )
 public class ItemEntity {
     
-    @PrimaryKey
+    // AUTOINCREMENT so a purged item's rowid is never reused by an unrelated item
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "local_id")
+    public long localId;
+    
+    @NonNull
     @ColumnInfo(name = "id")
     public String id;
     
@@ -42,6 +56,9 @@ public class ItemEntity {
     @ColumnInfo(name = "expiry_date")
     public Date expiryDate;
     
+    @ColumnInfo(name = "expiry_day")
+    public Integer expiryDay; // expiryDate as a local epoch day; see DateUtils.toEpochDay
+    
     @ColumnInfo(name = "location")
     public String location; // fridge, freezer, pantry, other
     
@@ -51,9 +68,6 @@ public class ItemEntity {
     @ColumnInfo(name = "notes")
     public String notes;
     
-    @ColumnInfo(name = "nutrition_json")
-    public String nutritionJson; // Stored as JSON string
-    
     @ColumnInfo(name = "added_by")
     public String addedBy; // User ID
     
@@ -66,6 +80,9 @@ public class ItemEntity {
     @ColumnInfo(name = "low_stock_threshold")
     public double lowStockThreshold;
     
+    @ColumnInfo(name = "is_low_stock")
+    public boolean isLowStock; // quantity <= low_stock_threshold; maintained by DatabaseTriggers
+    
     @ColumnInfo(name = "is_synced")
     public boolean isSynced;
     
@@ -76,6 +93,36 @@ public class ItemEntity {
         this.isSynced = false;
         this.isDeleted = false;
     }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ItemEntity)) return false;
+        ItemEntity other = (ItemEntity) o;
+        return Double.compare(quantity, other.quantity) == 0
+                && Double.compare(lowStockThreshold, other.lowStockThreshold) == 0
+                && isLowStock == other.isLowStock
+                && isSynced == other.isSynced
+                && isDeleted == other.isDeleted
+                && Objects.equals(id, other.id)
+                && Objects.equals(householdId, other.householdId)
+                && Objects.equals(barcode, other.barcode)
+                && Objects.equals(name, other.name)
+                && Objects.equals(unit, other.unit)
+                && Objects.equals(expiryDate, other.expiryDate)
+                && Objects.equals(expiryDay, other.expiryDay)
+                && Objects.equals(location, other.location)
+                && Objects.equals(photoUrl, other.photoUrl)
+                && Objects.equals(notes, other.notes)
+                && Objects.equals(addedBy, other.addedBy)
+                && Objects.equals(createdAt, other.createdAt)
+                && Objects.equals(updatedAt, other.updatedAt);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, quantity, unit, expiryDay, location, updatedAt, isSynced, isDeleted);
+    }
 }
 
 
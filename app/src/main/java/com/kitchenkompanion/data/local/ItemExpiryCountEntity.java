@@ -0,0 +1,30 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * Number of live items per household and expiry day, maintained by triggers in {@link DatabaseTriggers}.
+ * "Expiring" depends on today's date, so it can't be a fixed counter; summing the buckets up to
+ * a day costs one row per distinct expiry day instead of one per item.
+ */
+@Entity(
+    tableName = "item_expiry_counts",
+    primaryKeys = {"household_id", "expiry_day"}
+)
+public class ItemExpiryCountEntity {
+    
+    @NonNull
+    @ColumnInfo(name = "household_id")
+    public String householdId = "";
+    
+    @ColumnInfo(name = "expiry_day")
+    public int expiryDay;
+    
+    @ColumnInfo(name = "item_count")
+    public int itemCount;
+    
+    public ItemExpiryCountEntity() {
+    }
+}
@@ -0,0 +1,24 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * Full-text index over pantry item name, notes and barcode.
+ * External-content table: rows live in {@code items} and Room's content-sync
+ * triggers keep the index in step with every insert, update and delete.
+ */
+@Fts4(contentEntity = ItemEntity.class)
+@Entity(tableName = "items_fts")
+public class ItemFtsEntity {
+    
+    @ColumnInfo(name = "name")
+    public String name;
+    
+    @ColumnInfo(name = "notes")
+    public String notes;
+    
+    @ColumnInfo(name = "barcode")
+    public String barcode;
+}
@@ -0,0 +1,48 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * Data Access Object for item nutrition facts.
+ * Rows are keyed by the item's local_id; lookups by the item UUID go through items' unique id index.
+ */
+@Dao
+public interface ItemNutritionDao {
+    
+    @Query("SELECT item_nutrition.* FROM items JOIN item_nutrition ON item_nutrition.item_local_id = items.local_id WHERE items.id = :itemId")
+    LiveData<ItemNutritionEntity> getByItemId(String itemId);
+    
+    @Query("SELECT item_nutrition.* FROM items JOIN item_nutrition ON item_nutrition.item_local_id = items.local_id WHERE items.id = :itemId")
+    ItemNutritionEntity getByItemIdSync(String itemId);
+    
+    @Query("SELECT * FROM item_nutrition WHERE item_local_id = :itemLocalId")
+    ItemNutritionEntity getByItemLocalIdSync(long itemLocalId);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(ItemNutritionEntity nutrition);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<ItemNutritionEntity> nutrition);
+    
+    @Query("DELETE FROM item_nutrition WHERE item_local_id = :itemLocalId")
+    void deleteByItemLocalId(long itemLocalId);
+    
+    @Query("DELETE FROM item_nutrition WHERE item_local_id IN (:itemLocalIds)")
+    void deleteByItemLocalIds(List<Long> itemLocalIds);
+    
+    @Query("DELETE FROM item_nutrition WHERE item_local_id IN (SELECT local_id FROM items WHERE household_id = :householdId)")
+    void deleteAllForHousehold(String householdId);
+    
+    /**
+     * Removes nutrition rows whose item no longer exists, e.g. after tombstone compaction.
+     * @return number of rows removed
+     */
+    @Query("DELETE FROM item_nutrition WHERE item_local_id NOT IN (SELECT local_id FROM items)")
+    int deleteOrphans();
+}
@@ -0,0 +1,60 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import java.io.Serializable;
+
+/**
+ * Room entity holding nutrition facts for a pantry item, one row per item, keyed by the item's local_id.
+ * Kept out of the items table so list queries never read it; loaded only for the item detail screen.
+ * Values are per 100 g (or 100 ml). Nutrients without a typed column are kept in extraJson.
+ * Serializable so a barcode lookup can hand it to the add screen as an intent extra.
+ */
+@Entity(tableName = "item_nutrition")
+public class ItemNutritionEntity implements Serializable {
+    
+    private static final long serialVersionUID = 2L;
+    
+    @PrimaryKey
+    @ColumnInfo(name = "item_local_id")
+    public long itemLocalId; // Set when stored; 0 while a scanned item is not saved yet
+    
+    @ColumnInfo(name = "energy_kcal")
+    public Double energyKcal;
+    
+    @ColumnInfo(name = "fat")
+    public Double fat;
+    
+    @ColumnInfo(name = "saturated_fat")
+    public Double saturatedFat;
+    
+    @ColumnInfo(name = "carbohydrates")
+    public Double carbohydrates;
+    
+    @ColumnInfo(name = "sugars")
+    public Double sugars;
+    
+    @ColumnInfo(name = "fiber")
+    public Double fiber;
+    
+    @ColumnInfo(name = "proteins")
+    public Double proteins;
+    
+    @ColumnInfo(name = "salt")
+    public Double salt;
+    
+    @ColumnInfo(name = "sodium")
+    public Double sodium;
+    
+    @ColumnInfo(name = "extra_json")
+    public String extraJson; // Remaining nutrients as a JSON object, rarely read
+    
+    public boolean isEmpty() {
+        return energyKcal == null && fat == null && saturatedFat == null
+                && carbohydrates == null && sugars == null && fiber == null
+                && proteins == null && salt == null && sodium == null
+                && (extraJson == null || extraJson.isEmpty());
+    }
+}
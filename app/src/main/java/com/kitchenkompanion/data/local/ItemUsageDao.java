@@ -0,0 +1,82 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Consumption log and per-item usage rates. Callers log a use and update its rate
+ * in one transaction; see ItemRepository.update.
+ */
+@Dao
+public interface ItemUsageDao {
+    
+    @Insert
+    void insertConsumption(ItemConsumptionEntity consumption);
+    
+    @Query("SELECT * FROM item_consumption WHERE item_local_id = :itemLocalId ORDER BY seq DESC LIMIT :limit")
+    List<ItemConsumptionEntity> getRecentConsumptionSync(long itemLocalId, int limit);
+    
+    @Query("SELECT * FROM item_usage WHERE item_local_id = :itemLocalId")
+    ItemUsageEntity getByItemLocalIdSync(long itemLocalId);
+    
+    @Query("SELECT item_usage.* FROM items JOIN item_usage ON item_usage.item_local_id = items.local_id WHERE items.id = :itemId")
+    LiveData<ItemUsageEntity> getByItemId(String itemId);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(ItemUsageEntity usage);
+    
+    /**
+     * Live items whose quantity won't last the given number of days at their rate as of now.
+     * The stored rate is the one at the last use and only decays while an item sits unused,
+     * so it narrows the candidates in SQL; {@link ItemUsageEntity#rateAt} then applies the idle time.
+     */
+    default List<ItemEntity> getRunningOutSync(String householdId, int days, Date now) {
+        List<ItemEntity> runningOut = new ArrayList<>();
+        for (RunningOutCandidate candidate : getRunningOutCandidatesSync(householdId, days)) {
+            if (candidate.item.quantity < candidate.usage.rateAt(now) * days) {
+                runningOut.add(candidate.item);
+            }
+        }
+        return runningOut;
+    }
+    
+    /**
+     * Items that would run out within the given days at the rate stored at their last use.
+     * Reads one row per item with a rate; the log itself is not touched.
+     */
+    @Transaction
+    @Query("SELECT items.* FROM item_usage JOIN items ON items.local_id = item_usage.item_local_id " +
+           "WHERE item_usage.household_id = :householdId AND item_usage.rate_per_day > 0 " +
+           "AND items.is_deleted = 0 AND items.quantity < item_usage.rate_per_day * :days")
+    List<RunningOutCandidate> getRunningOutCandidatesSync(String householdId, int days);
+    
+    /**
+     * Drops log rows older than the cutoff; rates already hold what they contributed.
+     * @return number of rows removed
+     */
+    @Query("DELETE FROM item_consumption WHERE consumed_at < :cutoff")
+    int pruneConsumption(Date cutoff);
+    
+    /**
+     * Removes log and rate rows whose item no longer exists, e.g. after tombstone compaction.
+     */
+    @Query("DELETE FROM item_consumption WHERE item_local_id NOT IN (SELECT local_id FROM items)")
+    int deleteConsumptionOrphans();
+    
+    @Query("DELETE FROM item_usage WHERE item_local_id NOT IN (SELECT local_id FROM items)")
+    int deleteUsageOrphans();
+    
+    @Query("DELETE FROM item_consumption WHERE item_local_id IN (SELECT local_id FROM items WHERE household_id = :householdId)")
+    void deleteConsumptionForHousehold(String householdId);
+    
+    @Query("DELETE FROM item_usage WHERE household_id = :householdId")
+    void deleteUsageForHousehold(String householdId);
+}
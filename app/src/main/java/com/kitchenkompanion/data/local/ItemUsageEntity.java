@@ -0,0 +1,108 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.util.Date;
+
+/**
+ * Running usage rate of one pantry item, updated in constant time by {@link #record}
+ * whenever a use is logged to item_consumption.
+ *
+ * The rate is an exponentially weighted average over time: every use and every day
+ * observed is weighted by e^(-age / DECAY_DAYS), so recent habits count most and the
+ * history never has to be re-read. Dividing the weighted amount by the weighted time
+ * keeps the first estimates unbiased instead of ramping up from zero.
+ */
+@Entity(
+    tableName = "item_usage",
+    indices = {
+        @Index(value = {"household_id"})
+    }
+)
+public class ItemUsageEntity {
+    
+    /** A use this many days old weighs 1/e of a use today. */
+    static final double DECAY_DAYS = 14;
+    /** Uses minutes apart are averaged over at least this long, not read as a huge daily rate. */
+    static final double MIN_WINDOW_DAYS = 1;
+    
+    private static final double DAY_MS = 86_400_000d;
+    
+    @PrimaryKey
+    @ColumnInfo(name = "item_local_id")
+    public long itemLocalId;
+    
+    @ColumnInfo(name = "household_id")
+    public String householdId;
+    
+    @ColumnInfo(name = "decayed_amount")
+    public double decayedAmount; // Weighted sum of amounts used
+    
+    @ColumnInfo(name = "decayed_days")
+    public double decayedDays; // Weighted time observed
+    
+    @ColumnInfo(name = "rate_per_day")
+    public double ratePerDay; // decayedAmount / decayedDays at lastUsedAt, stored so forecasts can be narrowed in SQL
+    
+    @ColumnInfo(name = "last_used_at")
+    public Date lastUsedAt;
+    
+    @ColumnInfo(name = "use_count")
+    public int useCount;
+    
+    public ItemUsageEntity() {
+    }
+    
+    public ItemUsageEntity(ItemEntity item) {
+        this.itemLocalId = item.localId;
+        this.householdId = item.householdId;
+    }
+    
+    /**
+     * Folds one use into the rate.
+     *
+     * @param observedSince start of the first interval, when the quantity before this use was set;
+     *                      later uses measure from the previous use
+     */
+    public void record(double amount, Date at, Date observedSince) {
+        double decay = decayBetween(lastUsedAt != null ? lastUsedAt : observedSince, at);
+        decayedAmount = decayedAmount * decay + amount;
+        decayedDays = decayedDays * decay + DECAY_DAYS * (1 - decay);
+        ratePerDay = decayedAmount / Math.max(decayedDays, MIN_WINDOW_DAYS);
+        lastUsedAt = at;
+        useCount++;
+    }
+    
+    /**
+     * The rate as of now. The days since the last use are folded in the way {@link #record}
+     * folds them for a use of amount 0, so an item that stopped being used stops looking
+     * like it runs out. Never above {@link #ratePerDay}.
+     */
+    public double rateAt(Date now) {
+        if (lastUsedAt == null) {
+            return ratePerDay;
+        }
+        double decay = decayBetween(lastUsedAt, now);
+        double days = decayedDays * decay + DECAY_DAYS * (1 - decay);
+        return decayedAmount * decay / Math.max(days, MIN_WINDOW_DAYS);
+    }
+    
+    /**
+     * Whole days until the quantity is used up at the rate as of now, or null while there is no rate.
+     */
+    public Integer daysUntilEmpty(double quantity, Date now) {
+        double rate = rateAt(now);
+        if (rate <= 0) {
+            return null;
+        }
+        return (int) Math.floor(Math.max(0, quantity) / rate);
+    }
+    
+    private static double decayBetween(Date from, Date to) {
+        double elapsedDays = from != null ? Math.max(0, (to.getTime() - from.getTime()) / DAY_MS) : 0;
+        return Math.exp(-elapsedDays / DECAY_DAYS);
+    }
+}
@@ -0,0 +1,430 @@
+package com.kitchenkompanion.data.local;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.kitchenkompanion.features.barcode.NutrimentsParser;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Schema migrations for {@link AppDatabase}.
+ *
+ * Every step keeps local rows in place so an app update never forces a full
+ * re-pull from Firestore. Statements mirror the SQL Room generates for the
+ * entities at each version; the exported schemas under app/schemas are the reference.
+ *
+ * Bulk backfills drop the items_fts content-sync triggers first: the FTS columns
+ * don't change, and firing a delete + insert into the index per row would dominate
+ * the upgrade time on large pantries.
+ */
+final class Migrations {
+    
+    private static final String TAG = "Migrations";
+    
+    private Migrations() {
+    }
+    
+    /**
+     * Version 1 -> 2: full-text index over item name, notes and barcode.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `items_fts` USING FTS4(" +
+                    "`name` TEXT, `notes` TEXT, `barcode` TEXT, content=`items`)");
+            createFtsTriggers(db);
+            db.execSQL("INSERT INTO `items_fts`(`items_fts`) VALUES('rebuild')");
+        }
+    };
+    
+    /**
+     * Version 2 -> 3: sync outbox. Rows still waiting for sync are queued so nothing
+     * unsynced is lost when the worker stops scanning is_synced.
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sync_ops` (" +
+                    "`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `household_id` TEXT, " +
+                    "`entity_type` TEXT, `entity_id` TEXT, `op_type` TEXT, `created_at` INTEGER)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sync_ops_household_id_seq` " +
+                    "ON `sync_ops` (`household_id`, `seq`)");
+            
+            db.execSQL("INSERT INTO `sync_ops` (`household_id`, `entity_type`, `entity_id`, `op_type`, `created_at`) " +
+                    "SELECT `household_id`, '" + SyncOpEntity.TYPE_ITEM + "', `id`, " +
+                    "CASE WHEN `is_deleted` = 1 THEN '" + SyncOpEntity.OP_DELETE + "' ELSE '" + SyncOpEntity.OP_UPSERT + "' END, " +
+                    "`updated_at` FROM `items` WHERE `is_synced` = 0 ORDER BY `updated_at`");
+            db.execSQL("INSERT INTO `sync_ops` (`household_id`, `entity_type`, `entity_id`, `op_type`, `created_at`) " +
+                    "SELECT `household_id`, '" + SyncOpEntity.TYPE_GROCERY_ENTRY + "', `id`, " +
+                    "CASE WHEN `is_deleted` = 1 THEN '" + SyncOpEntity.OP_DELETE + "' ELSE '" + SyncOpEntity.OP_UPSERT + "' END, " +
+                    "`updated_at` FROM `grocery_entries` WHERE `is_synced` = 0 ORDER BY `updated_at`");
+        }
+    };
+    
+    /**
+     * Version 3 -> 4: nutrition JSON moves to the typed item_nutrition table and
+     * items is rebuilt without nutrition_json. Rowids are copied so items_fts stays valid.
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_nutrition` (" +
+                    "`item_id` TEXT NOT NULL, `energy_kcal` REAL, `fat` REAL, `saturated_fat` REAL, " +
+                    "`carbohydrates` REAL, `sugars` REAL, `fiber` REAL, `proteins` REAL, `salt` REAL, " +
+                    "`sodium` REAL, `extra_json` TEXT, PRIMARY KEY(`item_id`))");
+            copyNutrition(db);
+            
+            db.execSQL("CREATE TABLE IF NOT EXISTS `items_new` (" +
+                    "`id` TEXT NOT NULL, `household_id` TEXT, `barcode` TEXT, `name` TEXT, " +
+                    "`quantity` REAL NOT NULL, `unit` TEXT, `expiry_date` INTEGER, `location` TEXT, " +
+                    "`photo_url` TEXT, `notes` TEXT, `added_by` TEXT, `created_at` INTEGER, " +
+                    "`updated_at` INTEGER, `low_stock_threshold` REAL NOT NULL, " +
+                    "`is_synced` INTEGER NOT NULL, `is_deleted` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            db.execSQL("INSERT INTO `items_new` (`rowid`, `id`, `household_id`, `barcode`, `name`, " +
+                    "`quantity`, `unit`, `expiry_date`, `location`, `photo_url`, `notes`, `added_by`, " +
+                    "`created_at`, `updated_at`, `low_stock_threshold`, `is_synced`, `is_deleted`) " +
+                    "SELECT `rowid`, `id`, `household_id`, `barcode`, `name`, `quantity`, `unit`, " +
+                    "`expiry_date`, `location`, `photo_url`, `notes`, `added_by`, `created_at`, " +
+                    "`updated_at`, `low_stock_threshold`, `is_synced`, `is_deleted` FROM `items`");
+            // Dropping items also drops its indexes; the FTS index keeps its rowid-keyed entries
+            dropFtsTriggers(db);
+            db.execSQL("DROP TABLE `items`");
+            db.execSQL("ALTER TABLE `items_new` RENAME TO `items`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_barcode` ON `items` (`barcode`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_expiry_date` ON `items` (`expiry_date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_household_id` ON `items` (`household_id`)");
+            createFtsTriggers(db);
+        }
+    };
+    
+    /**
+     * Version 4 -> 5: composite list indexes and the is_low_stock flag.
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            dropFtsTriggers(db);
+            db.execSQL("ALTER TABLE `items` ADD COLUMN `is_low_stock` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `items` SET `is_low_stock` = 1 WHERE `quantity` <= `low_stock_threshold`");
+            createFtsTriggers(db);
+            
+            db.execSQL("DROP INDEX IF EXISTS `index_items_expiry_date`");
+            db.execSQL("DROP INDEX IF EXISTS `index_items_household_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_household_id_is_deleted_expiry_date` " +
+                    "ON `items` (`household_id`, `is_deleted`, `expiry_date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_household_id_location_is_deleted_expiry_date` " +
+                    "ON `items` (`household_id`, `location`, `is_deleted`, `expiry_date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_household_id_is_low_stock_is_deleted` " +
+                    "ON `items` (`household_id`, `is_low_stock`, `is_deleted`)");
+            
+            db.execSQL("DROP INDEX IF EXISTS `index_grocery_entries_household_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_grocery_entries_household_id_is_deleted_is_checked_created_at` " +
+                    "ON `grocery_entries` (`household_id` ASC, `is_deleted` ASC, `is_checked` ASC, `created_at` DESC)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_grocery_entries_household_id_name` " +
+                    "ON `grocery_entries` (`household_id`, `name`)");
+            
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_recipe_cache_cached_at` ON `recipe_cache` (`cached_at`)");
+        }
+    };
+    
+    /**
+     * Version 5 -> 6: integer expiry_day, backfilled in the device time zone to match DateUtils.toEpochDay.
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            dropFtsTriggers(db);
+            db.execSQL("ALTER TABLE `items` ADD COLUMN `expiry_day` INTEGER");
+            db.execSQL("UPDATE `items` SET `expiry_day` = " +
+                    "CAST(strftime('%s', `expiry_date` / 1000, 'unixepoch', 'localtime') AS INTEGER) / 86400 " +
+                    "WHERE `expiry_date` IS NOT NULL");
+            createFtsTriggers(db);
+            
+            db.execSQL("DROP INDEX IF EXISTS `index_items_household_id_is_deleted_expiry_date`");
+            db.execSQL("DROP INDEX IF EXISTS `index_items_household_id_location_is_deleted_expiry_date`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_household_id_is_deleted_expiry_day` " +
+                    "ON `items` (`household_id`, `is_deleted`, `expiry_day`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_household_id_location_is_deleted_expiry_day` " +
+                    "ON `items` (`household_id`, `location`, `is_deleted`, `expiry_day`)");
+        }
+    };
+    
+    /**
+     * Version 6 -> 7: product, ingredient dictionary and recipe ingredient tables.
+     * Only fresh installs get them prefilled from the seed asset; upgraded installs start empty.
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `products` (" +
+                    "`barcode` TEXT NOT NULL, `name` TEXT, `brand` TEXT, `quantity` TEXT, `image_url` TEXT, " +
+                    "`energy_kcal` REAL, `fat` REAL, `saturated_fat` REAL, `carbohydrates` REAL, " +
+                    "`sugars` REAL, `fiber` REAL, `proteins` REAL, `salt` REAL, PRIMARY KEY(`barcode`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `ingredients` (" +
+                    "`alias` TEXT NOT NULL, `name` TEXT NOT NULL, PRIMARY KEY(`alias`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `recipe_ingredients` (" +
+                    "`ingredient` TEXT NOT NULL, `recipe_id` TEXT NOT NULL, PRIMARY KEY(`ingredient`, `recipe_id`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_recipe_ingredients_recipe_id` " +
+                    "ON `recipe_ingredients` (`recipe_id`)");
+        }
+    };
+    
+    /**
+     * Version 7 -> 8: trigger-maintained household counters, filled from the existing rows.
+     * The triggers themselves are installed on open by {@link DatabaseTriggers}.
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `household_stats` (" +
+                    "`household_id` TEXT NOT NULL, `item_count` INTEGER NOT NULL, `low_stock_count` INTEGER NOT NULL, " +
+                    "`unchecked_grocery_count` INTEGER NOT NULL, PRIMARY KEY(`household_id`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_expiry_counts` (" +
+                    "`household_id` TEXT NOT NULL, `expiry_day` INTEGER NOT NULL, `item_count` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`household_id`, `expiry_day`))");
+            DatabaseTriggers.rebuildHouseholdStats(db);
+        }
+    };
+    
+    /**
+     * Version 8 -> 9: items, grocery_entries and households get an integer local_id primary key,
+     * with the UUID kept as a unique column for Firestore. local_id takes each row's old rowid,
+     * so items_fts stays valid. item_nutrition is re-keyed by the item's local_id.
+     */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `items_new` (" +
+                    "`local_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `id` TEXT NOT NULL, " +
+                    "`household_id` TEXT, `barcode` TEXT, `name` TEXT, `quantity` REAL NOT NULL, `unit` TEXT, " +
+                    "`expiry_date` INTEGER, `location` TEXT, `photo_url` TEXT, `notes` TEXT, `added_by` TEXT, " +
+                    "`created_at` INTEGER, `updated_at` INTEGER, `low_stock_threshold` REAL NOT NULL, " +
+                    "`is_low_stock` INTEGER NOT NULL, `is_synced` INTEGER NOT NULL, `is_deleted` INTEGER NOT NULL, " +
+                    "`expiry_day` INTEGER)");
+            db.execSQL("INSERT INTO `items_new` (`local_id`, `id`, `household_id`, `barcode`, `name`, " +
+                    "`quantity`, `unit`, `expiry_date`, `location`, `photo_url`, `notes`, `added_by`, " +
+                    "`created_at`, `updated_at`, `low_stock_threshold`, `is_low_stock`, `is_synced`, " +
+                    "`is_deleted`, `expiry_day`) " +
+                    "SELECT `rowid`, `id`, `household_id`, `barcode`, `name`, `quantity`, `unit`, " +
+                    "`expiry_date`, `location`, `photo_url`, `notes`, `added_by`, `created_at`, `updated_at`, " +
+                    "`low_stock_threshold`, `is_low_stock`, `is_synced`, `is_deleted`, `expiry_day` FROM `items`");
+            
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_nutrition_new` (" +
+                    "`item_local_id` INTEGER NOT NULL, `energy_kcal` REAL, `fat` REAL, `saturated_fat` REAL, " +
+                    "`carbohydrates` REAL, `sugars` REAL, `fiber` REAL, `proteins` REAL, `salt` REAL, " +
+                    "`sodium` REAL, `extra_json` TEXT, PRIMARY KEY(`item_local_id`))");
+            // Orphaned nutrition rows have no item to point at and are left behind
+            db.execSQL("INSERT INTO `item_nutrition_new` (`item_local_id`, `energy_kcal`, `fat`, " +
+                    "`saturated_fat`, `carbohydrates`, `sugars`, `fiber`, `proteins`, `salt`, `sodium`, `extra_json`) " +
+                    "SELECT `items_new`.`local_id`, `energy_kcal`, `fat`, `saturated_fat`, `carbohydrates`, " +
+                    "`sugars`, `fiber`, `proteins`, `salt`, `sodium`, `extra_json` " +
+                    "FROM `item_nutrition` JOIN `items_new` ON `items_new`.`id` = `item_nutrition`.`item_id`");
+            
+            // Dropping items also drops its indexes and triggers; the FTS index keeps its rowid-keyed entries
+            dropFtsTriggers(db);
+            db.execSQL("DROP TABLE `item_nutrition`");
+            db.execSQL("ALTER TABLE `item_nutrition_new` RENAME TO `item_nutrition`");
+            db.execSQL("DROP TABLE `items`");
+            db.execSQL("ALTER TABLE `items_new` RENAME TO `items`");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_items_id` ON `items` (`id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_barcode` ON `items` (`barcode`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_household_id_is_deleted_expiry_day` " +
+                    "ON `items` (`household_id`, `is_deleted`, `expiry_day`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_household_id_location_is_deleted_expiry_day` " +
+                    "ON `items` (`household_id`, `location`, `is_deleted`, `expiry_day`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_items_household_id_is_low_stock_is_deleted` " +
+                    "ON `items` (`household_id`, `is_low_stock`, `is_deleted`)");
+            createFtsTriggers(db);
+            
+            db.execSQL("CREATE TABLE IF NOT EXISTS `grocery_entries_new` (" +
+                    "`local_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `id` TEXT NOT NULL, " +
+                    "`household_id` TEXT, `list_id` TEXT, `item_ref` TEXT, `name` TEXT, `quantity` REAL NOT NULL, " +
+                    "`unit` TEXT, `source` TEXT, `is_checked` INTEGER NOT NULL, `created_at` INTEGER, " +
+                    "`updated_at` INTEGER, `is_synced` INTEGER NOT NULL, `is_deleted` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO `grocery_entries_new` (`local_id`, `id`, `household_id`, `list_id`, " +
+                    "`item_ref`, `name`, `quantity`, `unit`, `source`, `is_checked`, `created_at`, `updated_at`, " +
+                    "`is_synced`, `is_deleted`) " +
+                    "SELECT `rowid`, `id`, `household_id`, `list_id`, `item_ref`, `name`, `quantity`, `unit`, " +
+                    "`source`, `is_checked`, `created_at`, `updated_at`, `is_synced`, `is_deleted` FROM `grocery_entries`");
+            db.execSQL("DROP TABLE `grocery_entries`");
+            db.execSQL("ALTER TABLE `grocery_entries_new` RENAME TO `grocery_entries`");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_grocery_entries_id` ON `grocery_entries` (`id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_grocery_entries_list_id` ON `grocery_entries` (`list_id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_grocery_entries_household_id_is_deleted_is_checked_created_at` " +
+                    "ON `grocery_entries` (`household_id` ASC, `is_deleted` ASC, `is_checked` ASC, `created_at` DESC)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_grocery_entries_household_id_name` " +
+                    "ON `grocery_entries` (`household_id`, `name`)");
+            
+            db.execSQL("CREATE TABLE IF NOT EXISTS `households_new` (" +
+                    "`local_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `id` TEXT NOT NULL, `name` TEXT, " +
+                    "`owner_id` TEXT, `members_json` TEXT, `created_at` INTEGER, `updated_at` INTEGER, " +
+                    "`is_synced` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO `households_new` (`local_id`, `id`, `name`, `owner_id`, `members_json`, " +
+                    "`created_at`, `updated_at`, `is_synced`) " +
+                    "SELECT `rowid`, `id`, `name`, `owner_id`, `members_json`, `created_at`, `updated_at`, " +
+                    "`is_synced` FROM `households`");
+            db.execSQL("DROP TABLE `households`");
+            db.execSQL("ALTER TABLE `households_new` RENAME TO `households`");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_households_id` ON `households` (`id`)");
+        }
+    };
+    
+    /**
+     * Version 9 -> 10: recipe_cache stores the recipe JSON deflated in recipe_payload instead of recipe_json.
+     */
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `recipe_cache_new` (`id` TEXT NOT NULL, `title` TEXT, " +
+                    "`image_url` TEXT, `source` TEXT, `recipe_payload` BLOB, `servings` INTEGER NOT NULL, " +
+                    "`ready_in_minutes` INTEGER NOT NULL, `cached_at` INTEGER, PRIMARY KEY(`id`))");
+            db.execSQL("INSERT INTO `recipe_cache_new` (`id`, `title`, `image_url`, `source`, `servings`, " +
+                    "`ready_in_minutes`, `cached_at`) SELECT `id`, `title`, `image_url`, `source`, `servings`, " +
+                    "`ready_in_minutes`, `cached_at` FROM `recipe_cache`");
+            compressRecipes(db);
+            db.execSQL("DROP TABLE `recipe_cache`");
+            db.execSQL("ALTER TABLE `recipe_cache_new` RENAME TO `recipe_cache`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_recipe_cache_cached_at` ON `recipe_cache` (`cached_at`)");
+        }
+    };
+    
+    /**
+     * Version 10 -> 11: consumption log (item_consumption) and running usage rates (item_usage).
+     * Both start empty; rates build up as quantities are lowered after the upgrade.
+     */
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_consumption` (" +
+                    "`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `item_local_id` INTEGER NOT NULL, " +
+                    "`household_id` TEXT, `amount` REAL NOT NULL, `remaining` REAL NOT NULL, `consumed_at` INTEGER)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_consumption_item_local_id_seq` " +
+                    "ON `item_consumption` (`item_local_id`, `seq`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_usage` (" +
+                    "`item_local_id` INTEGER NOT NULL, `household_id` TEXT, `decayed_amount` REAL NOT NULL, " +
+                    "`decayed_days` REAL NOT NULL, `rate_per_day` REAL NOT NULL, `last_used_at` INTEGER, " +
+                    "`use_count` INTEGER NOT NULL, PRIMARY KEY(`item_local_id`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_usage_household_id` ON `item_usage` (`household_id`)");
+        }
+    };
+    
+    /**
+     * Version 11 -> 12: per-collection pull watermarks (sync_watermarks). Starting empty makes
+     * the first sync after the upgrade a full pull, which sets them.
+     */
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sync_watermarks` (`household_id` TEXT NOT NULL, " +
+                    "`collection` TEXT NOT NULL, `server_updated_micros` INTEGER, `document_id` TEXT, " +
+                    "PRIMARY KEY(`household_id`, `collection`))");
+        }
+    };
+    
+    static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+            MIGRATION_11_12
+    };
+    
+    /**
+     * Parses each legacy nutrition_json blob once into typed item_nutrition columns.
+     */
+    private static void copyNutrition(SupportSQLiteDatabase db) {
+        int copied = 0;
+        try (Cursor cursor = db.query("SELECT `id`, `nutrition_json` FROM `items` " +
+                "WHERE `nutrition_json` IS NOT NULL AND `nutrition_json` != ''")) {
+            while (cursor.moveToNext()) {
+                String itemId = cursor.getString(0);
+                ItemNutritionEntity nutrition;
+                try {
+                    JsonElement json = JsonParser.parseString(cursor.getString(1));
+                    if (!json.isJsonObject()) continue;
+                    nutrition = NutrimentsParser.parse(json.getAsJsonObject());
+                } catch (JsonParseException e) {
+                    Log.w(TAG, "Dropping unreadable nutrition for item " + itemId);
+                    continue;
+                }
+                if (nutrition.isEmpty()) continue;
+                
+                ContentValues values = new ContentValues();
+                values.put("item_id", itemId);
+                values.put("energy_kcal", nutrition.energyKcal);
+                values.put("fat", nutrition.fat);
+                values.put("saturated_fat", nutrition.saturatedFat);
+                values.put("carbohydrates", nutrition.carbohydrates);
+                values.put("sugars", nutrition.sugars);
+                values.put("fiber", nutrition.fiber);
+                values.put("proteins", nutrition.proteins);
+                values.put("salt", nutrition.salt);
+                values.put("sodium", nutrition.sodium);
+                values.put("extra_json", nutrition.extraJson);
+                db.insert("item_nutrition", SQLiteDatabase.CONFLICT_REPLACE, values);
+                copied++;
+            }
+        }
+        Log.i(TAG, "Moved nutrition for " + copied + " items");
+    }
+    
+    /**
+     * Deflates each cached recipe_json into recipe_cache_new.recipe_payload.
+     */
+    private static void compressRecipes(SupportSQLiteDatabase db) {
+        long jsonBytes = 0;
+        long payloadBytes = 0;
+        try (Cursor cursor = db.query("SELECT `id`, `recipe_json` FROM `recipe_cache` WHERE `recipe_json` IS NOT NULL")) {
+            while (cursor.moveToNext()) {
+                String json = cursor.getString(1);
+                byte[] payload = RecipePayloadCodec.encode(json);
+                ContentValues values = new ContentValues();
+                values.put("recipe_payload", payload);
+                db.update("recipe_cache_new", SQLiteDatabase.CONFLICT_NONE, values, "`id` = ?",
+                        new Object[]{cursor.getString(0)});
+                jsonBytes += json.getBytes(StandardCharsets.UTF_8).length;
+                payloadBytes += payload.length;
+            }
+        }
+        Log.i(TAG, "Compressed cached recipes from " + jsonBytes + " to " + payloadBytes + " bytes");
+    }
+    
+    /**
+     * Same triggers Room creates for {@link ItemFtsEntity}'s external content table.
+     */
+    private static void createFtsTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_items_fts_BEFORE_UPDATE " +
+                "BEFORE UPDATE ON `items` BEGIN DELETE FROM `items_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_items_fts_BEFORE_DELETE " +
+                "BEFORE DELETE ON `items` BEGIN DELETE FROM `items_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_items_fts_AFTER_UPDATE " +
+                "AFTER UPDATE ON `items` BEGIN INSERT INTO `items_fts`(`docid`, `name`, `notes`, `barcode`) " +
+                "VALUES (NEW.`rowid`, NEW.`name`, NEW.`notes`, NEW.`barcode`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_items_fts_AFTER_INSERT " +
+                "AFTER INSERT ON `items` BEGIN INSERT INTO `items_fts`(`docid`, `name`, `notes`, `barcode`) " +
+                "VALUES (NEW.`rowid`, NEW.`name`, NEW.`notes`, NEW.`barcode`); END");
+    }
+    
+    private static void dropFtsTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_items_fts_BEFORE_UPDATE");
+        db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_items_fts_BEFORE_DELETE");
+        db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_items_fts_AFTER_UPDATE");
+        db.execSQL("DROP TRIGGER IF EXISTS room_fts_content_sync_items_fts_AFTER_INSERT");
+    }
+}
@@ -0,0 +1,58 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.ColumnInfo;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Slim projection of {@link ItemEntity} for the pantry list.
+ * Carries only what a list row renders, so notes and other detail columns stay out of the
+ * CursorWindow and off the heap. Load the full entity only for the edit screen.
+ */
+public class PantryRow {
+    
+    @ColumnInfo(name = "id")
+    public String id;
+    
+    @ColumnInfo(name = "name")
+    public String name;
+    
+    @ColumnInfo(name = "quantity")
+    public double quantity;
+    
+    @ColumnInfo(name = "unit")
+    public String unit;
+    
+    @ColumnInfo(name = "location")
+    public String location;
+    
+    @ColumnInfo(name = "expiry_date")
+    public Date expiryDate;
+    
+    @ColumnInfo(name = "expiry_day")
+    public Integer expiryDay;
+    
+    @ColumnInfo(name = "photo_url")
+    public String photoUrl;
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PantryRow)) return false;
+        PantryRow other = (PantryRow) o;
+        return Double.compare(quantity, other.quantity) == 0
+                && Objects.equals(id, other.id)
+                && Objects.equals(name, other.name)
+                && Objects.equals(unit, other.unit)
+                && Objects.equals(location, other.location)
+                && Objects.equals(expiryDate, other.expiryDate)
+                && Objects.equals(expiryDay, other.expiryDay)
+                && Objects.equals(photoUrl, other.photoUrl);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, quantity, unit, location, expiryDate, expiryDay, photoUrl);
+    }
+}
@@ -0,0 +1,19 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+/**
+ * DAO for barcode product data.
+ */
+@Dao
+public interface ProductDao {
+    
+    @Query("SELECT * FROM products WHERE barcode = :barcode")
+    ProductEntity getByBarcode(String barcode);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(ProductEntity product);
+}
@@ -0,0 +1,59 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room entity for product data keyed by barcode.
+ * Shipped in the prepackaged seed database with common staples so scans of those
+ * products resolve offline; nutrition values are per 100 g (or 100 ml) like item_nutrition.
+ */
+@Entity(tableName = "products")
+public class ProductEntity {
+    
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "barcode")
+    public String barcode = "";
+    
+    @ColumnInfo(name = "name")
+    public String name;
+    
+    @ColumnInfo(name = "brand")
+    public String brand;
+    
+    @ColumnInfo(name = "quantity")
+    public String quantity; // Package size as printed, e.g. "500 g"
+    
+    @ColumnInfo(name = "image_url")
+    public String imageUrl;
+    
+    @ColumnInfo(name = "energy_kcal")
+    public Double energyKcal;
+    
+    @ColumnInfo(name = "fat")
+    public Double fat;
+    
+    @ColumnInfo(name = "saturated_fat")
+    public Double saturatedFat;
+    
+    @ColumnInfo(name = "carbohydrates")
+    public Double carbohydrates;
+    
+    @ColumnInfo(name = "sugars")
+    public Double sugars;
+    
+    @ColumnInfo(name = "fiber")
+    public Double fiber;
+    
+    @ColumnInfo(name = "proteins")
+    public Double proteins;
+    
+    @ColumnInfo(name = "salt")
+    public Double salt;
+    
+    public ProductEntity() {
+    }
+}
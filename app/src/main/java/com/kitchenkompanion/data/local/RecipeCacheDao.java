@@ -26,10 +26,21 @@ public interface RecipeCacheDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<RecipeCacheEntity> recipes);
     
-    @Query("DELETE FROM recipe_cache WHERE cached_at < :expiryDate")
-    void deleteOldCache(Date expiryDate);
+    /**
+     * Recipes using any of the given canonical ingredients, best coverage first.
+     */
+    @Query("SELECT recipe_cache.*, COUNT(*) AS used_count, " +
+           "(SELECT COUNT(*) FROM recipe_ingredients AS all_ri WHERE all_ri.recipe_id = recipe_cache.id) - COUNT(*) AS missed_count " +
+           "FROM recipe_ingredients JOIN recipe_cache ON recipe_cache.id = recipe_ingredients.recipe_id " +
+           "WHERE recipe_ingredients.ingredient IN (:ingredients) " +
+           "GROUP BY recipe_cache.id ORDER BY used_count DESC, missed_count ASC LIMIT :limit")
+    List<RecipeMatch> findByIngredients(List<String> ingredients, int limit);
     
-    @Query("DELETE FROM recipe_cache")
+    @Query("DELETE FROM recipe_cache WHERE cached_at < :expiryDate AND (source IS NULL OR source != 'seed')")
+    int deleteOldCache(Date expiryDate);
+    
+    // Seed recipes stay; they are the offline fallback
+    @Query("DELETE FROM recipe_cache WHERE source IS NULL OR source != 'seed'")
     void clearCache();
 }
 
@@ -1,7 +1,9 @@
 package com.kitchenkompanion.data.local;
 
+import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.util.Date;
@@ -9,10 +11,19 @@ import java.util.Date;
 /**
  * Room entity for caching recipe data from external APIs.
  */
-@Entity(tableName = "recipe_cache")
+@Entity(
+    tableName = "recipe_cache",
+    indices = {
+        @Index(value = "cached_at")
+    }
+)
 public class RecipeCacheEntity {
     
+    // Starter recipes shipped in the seed database; never expire
+    public static final String SOURCE_SEED = "seed";
+    
     @PrimaryKey
+    @NonNull
     @ColumnInfo(name = "id")
     public String id;
     
@@ -23,10 +34,10 @@ public class RecipeCacheEntity {
     public String imageUrl;
     
     @ColumnInfo(name = "source")
-    public String source; // spoonacular, edamam, etc.
+    public String source; // spoonacular, edamam, seed, etc.
     
-    @ColumnInfo(name = "recipe_json")
-    public String recipeJson; // Full recipe data as JSON
+    @ColumnInfo(name = "recipe_payload")
+    public byte[] recipePayload; // Full recipe JSON, encoded by RecipePayloadCodec
     
     @ColumnInfo(name = "servings")
     public int servings;
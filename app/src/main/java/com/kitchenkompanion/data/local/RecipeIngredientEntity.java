@@ -0,0 +1,31 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * Canonical ingredient used by a cached recipe.
+ * The primary key leads with the ingredient so "recipes using any of these" is an index lookup.
+ */
+@Entity(
+    tableName = "recipe_ingredients",
+    primaryKeys = {"ingredient", "recipe_id"},
+    indices = {
+        @Index(value = "recipe_id")
+    }
+)
+public class RecipeIngredientEntity {
+    
+    @NonNull
+    @ColumnInfo(name = "ingredient")
+    public String ingredient = "";
+    
+    @NonNull
+    @ColumnInfo(name = "recipe_id")
+    public String recipeId = "";
+    
+    public RecipeIngredientEntity() {
+    }
+}
@@ -0,0 +1,19 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Embedded;
+
+/**
+ * A cached recipe with how many of the requested ingredients it uses and how many it still needs.
+ */
+public class RecipeMatch {
+    
+    @Embedded
+    public RecipeCacheEntity recipe;
+    
+    @ColumnInfo(name = "used_count")
+    public int usedCount;
+    
+    @ColumnInfo(name = "missed_count")
+    public int missedCount;
+}
@@ -0,0 +1,92 @@
+package com.kitchenkompanion.data.local;
+
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encoding of {@link RecipeCacheEntity#recipePayload}: the recipe JSON, deflated.
+ *
+ * Recipe details repeat the same keys for every ingredient, step and nutrient, so they
+ * shrink several times. Payloads that don't start with a zlib header are read as plain
+ * UTF-8 JSON; the seed recipes are stored that way because the seed database is built
+ * from plain SQL, which can't deflate.
+ */
+public final class RecipePayloadCodec {
+    
+    private static final String TAG = "RecipePayloadCodec";
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    private RecipePayloadCodec() {
+    }
+    
+    public static byte[] encode(String json) {
+        if (json == null) {
+            return null;
+        }
+        byte[] input = json.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 4 + 64);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+    
+    /**
+     * Recipe JSON of a payload, or null if it is missing or corrupt; callers treat that as a cache miss.
+     */
+    public static String decode(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            return null;
+        }
+        if (!isDeflated(payload)) {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    Log.w(TAG, "Truncated recipe payload of " + payload.length + " bytes");
+                    return null;
+                }
+                out.write(buffer, 0, length);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            Log.w(TAG, "Unreadable recipe payload of " + payload.length + " bytes", e);
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    /**
+     * zlib header check from RFC 1950: deflate method and a header checksum divisible by 31.
+     * JSON text starts with '{' or '[', which never passes it.
+     */
+    private static boolean isDeflated(byte[] payload) {
+        if (payload.length < 2) {
+            return false;
+        }
+        int cmf = payload[0] & 0xFF;
+        int flg = payload[1] & 0xFF;
+        return (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+    }
+}
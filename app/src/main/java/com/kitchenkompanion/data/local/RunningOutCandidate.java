@@ -0,0 +1,17 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+/**
+ * A live item with its usage row, for checking its rate as of now; see
+ * {@link ItemUsageDao#getRunningOutSync}.
+ */
+public class RunningOutCandidate {
+    
+    @Embedded
+    public ItemEntity item;
+    
+    @Relation(parentColumn = "local_id", entityColumn = "item_local_id")
+    public ItemUsageEntity usage;
+}
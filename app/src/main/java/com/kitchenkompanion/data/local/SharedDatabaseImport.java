@@ -0,0 +1,166 @@
+package com.kitchenkompanion.data.local;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Moves a household's rows out of the shared database into its own database file.
+ *
+ * Runs each time the household database opens and is a no-op once the shared file holds
+ * nothing for the household, so installs that used shared storage keep their unsynced
+ * changes when per-household storage is switched on. Rows are copied by column name,
+ * since migrated tables can have a different column order than freshly created ones.
+ * local_id is left for the household file to assign, and nutrition rows are re-pointed
+ * at the new local_id through the item UUID.
+ */
+final class SharedDatabaseImport extends RoomDatabase.Callback {
+    
+    private static final String TAG = "SharedDatabaseImport";
+    
+    // Copy order; deletion from the shared file runs in reverse
+    private static final String[][] TABLES = {
+            {"households", "id = ?"},
+            {"items", "household_id = ?"},
+            {"item_nutrition", "item_local_id IN (SELECT local_id FROM items WHERE household_id = ?)"},
+            {"grocery_entries", "household_id = ?"},
+            {"sync_ops", "household_id = ?"}
+    };
+    
+    private static final String LOCAL_ID = "local_id";
+    private static final String NUTRITION_ITEM_LOCAL_ID = "item_local_id";
+    
+    // Nutrition rows with the UUID of their item, which is what survives the copy
+    private static final String NUTRITION_WITH_ITEM_ID = "SELECT items.id AS item_uuid, item_nutrition.* " +
+            "FROM items JOIN item_nutrition ON item_nutrition.item_local_id = items.local_id " +
+            "WHERE items.household_id = ?";
+    
+    private final Context context;
+    private final String householdId;
+    
+    SharedDatabaseImport(Context context, String householdId) {
+        this.context = context;
+        this.householdId = householdId;
+    }
+    
+    @Override
+    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+        if (!context.getDatabasePath(AppDatabase.sharedDatabaseName()).exists()) {
+            return;
+        }
+        SupportSQLiteDatabase shared = AppDatabase.getInstance(context).getOpenHelper().getWritableDatabase();
+        if (!hasHouseholdRows(shared)) {
+            return;
+        }
+        
+        long start = SystemClock.elapsedRealtime();
+        int copied = 0;
+        db.beginTransaction();
+        try {
+            for (String[] table : TABLES) {
+                if (table[0].equals("item_nutrition")) {
+                    copied += copyNutrition(shared, db);
+                } else {
+                    copied += copyRows(shared, db, table[0], table[1]);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        
+        // Only after the household file committed: a crash in between copies again instead of losing rows
+        shared.beginTransaction();
+        try {
+            for (int i = TABLES.length - 1; i >= 0; i--) {
+                shared.delete(TABLES[i][0], TABLES[i][1], new Object[]{householdId});
+            }
+            shared.setTransactionSuccessful();
+        } finally {
+            shared.endTransaction();
+        }
+        Log.i(TAG, "Moved " + copied + " rows of household " + householdId + " out of the shared database in "
+                + (SystemClock.elapsedRealtime() - start) + " ms");
+    }
+    
+    private boolean hasHouseholdRows(SupportSQLiteDatabase shared) {
+        try (Cursor cursor = shared.query("SELECT EXISTS(SELECT 1 FROM items WHERE household_id = ?) " +
+                "OR EXISTS(SELECT 1 FROM grocery_entries WHERE household_id = ?) " +
+                "OR EXISTS(SELECT 1 FROM sync_ops WHERE household_id = ?)",
+                new Object[]{householdId, householdId, householdId})) {
+            return cursor.moveToFirst() && cursor.getInt(0) != 0;
+        }
+    }
+    
+    /**
+     * Rows already present in the household file win; they are newer than the shared copy.
+     */
+    private int copyRows(SupportSQLiteDatabase from, SupportSQLiteDatabase to, String table, String where) {
+        int copied = 0;
+        try (Cursor cursor = from.query("SELECT * FROM " + table + " WHERE " + where, new Object[]{householdId})) {
+            while (cursor.moveToNext()) {
+                ContentValues values = readRow(cursor);
+                // The shared file's local_id may already be taken in the household file
+                values.remove(LOCAL_ID);
+                if (to.insert(table, SQLiteDatabase.CONFLICT_IGNORE, values) != -1) {
+                    copied++;
+                }
+            }
+        }
+        return copied;
+    }
+    
+    /**
+     * Runs after items are copied, so each item UUID resolves to its local_id in the household file.
+     */
+    private int copyNutrition(SupportSQLiteDatabase from, SupportSQLiteDatabase to) {
+        int copied = 0;
+        try (Cursor cursor = from.query(NUTRITION_WITH_ITEM_ID, new Object[]{householdId})) {
+            while (cursor.moveToNext()) {
+                ContentValues values = readRow(cursor);
+                String itemId = values.getAsString("item_uuid");
+                values.remove("item_uuid");
+                try (Cursor item = to.query("SELECT local_id FROM items WHERE id = ?", new Object[]{itemId})) {
+                    if (!item.moveToFirst()) continue;
+                    values.put(NUTRITION_ITEM_LOCAL_ID, item.getLong(0));
+                }
+                if (to.insert("item_nutrition", SQLiteDatabase.CONFLICT_IGNORE, values) != -1) {
+                    copied++;
+                }
+            }
+        }
+        return copied;
+    }
+    
+    private static ContentValues readRow(Cursor cursor) {
+        String[] columns = cursor.getColumnNames();
+        ContentValues values = new ContentValues(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            switch (cursor.getType(i)) {
+                case Cursor.FIELD_TYPE_NULL:
+                    values.putNull(columns[i]);
+                    break;
+                case Cursor.FIELD_TYPE_INTEGER:
+                    values.put(columns[i], cursor.getLong(i));
+                    break;
+                case Cursor.FIELD_TYPE_FLOAT:
+                    values.put(columns[i], cursor.getDouble(i));
+                    break;
+                case Cursor.FIELD_TYPE_BLOB:
+                    values.put(columns[i], cursor.getBlob(i));
+                    break;
+                default:
+                    values.put(columns[i], cursor.getString(i));
+                    break;
+            }
+        }
+        return values;
+    }
+}
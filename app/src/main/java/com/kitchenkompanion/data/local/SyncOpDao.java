@@ -0,0 +1,32 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * DAO for the sync outbox.
+ */
+@Dao
+public interface SyncOpDao {
+    
+    @Query("SELECT * FROM sync_ops WHERE household_id = :householdId ORDER BY seq ASC LIMIT :limit")
+    List<SyncOpEntity> getPendingOps(String householdId, int limit);
+    
+    @Query("SELECT COUNT(*) FROM sync_ops WHERE household_id = :householdId")
+    int countPendingOps(String householdId);
+    
+    @Insert
+    void insert(SyncOpEntity op);
+    
+    @Insert
+    void insertAll(List<SyncOpEntity> ops);
+    
+    @Query("DELETE FROM sync_ops WHERE seq IN (:seqs)")
+    void deleteBySeq(List<Long> seqs);
+    
+    @Query("DELETE FROM sync_ops WHERE household_id = :householdId")
+    void deleteAllForHousehold(String householdId);
+}
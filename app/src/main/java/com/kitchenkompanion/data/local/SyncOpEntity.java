@@ -0,0 +1,68 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.util.Date;
+
+/**
+ * Append-only sync outbox entry.
+ * One row is written in the same transaction as each local mutation; the sync worker
+ * drains rows in sequence order and deletes them once the change has reached Firestore.
+ */
+@Entity(
+    tableName = "sync_ops",
+    indices = {
+        @Index(value = {"household_id", "seq"})
+    }
+)
+public class SyncOpEntity {
+    
+    public static final String TYPE_ITEM = "item";
+    public static final String TYPE_GROCERY_ENTRY = "grocery_entry";
+    
+    public static final String OP_UPSERT = "upsert";
+    public static final String OP_DELETE = "delete";
+    
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "seq")
+    public long seq; // Monotonic sequence number, defines drain order
+    
+    @ColumnInfo(name = "household_id")
+    public String householdId;
+    
+    @ColumnInfo(name = "entity_type")
+    public String entityType; // "item", "grocery_entry"
+    
+    @ColumnInfo(name = "entity_id")
+    public String entityId;
+    
+    @ColumnInfo(name = "op_type")
+    public String opType; // "upsert", "delete"
+    
+    @ColumnInfo(name = "created_at")
+    public Date createdAt;
+    
+    public SyncOpEntity() {
+    }
+    
+    public static SyncOpEntity upsert(String householdId, String entityType, String entityId) {
+        return create(householdId, entityType, entityId, OP_UPSERT);
+    }
+    
+    public static SyncOpEntity delete(String householdId, String entityType, String entityId) {
+        return create(householdId, entityType, entityId, OP_DELETE);
+    }
+    
+    private static SyncOpEntity create(String householdId, String entityType, String entityId, String opType) {
+        SyncOpEntity op = new SyncOpEntity();
+        op.householdId = householdId;
+        op.entityType = entityType;
+        op.entityId = entityId;
+        op.opType = opType;
+        op.createdAt = new Date();
+        return op;
+    }
+}
@@ -0,0 +1,24 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.ColumnInfo;
+
+import java.util.Date;
+
+/**
+ * Projection of the sync columns shared by items and grocery entries.
+ * The pull reads it for a whole page of document ids to decide which rows to overwrite.
+ */
+public class SyncState {
+    
+    @ColumnInfo(name = "local_id")
+    public long localId;
+    
+    @ColumnInfo(name = "id")
+    public String id;
+    
+    @ColumnInfo(name = "is_synced")
+    public boolean isSynced;
+    
+    @ColumnInfo(name = "updated_at")
+    public Date updatedAt;
+}
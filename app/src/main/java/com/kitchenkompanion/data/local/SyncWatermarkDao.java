@@ -0,0 +1,22 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+/**
+ * DAO for the pull watermarks of the sync worker.
+ */
+@Dao
+public interface SyncWatermarkDao {
+    
+    @Query("SELECT * FROM sync_watermarks WHERE household_id = :householdId AND collection = :collection")
+    SyncWatermarkEntity getSync(String householdId, String collection);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(SyncWatermarkEntity watermark);
+    
+    @Query("DELETE FROM sync_watermarks WHERE household_id = :householdId")
+    void deleteAllForHousehold(String householdId);
+}
@@ -0,0 +1,56 @@
+package com.kitchenkompanion.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * How far a household's Firestore collection has been pulled.
+ *
+ * Documents carry a server-assigned serverUpdatedAt; pulls ask for documents after
+ * (serverUpdatedAt, document id) of the last one applied, so a steady-state sync reads
+ * only what changed. The document id breaks ties between documents written in one commit,
+ * and the time is kept in microseconds, Firestore's precision, so the last document is not read again.
+ */
+@Entity(
+    tableName = "sync_watermarks",
+    primaryKeys = {"household_id", "collection"}
+)
+public class SyncWatermarkEntity {
+    
+    @NonNull
+    @ColumnInfo(name = "household_id")
+    public String householdId = "";
+    
+    @NonNull
+    @ColumnInfo(name = "collection")
+    public String collection = ""; // Path below the household document, e.g. "items"
+    
+    @ColumnInfo(name = "server_updated_micros")
+    public Long serverUpdatedMicros; // Null until a pulled document had one
+    
+    @ColumnInfo(name = "document_id")
+    public String documentId;
+    
+    public SyncWatermarkEntity() {
+    }
+    
+    public SyncWatermarkEntity(@NonNull String householdId, @NonNull String collection) {
+        this.householdId = householdId;
+        this.collection = collection;
+    }
+    
+    /**
+     * Moves the mark to a pulled document if it is later; documents without a server time leave it alone.
+     */
+    public void advance(Long documentServerUpdatedMicros, String documentId) {
+        if (documentServerUpdatedMicros == null) {
+            return;
+        }
+        int order = serverUpdatedMicros == null ? 1 : documentServerUpdatedMicros.compareTo(serverUpdatedMicros);
+        if (order > 0 || (order == 0 && documentId.compareTo(this.documentId) > 0)) {
+            serverUpdatedMicros = documentServerUpdatedMicros;
+            this.documentId = documentId;
+        }
+    }
+}
@@ -29,6 +29,12 @@ public class FirestoreGroceryEntry {
     @ServerTimestamp
     public Date updatedAt;
     
+    // Set by the server on every write; incremental pulls page on it. Left null when writing.
+    @ServerTimestamp
+    public Date serverUpdatedAt;
+    
+    public boolean isDeleted; // Tombstone: the entry was deleted, so other devices pull the delete
+    
     public FirestoreGroceryEntry() {
         // Required empty constructor for Firestore
     }
@@ -45,6 +51,8 @@ public class FirestoreGroceryEntry {
         map.put("isChecked", isChecked);
         if (createdAt != null) map.put("createdAt", createdAt);
         if (updatedAt != null) map.put("updatedAt", updatedAt);
+        if (serverUpdatedAt != null) map.put("serverUpdatedAt", serverUpdatedAt);
+        map.put("isDeleted", isDeleted);
         return map;
     }
 }
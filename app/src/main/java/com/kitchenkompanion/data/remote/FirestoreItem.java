@@ -23,7 +23,7 @@ public class FirestoreItem {
     public String location;
     public String photoUrl;
     public String notes;
-    public Map<String, Object> nutrition;
+    public FirestoreNutrition nutrition; // Null when the item has no nutrition facts
     public String addedBy;
     
     @ServerTimestamp
@@ -32,11 +32,16 @@ public class FirestoreItem {
     @ServerTimestamp
     public Date updatedAt;
     
+    // Set by the server on every write; incremental pulls page on it. Left null when writing.
+    @ServerTimestamp
+    public Date serverUpdatedAt;
+    
+    public boolean isDeleted; // Tombstone: the item was deleted, so other devices pull the delete
+    
     public double lowStockThreshold;
     
     public FirestoreItem() {
         // Required empty constructor for Firestore
-        this.nutrition = new HashMap<>();
     }
     
     public Map<String, Object> toMap() {
@@ -50,10 +55,12 @@ public class FirestoreItem {
         if (location != null) map.put("location", location);
         if (photoUrl != null) map.put("photoUrl", photoUrl);
         if (notes != null) map.put("notes", notes);
-        if (nutrition != null) map.put("nutrition", nutrition);
+        if (nutrition != null) map.put("nutrition", nutrition.toMap());
         if (addedBy != null) map.put("addedBy", addedBy);
         if (createdAt != null) map.put("createdAt", createdAt);
         if (updatedAt != null) map.put("updatedAt", updatedAt);
+        if (serverUpdatedAt != null) map.put("serverUpdatedAt", serverUpdatedAt);
+        map.put("isDeleted", isDeleted);
         map.put("lowStockThreshold", lowStockThreshold);
         return map;
     }
@@ -1,26 +1,21 @@
 package com.kitchenkompanion.data.remote;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.kitchenkompanion.data.local.GroceryEntryEntity;
 import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.ItemNutritionEntity;
+import com.kitchenkompanion.utils.DateUtils;
 
-import java.lang.reflect.Type;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Mapper class to convert between Room entities and Firestore models.
  */
 public class FirestoreMapper {
     
-    private static final Gson gson = new Gson();
-    
     /**
-     * Converts ItemEntity to FirestoreItem
+     * Converts ItemEntity and its nutrition row (may be null) to FirestoreItem
      */
-    public static FirestoreItem itemEntityToFirestore(ItemEntity entity) {
+    public static FirestoreItem itemEntityToFirestore(ItemEntity entity, ItemNutritionEntity nutrition) {
         if (entity == null) return null;
         
         FirestoreItem item = new FirestoreItem();
@@ -37,14 +32,19 @@ public class FirestoreMapper {
         item.createdAt = entity.createdAt;
         item.updatedAt = entity.updatedAt;
         item.lowStockThreshold = entity.lowStockThreshold;
+        item.nutrition = nutritionEntityToFirestore(nutrition);
         
-        // Parse nutrition JSON
-        if (entity.nutritionJson != null && !entity.nutritionJson.isEmpty()) {
-            Type type = new TypeToken<Map<String, Object>>(){}.getType();
-            item.nutrition = gson.fromJson(entity.nutritionJson, type);
-        } else {
-            item.nutrition = new HashMap<>();
-        }
+        return item;
+    }
+    
+    /**
+     * Tombstone written in place of a deleted item, so incremental pulls on other devices see the delete
+     */
+    public static FirestoreItem itemTombstone(String itemId, Date deletedAt) {
+        FirestoreItem item = new FirestoreItem();
+        item.id = itemId;
+        item.updatedAt = deletedAt;
+        item.isDeleted = true;
         
         return item;
     }
@@ -63,6 +63,7 @@ public class FirestoreMapper {
         entity.quantity = item.quantity;
         entity.unit = item.unit;
         entity.expiryDate = item.expiryDate;
+        entity.expiryDay = DateUtils.toEpochDay(item.expiryDate);
         entity.location = item.location;
         entity.photoUrl = item.photoUrl;
         entity.notes = item.notes;
@@ -71,16 +72,55 @@ public class FirestoreMapper {
         entity.updatedAt = item.updatedAt != null ? item.updatedAt : new Date();
         entity.lowStockThreshold = item.lowStockThreshold;
         entity.isSynced = true; // Just synced from Firestore
-        entity.isDeleted = false;
-        
-        // Convert nutrition map to JSON
-        if (item.nutrition != null && !item.nutrition.isEmpty()) {
-            entity.nutritionJson = gson.toJson(item.nutrition);
-        }
+        entity.isDeleted = item.isDeleted;
         
         return entity;
     }
     
+    /**
+     * Converts ItemNutritionEntity to FirestoreNutrition
+     */
+    public static FirestoreNutrition nutritionEntityToFirestore(ItemNutritionEntity entity) {
+        if (entity == null || entity.isEmpty()) return null;
+        
+        FirestoreNutrition nutrition = new FirestoreNutrition();
+        nutrition.energyKcal = entity.energyKcal;
+        nutrition.fat = entity.fat;
+        nutrition.saturatedFat = entity.saturatedFat;
+        nutrition.carbohydrates = entity.carbohydrates;
+        nutrition.sugars = entity.sugars;
+        nutrition.fiber = entity.fiber;
+        nutrition.proteins = entity.proteins;
+        nutrition.salt = entity.salt;
+        nutrition.sodium = entity.sodium;
+        nutrition.extraJson = entity.extraJson;
+        
+        return nutrition;
+    }
+    
+    /**
+     * Converts the nutrition of a FirestoreItem to ItemNutritionEntity, or null if it has none.
+     * The caller sets itemLocalId once the item row is stored.
+     */
+    public static ItemNutritionEntity firestoreToNutritionEntity(FirestoreItem item) {
+        if (item == null || item.nutrition == null) return null;
+        
+        FirestoreNutrition nutrition = item.nutrition;
+        ItemNutritionEntity entity = new ItemNutritionEntity();
+        entity.energyKcal = nutrition.energyKcal;
+        entity.fat = nutrition.fat;
+        entity.saturatedFat = nutrition.saturatedFat;
+        entity.carbohydrates = nutrition.carbohydrates;
+        entity.sugars = nutrition.sugars;
+        entity.fiber = nutrition.fiber;
+        entity.proteins = nutrition.proteins;
+        entity.salt = nutrition.salt;
+        entity.sodium = nutrition.sodium;
+        entity.extraJson = nutrition.extraJson;
+        
+        return entity.isEmpty() ? null : entity;
+    }
+    
     /**
      * Converts GroceryEntryEntity to FirestoreGroceryEntry
      */
@@ -102,6 +142,19 @@ public class FirestoreMapper {
         return entry;
     }
     
+    /**
+     * Tombstone written in place of a deleted grocery entry
+     */
+    public static FirestoreGroceryEntry groceryTombstone(GroceryEntryEntity entity) {
+        FirestoreGroceryEntry entry = new FirestoreGroceryEntry();
+        entry.id = entity.id;
+        entry.listId = entity.listId;
+        entry.updatedAt = entity.updatedAt;
+        entry.isDeleted = true;
+        
+        return entry;
+    }
+    
     /**
      * Converts FirestoreGroceryEntry to GroceryEntryEntity
      */
@@ -121,7 +174,7 @@ public class FirestoreMapper {
         entity.createdAt = entry.createdAt != null ? entry.createdAt : new Date();
         entity.updatedAt = entry.updatedAt != null ? entry.updatedAt : new Date();
         entity.isSynced = true;
-        entity.isDeleted = false;
+        entity.isDeleted = entry.isDeleted;
         
         return entity;
     }
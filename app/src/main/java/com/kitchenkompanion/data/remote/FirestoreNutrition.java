@@ -0,0 +1,41 @@
+package com.kitchenkompanion.data.remote;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Firestore model for an item's nutrition facts, embedded in the item document.
+ * Values are per 100 g; nutrients without a typed field travel as an opaque JSON string.
+ */
+public class FirestoreNutrition {
+    
+    public Double energyKcal;
+    public Double fat;
+    public Double saturatedFat;
+    public Double carbohydrates;
+    public Double sugars;
+    public Double fiber;
+    public Double proteins;
+    public Double salt;
+    public Double sodium;
+    public String extraJson;
+    
+    public FirestoreNutrition() {
+        // Required empty constructor for Firestore
+    }
+    
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        if (energyKcal != null) map.put("energyKcal", energyKcal);
+        if (fat != null) map.put("fat", fat);
+        if (saturatedFat != null) map.put("saturatedFat", saturatedFat);
+        if (carbohydrates != null) map.put("carbohydrates", carbohydrates);
+        if (sugars != null) map.put("sugars", sugars);
+        if (fiber != null) map.put("fiber", fiber);
+        if (proteins != null) map.put("proteins", proteins);
+        if (salt != null) map.put("salt", salt);
+        if (sodium != null) map.put("sodium", sodium);
+        if (extraJson != null) map.put("extraJson", extraJson);
+        return map;
+    }
+}
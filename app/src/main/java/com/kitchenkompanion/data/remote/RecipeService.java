@@ -1,19 +1,32 @@
 package com.kitchenkompanion.data.remote;
 
 import android.content.Context;
+import android.text.TextUtils;
 import android.util.Log;
 
 import com.kitchenkompanion.BuildConfig;
 import com.kitchenkompanion.KitchenKompanionApp;
+import com.google.gson.Gson;
 import com.kitchenkompanion.data.local.AppDatabase;
+import com.kitchenkompanion.data.local.IngredientDao;
+import com.kitchenkompanion.data.local.IngredientEntity;
 import com.kitchenkompanion.data.local.RecipeCacheDao;
 import com.kitchenkompanion.data.local.RecipeCacheEntity;
+import com.kitchenkompanion.data.local.RecipeMatch;
+import com.kitchenkompanion.data.local.RecipePayloadCodec;
 import com.kitchenkompanion.data.remote.dto.RecipeDetail;
 import com.kitchenkompanion.data.remote.dto.RecipeSearchResponse;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -31,8 +44,9 @@ import retrofit2.converter.gson.GsonConverterFactory;
  * Features:
  * - Search recipes by ingredients
  * - Get recipe details
- * - Cache results in Room database
+ * - Cache results in Room database, deflated (RecipePayloadCodec)
  * - Automatic cache expiration (7 days)
+ * - Offline fallback to starter recipes shipped in the seed database
  */
 public class RecipeService {
     
@@ -40,9 +54,12 @@ public class RecipeService {
     private static final String BASE_URL = "https://api.spoonacular.com/";
     private static final long CACHE_EXPIRY_MS = TimeUnit.DAYS.toMillis(7);
     
+    private static final Gson gson = new Gson();
+    
     private static RecipeService instance;
     private final SpoonacularApi api;
     private final RecipeCacheDao cacheDao;
+    private final IngredientDao ingredientDao;
     private final ExecutorService executorService;
     private final String apiKey;
     
@@ -63,7 +80,9 @@ public class RecipeService {
                 .build();
         
         this.api = retrofit.create(SpoonacularApi.class);
-        this.cacheDao = AppDatabase.getInstance(context).recipeCacheDao();
+        AppDatabase database = AppDatabase.getInstance(context);
+        this.cacheDao = database.recipeCacheDao();
+        this.ingredientDao = database.ingredientDao();
         this.executorService = Executors.newSingleThreadExecutor();
     }
     
@@ -86,28 +105,20 @@ public class RecipeService {
     
     /**
      * Search recipes by ingredients from pantry.
-     * Uses cache if available and fresh.
+     * Pantry names are mapped to canonical ingredients first. When the API can't be
+     * reached or rejects the request, starter recipes from the seed database are returned instead.
      * 
      * @param ingredients Comma-separated list of ingredients
      * @param maxResults Maximum number of results (default: 10)
      * @param callback Callback for results
      */
     public void findByIngredients(String ingredients, int maxResults, RecipeSearchCallback callback) {
-        // Check cache first
         executorService.execute(() -> {
-            String cacheKey = "ingredients:" + ingredients + ":" + maxResults;
-            RecipeCacheEntity cached = cacheDao.getCacheByKey(cacheKey);
-            
-            if (cached != null && !isCacheExpired(cached)) {
-                Log.d(TAG, "Using cached recipe search results");
-                // Parse cached JSON and return
-                // For simplicity, we'll skip cache parsing and always fetch fresh data
-                // In production, you'd parse the JSON here
-            }
+            List<String> canonical = canonicalIngredients(ingredients);
             
             // Fetch from API
             Call<List<RecipeSearchResponse>> call = api.findByIngredients(
-                    ingredients,
+                    TextUtils.join(",", canonical),
                     maxResults,
                     1, // Maximize used ingredients
                     apiKey
@@ -118,35 +129,24 @@ public class RecipeService {
                 public void onResponse(Call<List<RecipeSearchResponse>> call, 
                                        Response<List<RecipeSearchResponse>> response) {
                     if (response.isSuccessful() && response.body() != null) {
-                        List<RecipeSearchResponse> recipes = response.body();
-                        
-                        // Cache results
-                        executorService.execute(() -> {
-                            RecipeCacheEntity cache = new RecipeCacheEntity();
-                            cache.cacheKey = cacheKey;
-                            cache.responseJson = ""; // Would serialize recipes to JSON
-                            cache.timestamp = new Date();
-                            cacheDao.insert(cache);
-                        });
-                        
-                        callback.onSuccess(recipes);
+                        callback.onSuccess(response.body());
                     } else {
+                        String error = "API error: " + response.code();
                         try {
-                            String error = "API error: " + response.code();
                             if (response.errorBody() != null) {
                                 error += " - " + response.errorBody().string();
                             }
-                            callback.onError(error);
                         } catch (IOException e) {
-                            callback.onError("API error: " + response.code());
+                            // Keep the status code only
                         }
+                        deliverSeedRecipes(canonical, maxResults, error, callback);
                     }
                 }
                 
                 @Override
                 public void onFailure(Call<List<RecipeSearchResponse>> call, Throwable t) {
                     Log.e(TAG, "Recipe search failed", t);
-                    callback.onError("Network error: " + t.getMessage());
+                    deliverSeedRecipes(canonical, maxResults, "Network error: " + t.getMessage(), callback);
                 }
             });
         });
@@ -154,7 +154,7 @@ public class RecipeService {
     
     /**
      * Get detailed recipe information.
-     * Uses cache if available and fresh.
+     * Uses cache if available and fresh; seed recipes are always served from the cache.
      * 
      * @param recipeId Recipe ID
      * @param callback Callback for result
@@ -162,12 +162,15 @@ public class RecipeService {
     public void getRecipeDetail(int recipeId, RecipeDetailCallback callback) {
         // Check cache first
         executorService.execute(() -> {
-            String cacheKey = "recipe:" + recipeId;
-            RecipeCacheEntity cached = cacheDao.getCacheByKey(cacheKey);
+            RecipeCacheEntity cached = cacheDao.getRecipeById(String.valueOf(recipeId));
             
             if (cached != null && !isCacheExpired(cached)) {
-                Log.d(TAG, "Using cached recipe detail");
-                // Would parse cached JSON here
+                String json = RecipePayloadCodec.decode(cached.recipePayload);
+                if (json != null) {
+                    Log.d(TAG, "Using cached recipe detail");
+                    callback.onSuccess(gson.fromJson(json, RecipeDetail.class));
+                    return;
+                }
             }
             
             // Fetch from API
@@ -182,10 +185,18 @@ public class RecipeService {
                         // Cache result
                         executorService.execute(() -> {
                             RecipeCacheEntity cache = new RecipeCacheEntity();
-                            cache.cacheKey = cacheKey;
-                            cache.responseJson = ""; // Would serialize recipe to JSON
-                            cache.timestamp = new Date();
+                            cache.id = String.valueOf(recipe.id);
+                            cache.title = recipe.title;
+                            cache.imageUrl = recipe.image;
+                            cache.source = "spoonacular";
+                            String json = gson.toJson(recipe);
+                            cache.recipePayload = RecipePayloadCodec.encode(json);
+                            cache.servings = recipe.servings;
+                            cache.readyInMinutes = recipe.readyInMinutes;
+                            cache.cachedAt = new Date();
                             cacheDao.insert(cache);
+                            Log.d(TAG, "Cached recipe " + cache.id + ": " + json.length() + " chars of JSON in "
+                                    + cache.recipePayload.length + " bytes");
                         });
                         
                         callback.onSuccess(recipe);
@@ -211,8 +222,91 @@ public class RecipeService {
         });
     }
     
+    /**
+     * Maps free-form pantry names to canonical ingredients through the ingredient dictionary,
+     * preferring the longest matching phrase ("peanut butter" over "butter").
+     * Names without a dictionary match pass through lower-cased.
+     */
+    private List<String> canonicalIngredients(String ingredients) {
+        List<String> names = new ArrayList<>();
+        List<List<String>> candidatesPerName = new ArrayList<>();
+        Set<String> allCandidates = new HashSet<>();
+        for (String raw : ingredients.split(",")) {
+            String name = raw.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty()) continue;
+            
+            // Single words and adjacent word pairs
+            String[] words = name.split("[^\\p{L}]+");
+            List<String> candidates = new ArrayList<>();
+            for (int i = 0; i < words.length; i++) {
+                if (words[i].isEmpty()) continue;
+                candidates.add(words[i]);
+                if (i + 1 < words.length && !words[i + 1].isEmpty()) {
+                    candidates.add(words[i] + " " + words[i + 1]);
+                }
+            }
+            names.add(name);
+            candidatesPerName.add(candidates);
+            allCandidates.addAll(candidates);
+        }
+        
+        Map<String, String> dictionary = new HashMap<>();
+        if (!allCandidates.isEmpty()) {
+            for (IngredientEntity entry : ingredientDao.findByAliases(new ArrayList<>(allCandidates))) {
+                dictionary.put(entry.alias, entry.name);
+            }
+        }
+        
+        Set<String> canonical = new LinkedHashSet<>();
+        for (int i = 0; i < names.size(); i++) {
+            String bestAlias = null;
+            for (String candidate : candidatesPerName.get(i)) {
+                if (dictionary.containsKey(candidate)
+                        && (bestAlias == null || candidate.length() > bestAlias.length())) {
+                    bestAlias = candidate;
+                }
+            }
+            canonical.add(bestAlias != null ? dictionary.get(bestAlias) : names.get(i));
+        }
+        return new ArrayList<>(canonical);
+    }
+    
+    /**
+     * Answers a failed search with matching seed recipes, or reports the error if none match.
+     */
+    private void deliverSeedRecipes(List<String> ingredients, int maxResults, String error,
+                                    RecipeSearchCallback callback) {
+        executorService.execute(() -> {
+            List<RecipeSearchResponse> recipes = new ArrayList<>();
+            for (RecipeMatch match : cacheDao.findByIngredients(ingredients, maxResults)) {
+                RecipeSearchResponse recipe = new RecipeSearchResponse();
+                recipe.id = Integer.parseInt(match.recipe.id);
+                recipe.title = match.recipe.title;
+                recipe.image = match.recipe.imageUrl;
+                recipe.servings = match.recipe.servings;
+                recipe.readyInMinutes = match.recipe.readyInMinutes;
+                recipe.usedIngredientCount = match.usedCount;
+                recipe.missedIngredientCount = match.missedCount;
+                recipes.add(recipe);
+            }
+            
+            if (recipes.isEmpty()) {
+                callback.onError(error);
+            } else {
+                Log.d(TAG, "Using " + recipes.size() + " seed recipes (" + error + ")");
+                callback.onSuccess(recipes);
+            }
+        });
+    }
+    
     private boolean isCacheExpired(RecipeCacheEntity cache) {
-        long age = System.currentTimeMillis() - cache.timestamp.getTime();
+        if (RecipeCacheEntity.SOURCE_SEED.equals(cache.source)) {
+            return false;
+        }
+        if (cache.cachedAt == null) {
+            return true;
+        }
+        long age = System.currentTimeMillis() - cache.cachedAt.getTime();
         return age > CACHE_EXPIRY_MS;
     }
     
@@ -222,7 +316,7 @@ public class RecipeService {
     public void clearExpiredCache() {
         executorService.execute(() -> {
             Date expiryDate = new Date(System.currentTimeMillis() - CACHE_EXPIRY_MS);
-            cacheDao.deleteOlderThan(expiryDate);
+            cacheDao.deleteOldCache(expiryDate);
             Log.d(TAG, "Cleared expired recipe cache");
         });
     }
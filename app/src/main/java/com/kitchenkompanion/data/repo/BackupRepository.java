@@ -0,0 +1,116 @@
+package com.kitchenkompanion.data.repo;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.work.WorkManager;
+
+import com.kitchenkompanion.data.local.DatabaseBackup;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Backs up the household's local database to a document and restores it from one.
+ *
+ * A restore brings back the database as it was at backup time, outbox included, and then
+ * schedules a sync: pending ops from the backup are pushed, and synced rows that changed on
+ * the server since the backup are pulled back in (server wins for synced rows). Data that
+ * only ever existed on this device after the backup was taken is gone.
+ *
+ * After a restore, objects holding the old database instance must be recreated;
+ * the caller restarts its screens.
+ *
+ * Usage: hold one instance per screen and {@link #shutdown()} it with the screen.
+ * backupRepository = new BackupRepository(context.getApplicationContext(), householdId);
+ * backupRepository.restore(uri, callback);
+ */
+public class BackupRepository {
+    
+    private static final String TAG = "BackupRepository";
+    
+    private final Context context;
+    private final ContentResolver contentResolver;
+    private final WorkManager workManager;
+    private final ExecutorService executorService;
+    private final String householdId;
+    
+    /**
+     * Called on the repository's background thread.
+     */
+    public interface BackupCallback {
+        void onComplete(BackupResult result);
+        void onError(String error);
+    }
+    
+    public static class BackupResult {
+        public final long bytes; // Backup size; 0 for a restore
+        public final int pendingOps; // Restored changes still to push; 0 for a backup
+        public final long elapsedMs;
+        
+        BackupResult(long bytes, int pendingOps, long elapsedMs) {
+            this.bytes = bytes;
+            this.pendingOps = pendingOps;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+    
+    public BackupRepository(Context context, String householdId) {
+        this.context = context.getApplicationContext();
+        this.contentResolver = context.getContentResolver();
+        this.workManager = WorkManager.getInstance(context);
+        this.executorService = Executors.newSingleThreadExecutor();
+        this.householdId = householdId;
+    }
+    
+    public void backup(Uri uri, BackupCallback callback) {
+        executorService.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            try (ParcelFileDescriptor descriptor = contentResolver.openFileDescriptor(uri, "wt")) {
+                if (descriptor == null) throw new IOException("Cannot open " + uri);
+                try (FileOutputStream out = new FileOutputStream(descriptor.getFileDescriptor())) {
+                    long bytes = DatabaseBackup.backup(context, householdId, out.getChannel());
+                    callback.onComplete(new BackupResult(bytes, 0, SystemClock.elapsedRealtime() - start));
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Backup failed", e);
+                callback.onError(e.getMessage());
+            }
+        });
+    }
+    
+    public void restore(Uri uri, BackupCallback callback) {
+        executorService.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            try (ParcelFileDescriptor descriptor = contentResolver.openFileDescriptor(uri, "r")) {
+                if (descriptor == null) throw new IOException("Cannot open " + uri);
+                try (FileInputStream in = new FileInputStream(descriptor.getFileDescriptor())) {
+                    int pendingOps = DatabaseBackup.restore(context, householdId, in.getChannel());
+                    scheduleSyncWork();
+                    callback.onComplete(new BackupResult(0, pendingOps, SystemClock.elapsedRealtime() - start));
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Restore failed", e);
+                callback.onError(e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Stops the background thread once a running backup or restore finishes; call when the owner is destroyed.
+     */
+    public void shutdown() {
+        executorService.shutdown();
+    }
+    
+    private void scheduleSyncWork() {
+        SyncScheduler.requestSync(workManager, householdId);
+    }
+}
@@ -0,0 +1,164 @@
+package com.kitchenkompanion.data.repo;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.kitchenkompanion.KitchenKompanionApp;
+import com.kitchenkompanion.data.local.AppDatabase;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WorkManager worker that compacts the local database.
+ *
+ * - Hard-deletes item and grocery tombstones once their deletion is synced and past the retention window
+ * - Prunes stale recipe_cache rows, orphaned nutrition and usage rows, and old consumption log entries
+ * - Returns freed pages to the file system with incremental vacuum
+ * - Covers the shared database and, in per-household mode, every household database file
+ *
+ * Reclaimed rows and bytes are logged and reported in the output Data.
+ *
+ * Usage:
+ * PeriodicWorkRequest maintenanceWork = new PeriodicWorkRequest.Builder(
+ *     DatabaseMaintenanceWorker.class, 7, TimeUnit.DAYS)
+ *     .setConstraints(constraints)
+ *     .build();
+ * WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+ *     DatabaseMaintenanceWorker.WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, maintenanceWork);
+ */
+public class DatabaseMaintenanceWorker extends Worker {
+    
+    public static final String WORK_NAME = "database_maintenance";
+    
+    public static final String KEY_PURGED_ITEMS = "purgedItems";
+    public static final String KEY_PURGED_GROCERY_ENTRIES = "purgedGroceryEntries";
+    public static final String KEY_PURGED_RECIPES = "purgedRecipes";
+    public static final String KEY_RECLAIMED_BYTES = "reclaimedBytes";
+    public static final String KEY_DATABASE_BYTES = "databaseBytes";
+    
+    private static final String TAG = "DatabaseMaintenance";
+    
+    // Long enough for other devices in the household to pull the deletion first
+    private static final long TOMBSTONE_RETENTION_MS = TimeUnit.DAYS.toMillis(30);
+    private static final long RECIPE_CACHE_RETENTION_MS = TimeUnit.DAYS.toMillis(7);
+    // Usage rates carry the history; the log is only kept for inspection
+    private static final long CONSUMPTION_LOG_RETENTION_MS = TimeUnit.DAYS.toMillis(180);
+    
+    // SQLite PRAGMA auto_vacuum value for INCREMENTAL mode
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+    
+    public DatabaseMaintenanceWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+    
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            Context context = getApplicationContext();
+            Totals totals = new Totals();
+            compact(AppDatabase.getInstance(context), totals);
+            
+            // Household files not in use are opened for the run and closed again
+            String activeHouseholdId = KitchenKompanionApp.getInstance().getCurrentHouseholdId();
+            for (String householdId : AppDatabase.getStoredHouseholdIds(context)) {
+                compact(AppDatabase.getInstance(context, householdId), totals);
+                if (!householdId.equals(activeHouseholdId)) {
+                    AppDatabase.closeHousehold(householdId);
+                }
+            }
+            
+            Log.i(TAG, "Purged " + totals.purgedItems + " items, " + totals.purgedGroceryEntries + " grocery entries, "
+                    + totals.purgedRecipes + " cached recipes; reclaimed " + totals.reclaimedBytes + " bytes, "
+                    + totals.databaseBytes + " bytes on disk");
+            
+            Data output = new Data.Builder()
+                    .putInt(KEY_PURGED_ITEMS, totals.purgedItems)
+                    .putInt(KEY_PURGED_GROCERY_ENTRIES, totals.purgedGroceryEntries)
+                    .putInt(KEY_PURGED_RECIPES, totals.purgedRecipes)
+                    .putLong(KEY_RECLAIMED_BYTES, totals.reclaimedBytes)
+                    .putLong(KEY_DATABASE_BYTES, totals.databaseBytes)
+                    .build();
+            return Result.success(output);
+        
+        } catch (Exception e) {
+            Log.e(TAG, "Database maintenance failed", e);
+            return Result.retry();
+        }
+    }
+    
+    private void compact(AppDatabase database, Totals totals) {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        long bytesBefore = databaseBytes(db);
+        
+        long now = System.currentTimeMillis();
+        Date tombstoneCutoff = new Date(now - TOMBSTONE_RETENTION_MS);
+        Date recipeCutoff = new Date(now - RECIPE_CACHE_RETENTION_MS);
+        Date consumptionCutoff = new Date(now - CONSUMPTION_LOG_RETENTION_MS);
+        
+        database.runInTransaction(() -> {
+            totals.purgedItems += database.itemDao().purgeSyncedTombstones(tombstoneCutoff);
+            database.itemNutritionDao().deleteOrphans();
+            database.itemUsageDao().deleteUsageOrphans();
+            database.itemUsageDao().deleteConsumptionOrphans();
+            database.itemUsageDao().pruneConsumption(consumptionCutoff);
+            totals.purgedGroceryEntries += database.groceryDao().purgeSyncedTombstones(tombstoneCutoff);
+            totals.purgedRecipes += database.recipeCacheDao().deleteOldCache(recipeCutoff);
+        });
+        
+        vacuum(db);
+        
+        long bytesAfter = databaseBytes(db);
+        totals.reclaimedBytes += Math.max(0, bytesBefore - bytesAfter);
+        totals.databaseBytes += bytesAfter;
+    }
+    
+    /**
+     * Releases free pages. The first run switches the file to incremental auto-vacuum,
+     * which only takes effect after one full VACUUM; later runs are cheap.
+     */
+    private void vacuum(SupportSQLiteDatabase db) {
+        if (queryLong(db, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+            Log.i(TAG, "Enabling incremental auto-vacuum");
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            db.execSQL("VACUUM");
+            return;
+        }
+        // incremental_vacuum frees one page per step, so the cursor must be drained
+        try (Cursor cursor = db.query("PRAGMA incremental_vacuum")) {
+            while (cursor.moveToNext()) {
+                // Each row is one freed page
+            }
+        }
+    }
+    
+    /**
+     * Size of the main database file; purged rows only shrink it once vacuum releases their pages.
+     */
+    private static long databaseBytes(SupportSQLiteDatabase db) {
+        return queryLong(db, "PRAGMA page_count") * queryLong(db, "PRAGMA page_size");
+    }
+    
+    private static long queryLong(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+    
+    /** Counts summed over the shared database and every household database. */
+    private static final class Totals {
+        int purgedItems;
+        int purgedGroceryEntries;
+        int purgedRecipes;
+        long reclaimedBytes;
+        long databaseBytes;
+    }
+}
@@ -0,0 +1,48 @@
+package com.kitchenkompanion.data.repo;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import java.util.Objects;
+
+/**
+ * Forwards a Room LiveData but drops values equal to the last one delivered.
+ *
+ * Room re-runs an observed query whenever any row of its tables changes, so a sync pass
+ * that only flips is_synced or touches another household's rows still re-emits the same
+ * result and makes the UI rebind. Values are compared by content hash first and confirmed
+ * with equals(), so the row classes must implement both.
+ *
+ * Usage:
+ * DistinctLiveData<List<GroceryRow>> entries = new DistinctLiveData<>(groceryDao.getAllEntries(householdId));
+ */
+public class DistinctLiveData<T> extends MediatorLiveData<T> {
+    
+    private boolean hasValue;
+    private int lastHash;
+    private T lastValue;
+    private int suppressedCount;
+    
+    public DistinctLiveData(LiveData<T> source) {
+        addSource(source, this::onSourceChanged);
+    }
+    
+    private void onSourceChanged(T value) {
+        int hash = Objects.hashCode(value);
+        if (hasValue && hash == lastHash && Objects.equals(value, lastValue)) {
+            suppressedCount++;
+            return;
+        }
+        hasValue = true;
+        lastHash = hash;
+        lastValue = value;
+        setValue(value);
+    }
+    
+    /**
+     * Number of source emissions dropped because the result had not changed. Main thread only.
+     */
+    public int getSuppressedCount() {
+        return suppressedCount;
+    }
+}
@@ -1,42 +1,107 @@
 package com.kitchenkompanion.data.repo;
 
+import android.app.Notification;
 import android.content.Context;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.work.Data;
+import androidx.work.ForegroundInfo;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+import com.kitchenkompanion.KitchenKompanionApp;
+import com.kitchenkompanion.R;
 import com.kitchenkompanion.data.local.AppDatabase;
 import com.kitchenkompanion.data.local.GroceryDao;
 import com.kitchenkompanion.data.local.GroceryEntryEntity;
 import com.kitchenkompanion.data.local.ItemDao;
 import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.ItemNutritionDao;
+import com.kitchenkompanion.data.local.ItemNutritionEntity;
+import com.kitchenkompanion.data.local.SyncOpDao;
+import com.kitchenkompanion.data.local.SyncOpEntity;
+import com.kitchenkompanion.data.local.SyncState;
+import com.kitchenkompanion.data.local.SyncWatermarkEntity;
 import com.kitchenkompanion.data.remote.FirestoreGroceryEntry;
 import com.kitchenkompanion.data.remote.FirestoreItem;
 import com.kitchenkompanion.data.remote.FirestoreMapper;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * WorkManager worker to sync local Room database with Firestore.
  * Handles bidirectional sync with conflict resolution.
+ * Local changes are found through the sync_ops outbox rather than is_synced scans.
+ * Remote changes are pulled incrementally from per-collection watermarks (sync_watermarks);
+ * deletes are pushed as tombstone documents so those pulls see them.
+ *
+ * doWork runs on WorkManager's background thread and waits for every Firestore call, so the
+ * result reflects whether the changes landed: any failed or timed-out call makes the run retry.
+ * Room writes happen on the waiting thread, never in Firestore callbacks. The output data
+ * reports pushed and pulled counts and the run's duration.
+ *
+ * Runs are enqueued through {@link SyncScheduler}, one at a time per household.
  */
 public class FirebaseSyncWorker extends Worker {
     
+    public static final String KEY_PUSHED = "pushed";
+    public static final String KEY_PULLED = "pulled";
+    public static final String KEY_ELAPSED_MS = "elapsedMs";
+    
     private static final String TAG = "FirebaseSyncWorker";
+    private static final int NOTIFICATION_ID_SYNC = 1003;
+    private static final int OUTBOX_BATCH_SIZE = 500;
+    private static final int PULL_PAGE_SIZE = 500;
+    
+    private static final String ITEMS_COLLECTION = "items";
+    private static final String FIELD_SERVER_UPDATED_AT = "serverUpdatedAt";
+    private static final String DEFAULT_LIST_ID = "default";
+    
+    // Shared by every running sync, so several households syncing at once don't flood the connection
+    private static final int MAX_IN_FLIGHT_RPCS = 4;
+    private static final Semaphore RPC_PERMITS = new Semaphore(MAX_IN_FLIGHT_RPCS);
+    // An unanswered call fails the run, which WorkManager retries with backoff
+    private static final long RPC_TIMEOUT_SECONDS = 60;
+    
+    // Collections are pulled in parallel; each pull waits for its own pages in order
+    private static final ExecutorService PULL_EXECUTOR = Executors.newFixedThreadPool(MAX_IN_FLIGHT_RPCS);
     
-    private final AppDatabase database;
+    private AppDatabase database; // The synced household's database, resolved in doWork
     private final FirebaseFirestore firestore;
     private final FirebaseAuth auth;
     
     public FirebaseSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
         super(context, params);
-        this.database = AppDatabase.getInstance(context);
         this.firestore = FirebaseFirestore.getInstance();
         this.auth = FirebaseAuth.getInstance();
     }
@@ -44,6 +109,7 @@ public class FirebaseSyncWorker extends Worker {
     @NonNull
     @Override
     public Result doWork() {
+        long start = SystemClock.elapsedRealtime();
         try {
             FirebaseUser currentUser = auth.getCurrentUser();
             if (currentUser == null) {
@@ -56,15 +122,22 @@ public class FirebaseSyncWorker extends Worker {
                 Log.w(TAG, "No household ID provided, skipping sync");
                 return Result.success();
             }
+            database = AppDatabase.getInstance(getApplicationContext(), householdId);
             
-            // Sync items
-            syncItems(householdId);
+            // Push local changes recorded in the outbox
+            int pushed = pushPendingOps(householdId);
             
-            // Sync grocery entries
-            syncGroceryEntries(householdId);
+            // Pull remote changes
+            int pulled = pullRemoteChanges(householdId);
             
-            Log.d(TAG, "Sync completed successfully");
-            return Result.success();
+            long elapsedMs = SystemClock.elapsedRealtime() - start;
+            Log.i(TAG, "Sync pushed " + pushed + " changes and pulled " + pulled + " documents in " + elapsedMs + " ms");
+            Data output = new Data.Builder()
+                    .putInt(KEY_PUSHED, pushed)
+                    .putInt(KEY_PULLED, pulled)
+                    .putLong(KEY_ELAPSED_MS, elapsedMs)
+                    .build();
+            return Result.success(output);
             
         } catch (Exception e) {
             Log.e(TAG, "Sync failed", e);
@@ -72,132 +145,387 @@ public class FirebaseSyncWorker extends Worker {
         }
     }
     
-    private void syncItems(String householdId) throws Exception {
-        ItemDao itemDao = database.itemDao();
-        
-        // 1. Push unsynced local changes to Firestore
-        List<ItemEntity> unsyncedItems = itemDao.getUnsyncedItems();
-        for (ItemEntity entity : unsyncedItems) {
-            if (entity.householdId.equals(householdId)) {
-                if (entity.isDeleted) {
-                    // Delete from Firestore
-                    firestore.collection("households")
-                            .document(householdId)
-                            .collection("items")
-                            .document(entity.id)
-                            .delete()
-                            .addOnSuccessListener(aVoid -> {
-                                itemDao.markAsSynced(entity.id);
-                                Log.d(TAG, "Deleted item from Firestore: " + entity.id);
-                            });
+    /**
+     * Expedited "sync now" runs before Android 12 are backed by a foreground service,
+     * which shows this notification while the sync runs.
+     */
+    @NonNull
+    @Override
+    public ForegroundInfo getForegroundInfo() {
+        Notification notification = new NotificationCompat.Builder(
+                getApplicationContext(), KitchenKompanionApp.CHANNEL_GENERAL_ID)
+                .setSmallIcon(R.drawable.ic_pantry)
+                .setContentTitle(getApplicationContext().getString(R.string.sync_in_progress))
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .setOngoing(true)
+                .build();
+        return new ForegroundInfo(NOTIFICATION_ID_SYNC, notification);
+    }
+    
+    /**
+     * Drain the sync outbox for a household in sequence order.
+     * Several ops for the same entity collapse into one push of its latest local state.
+     * Each chunk of up to {@link #OUTBOX_BATCH_SIZE} ops is committed as one WriteBatch, which is
+     * also Firestore's limit per batch, and marked synced in one Room transaction; the next chunk
+     * is read once that is done. Entities edited again during the commit keep is_synced = 0 so
+     * the pull can't overwrite the newer edit; their later op pushes it.
+     *
+     * @return changes written to Firestore
+     */
+    private int pushPendingOps(String householdId) throws Exception {
+        SyncOpDao syncOpDao = database.syncOpDao();
+        int pushed = 0;
+        while (!isStopped()) {
+            List<SyncOpEntity> ops = syncOpDao.getPendingOps(householdId, OUTBOX_BATCH_SIZE);
+            if (ops.isEmpty()) {
+                break;
+            }
+            
+            Map<String, SyncOpEntity> latestOps = new LinkedHashMap<>();
+            List<Long> seqs = new ArrayList<>();
+            for (SyncOpEntity op : ops) {
+                latestOps.put(op.entityType + ":" + op.entityId, op);
+                seqs.add(op.seq);
+            }
+            
+            WriteBatch batch = firestore.batch();
+            List<Long> itemLocalIds = new ArrayList<>();
+            List<Long> groceryLocalIds = new ArrayList<>();
+            int writes = 0;
+            for (SyncOpEntity op : latestOps.values()) {
+                if (SyncOpEntity.TYPE_ITEM.equals(op.entityType)) {
+                    stageItem(batch, householdId, op, itemLocalIds);
+                    writes++;
+                } else if (SyncOpEntity.TYPE_GROCERY_ENTRY.equals(op.entityType)) {
+                    if (stageGroceryEntry(batch, householdId, op, groceryLocalIds)) {
+                        writes++;
+                    }
                 } else {
-                    // Update/create in Firestore
-                    FirestoreItem firestoreItem = FirestoreMapper.itemEntityToFirestore(entity);
-                    firestore.collection("households")
-                            .document(householdId)
-                            .collection("items")
-                            .document(entity.id)
-                            .set(firestoreItem)
-                            .addOnSuccessListener(aVoid -> {
-                                itemDao.markAsSynced(entity.id);
-                                Log.d(TAG, "Synced item to Firestore: " + entity.id);
-                            });
+                    // Its seqs are deleted with the chunk
+                    Log.w(TAG, "Dropping sync op with unknown type: " + op.entityType);
+                }
+            }
+            
+            Log.d(TAG, "Pushing " + writes + " changes from " + ops.size() + " pending ops");
+            if (writes > 0) {
+                await(batch::commit);
+            }
+            // Ops queued while the batch was in flight sort after the chunk; rows they touch stay unsynced
+            long lastSeq = ops.get(ops.size() - 1).seq;
+            database.runInTransaction(() -> {
+                if (!itemLocalIds.isEmpty()) {
+                    database.itemDao().markAllAsSynced(itemLocalIds, householdId, lastSeq);
                 }
+                if (!groceryLocalIds.isEmpty()) {
+                    database.groceryDao().markAllAsSynced(groceryLocalIds, householdId, lastSeq);
+                }
+                syncOpDao.deleteBySeq(seqs);
+            });
+            pushed += writes;
+            
+            if (ops.size() < OUTBOX_BATCH_SIZE) {
+                break;
             }
         }
+        return pushed;
+    }
+    
+    /**
+     * Adds the item's latest state, or a tombstone if it is gone, to the batch.
+     */
+    private void stageItem(WriteBatch batch, String householdId, SyncOpEntity op, List<Long> syncedLocalIds) {
+        ItemEntity entity = database.itemDao().getItemByIdSync(op.entityId);
         
-        // 2. Pull remote changes from Firestore
-        firestore.collection("households")
+        DocumentReference doc = firestore.collection("households")
                 .document(householdId)
                 .collection("items")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    for (DocumentSnapshot doc : queryDocumentSnapshots.getDocuments()) {
-                        FirestoreItem firestoreItem = doc.toObject(FirestoreItem.class);
-                        if (firestoreItem != null) {
-                            ItemEntity localItem = itemDao.getItemByIdSync(firestoreItem.id);
-                            
-                            // Conflict resolution: server wins if local is synced, otherwise keep local
-                            if (localItem == null || localItem.isSynced) {
-                                ItemEntity entity = FirestoreMapper.firestoreToItemEntity(firestoreItem, householdId);
-                                itemDao.insert(entity);
-                                Log.d(TAG, "Pulled item from Firestore: " + entity.id);
-                            } else {
-                                Log.d(TAG, "Skipping item (local changes pending): " + localItem.id);
-                            }
-                        }
-                    }
-                })
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to pull items from Firestore", e));
+                .document(op.entityId);
+        
+        if (entity == null || entity.isDeleted) {
+            batch.set(doc, FirestoreMapper.itemTombstone(op.entityId, entity != null ? entity.updatedAt : op.createdAt));
+        } else {
+            ItemNutritionEntity nutrition = database.itemNutritionDao().getByItemLocalIdSync(entity.localId);
+            batch.set(doc, FirestoreMapper.itemEntityToFirestore(entity, nutrition));
+        }
+        if (entity != null) {
+            syncedLocalIds.add(entity.localId);
+        }
     }
     
-    private void syncGroceryEntries(String householdId) throws Exception {
-        GroceryDao groceryDao = database.groceryDao();
+    /**
+     * Adds the entry's latest state, or a tombstone if it was deleted, to the batch.
+     *
+     * @return false if the entry is gone and there is nothing to write
+     */
+    private boolean stageGroceryEntry(WriteBatch batch, String householdId, SyncOpEntity op, List<Long> syncedLocalIds) {
+        GroceryEntryEntity entity = database.groceryDao().getEntryByIdSync(op.entityId);
+        
+        if (entity == null) {
+            // Without the row there is no list path to address; nothing left to push
+            Log.w(TAG, "Dropping sync op for missing grocery entry: " + op.entityId);
+            return false;
+        }
+        
+        DocumentReference doc = firestore.collection("households")
+                .document(householdId)
+                .collection("groceryLists")
+                .document(entity.listId)
+                .collection("entries")
+                .document(entity.id);
+        
+        if (entity.isDeleted) {
+            batch.set(doc, FirestoreMapper.groceryTombstone(entity));
+        } else {
+            batch.set(doc, FirestoreMapper.groceryEntityToFirestore(entity));
+        }
+        syncedLocalIds.add(entity.localId);
+        return true;
+    }
+    
+    /**
+     * Pulls items and every grocery list in parallel and waits for all of them.
+     *
+     * @return documents read
+     */
+    private int pullRemoteChanges(String householdId) throws Exception {
+        CollectionReference lists = firestore.collection("households")
+                .document(householdId)
+                .collection("groceryLists");
+        QuerySnapshot listSnapshots = await(lists::get);
+        // Entries are written without creating their list document, so the default list is always pulled
+        Set<String> listIds = new LinkedHashSet<>();
+        listIds.add(DEFAULT_LIST_ID);
+        for (DocumentSnapshot listDoc : listSnapshots.getDocuments()) {
+            listIds.add(listDoc.getId());
+        }
+        
+        List<Future<Integer>> pulls = new ArrayList<>();
+        pulls.add(PULL_EXECUTOR.submit(() -> pullItems(householdId)));
+        for (String listId : listIds) {
+            pulls.add(PULL_EXECUTOR.submit(() -> pullGroceryEntries(householdId, lists, listId)));
+        }
+        
+        // Every pull finishes before the run reports; the first failure is rethrown
+        int pulled = listSnapshots.size();
+        Exception failure = null;
+        for (Future<Integer> pull : pulls) {
+            try {
+                pulled += pull.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return pulled;
+    }
+    
+    private int pullItems(String householdId) throws Exception {
+        ItemDao itemDao = database.itemDao();
+        ItemNutritionDao nutritionDao = database.itemNutritionDao();
+        CollectionReference items = firestore.collection("households")
+                .document(householdId)
+                .collection(ITEMS_COLLECTION);
         
-        // 1. Push unsynced local changes
-        List<GroceryEntryEntity> unsyncedEntries = groceryDao.getUnsyncedEntries();
-        for (GroceryEntryEntity entity : unsyncedEntries) {
-            if (entity.householdId.equals(householdId)) {
-                if (entity.isDeleted) {
-                    firestore.collection("households")
-                            .document(householdId)
-                            .collection("groceryLists")
-                            .document(entity.listId)
-                            .collection("entries")
-                            .document(entity.id)
-                            .delete()
-                            .addOnSuccessListener(aVoid -> {
-                                groceryDao.markAsSynced(entity.id);
-                                Log.d(TAG, "Deleted grocery entry from Firestore: " + entity.id);
-                            });
+        return pullCollection(householdId, ITEMS_COLLECTION, items, documents -> {
+            List<FirestoreItem> remoteItems = new ArrayList<>(documents.size());
+            List<String> ids = new ArrayList<>(documents.size());
+            for (DocumentSnapshot doc : documents) {
+                FirestoreItem firestoreItem = doc.toObject(FirestoreItem.class);
+                if (firestoreItem != null) {
+                    remoteItems.add(firestoreItem);
+                    ids.add(firestoreItem.id);
+                }
+            }
+            Map<String, SyncState> localItems = indexById(itemDao.getSyncStatesSync(ids));
+            
+            List<ItemEntity> upserts = new ArrayList<>();
+            List<ItemNutritionEntity> nutritionRows = new ArrayList<>(); // Parallel to upserts; null where the item has none
+            for (FirestoreItem firestoreItem : remoteItems) {
+                SyncState localItem = localItems.get(firestoreItem.id);
+                if (!shouldApply(localItem, firestoreItem.updatedAt, firestoreItem.isDeleted)) {
+                    continue;
+                }
+                ItemEntity entity = FirestoreMapper.firestoreToItemEntity(firestoreItem, householdId);
+                if (localItem != null) {
+                    // Keeps the row's local_id, which its nutrition row points at
+                    entity.localId = localItem.localId;
+                }
+                upserts.add(entity);
+                nutritionRows.add(FirestoreMapper.firestoreToNutritionEntity(firestoreItem));
+            }
+            if (upserts.isEmpty()) {
+                return;
+            }
+            
+            List<Long> insertedIds = itemDao.upsertAll(upserts);
+            List<ItemNutritionEntity> nutritionToStore = new ArrayList<>();
+            List<Long> nutritionToDrop = new ArrayList<>();
+            for (int i = 0; i < upserts.size(); i++) {
+                long localId = upserts.get(i).localId != 0 ? upserts.get(i).localId : insertedIds.get(i);
+                ItemNutritionEntity nutrition = nutritionRows.get(i);
+                if (nutrition != null) {
+                    nutrition.itemLocalId = localId;
+                    nutritionToStore.add(nutrition);
                 } else {
-                    FirestoreGroceryEntry firestoreEntry = FirestoreMapper.groceryEntityToFirestore(entity);
-                    firestore.collection("households")
-                            .document(householdId)
-                            .collection("groceryLists")
-                            .document(entity.listId)
-                            .collection("entries")
-                            .document(entity.id)
-                            .set(firestoreEntry)
-                            .addOnSuccessListener(aVoid -> {
-                                groceryDao.markAsSynced(entity.id);
-                                Log.d(TAG, "Synced grocery entry to Firestore: " + entity.id);
-                            });
+                    nutritionToDrop.add(localId);
                 }
             }
+            if (!nutritionToStore.isEmpty()) {
+                nutritionDao.insertAll(nutritionToStore);
+            }
+            if (!nutritionToDrop.isEmpty()) {
+                nutritionDao.deleteByItemLocalIds(nutritionToDrop);
+            }
+            Log.d(TAG, "Pulled " + upserts.size() + " of " + remoteItems.size() + " items from Firestore");
+        });
+    }
+    
+    private int pullGroceryEntries(String householdId, CollectionReference lists, String listId) throws Exception {
+        GroceryDao groceryDao = database.groceryDao();
+        CollectionReference entries = lists.document(listId).collection("entries");
+        
+        return pullCollection(householdId, "groceryLists/" + listId + "/entries", entries, documents -> {
+            List<FirestoreGroceryEntry> remoteEntries = new ArrayList<>(documents.size());
+            List<String> ids = new ArrayList<>(documents.size());
+            for (DocumentSnapshot doc : documents) {
+                FirestoreGroceryEntry firestoreEntry = doc.toObject(FirestoreGroceryEntry.class);
+                if (firestoreEntry != null) {
+                    remoteEntries.add(firestoreEntry);
+                    ids.add(firestoreEntry.id);
+                }
+            }
+            Map<String, SyncState> localEntries = indexById(groceryDao.getSyncStatesSync(ids));
+            
+            List<GroceryEntryEntity> upserts = new ArrayList<>();
+            for (FirestoreGroceryEntry firestoreEntry : remoteEntries) {
+                SyncState localEntry = localEntries.get(firestoreEntry.id);
+                if (!shouldApply(localEntry, firestoreEntry.updatedAt, firestoreEntry.isDeleted)) {
+                    continue;
+                }
+                GroceryEntryEntity entity = FirestoreMapper.firestoreToGroceryEntity(firestoreEntry, householdId);
+                if (localEntry != null) {
+                    entity.localId = localEntry.localId;
+                }
+                upserts.add(entity);
+            }
+            if (!upserts.isEmpty()) {
+                groceryDao.upsertAll(upserts);
+                Log.d(TAG, "Pulled " + upserts.size() + " of " + remoteEntries.size() + " grocery entries from Firestore");
+            }
+        });
+    }
+    
+    /**
+     * Conflict resolution for one pulled document: the server wins if the local row is synced,
+     * otherwise the pending local change is kept and pushed later.
+     */
+    private static boolean shouldApply(SyncState local, Date remoteUpdatedAt, boolean remoteDeleted) {
+        if (local == null) {
+            // A tombstone for a row this device never saw
+            return !remoteDeleted;
+        }
+        // Rewriting an identical row would still invalidate every pantry query
+        return local.isSynced && !isSameVersion(local.updatedAt, remoteUpdatedAt);
+    }
+    
+    private static Map<String, SyncState> indexById(List<SyncState> states) {
+        Map<String, SyncState> byId = new HashMap<>(states.size() * 2);
+        for (SyncState state : states) {
+            byId.put(state.id, state);
+        }
+        return byId;
+    }
+    
+    /**
+     * Applies at most one page of pulled documents on the pulling thread, inside the page's transaction.
+     */
+    private interface PageHandler {
+        void apply(List<DocumentSnapshot> documents);
+    }
+    
+    /**
+     * Pulls the documents of a collection written since its watermark, page by page.
+     * Without a watermark the collection is read whole once: documents written before
+     * watermarks existed have no serverUpdatedAt and never match the ordered query. A single
+     * query is a consistent snapshot, so anything it missed was written after everything it
+     * returned and is picked up from the watermark it leaves.
+     *
+     * @return documents read
+     */
+    private int pullCollection(String householdId, String collectionPath, CollectionReference collection,
+                               PageHandler handler) throws Exception {
+        SyncWatermarkEntity watermark = database.syncWatermarkDao().getSync(householdId, collectionPath);
+        if (watermark == null) {
+            List<DocumentSnapshot> documents = await(collection::get).getDocuments();
+            applyPage(new SyncWatermarkEntity(householdId, collectionPath), documents, handler);
+            return documents.size();
         }
         
-        // 2. Pull remote changes
-        firestore.collection("households")
-                .document(householdId)
-                .collection("groceryLists")
-                .get()
-                .addOnSuccessListener(listSnapshots -> {
-                    for (DocumentSnapshot listDoc : listSnapshots.getDocuments()) {
-                        String listId = listDoc.getId();
-                        
-                        firestore.collection("households")
-                                .document(householdId)
-                                .collection("groceryLists")
-                                .document(listId)
-                                .collection("entries")
-                                .get()
-                                .addOnSuccessListener(entrySnapshots -> {
-                                    for (DocumentSnapshot doc : entrySnapshots.getDocuments()) {
-                                        FirestoreGroceryEntry firestoreEntry = doc.toObject(FirestoreGroceryEntry.class);
-                                        if (firestoreEntry != null) {
-                                            GroceryEntryEntity localEntry = groceryDao.getEntryByIdSync(firestoreEntry.id);
-                                            
-                                            if (localEntry == null || localEntry.isSynced) {
-                                                GroceryEntryEntity entity = FirestoreMapper.firestoreToGroceryEntity(firestoreEntry, householdId);
-                                                groceryDao.insert(entity);
-                                                Log.d(TAG, "Pulled grocery entry from Firestore: " + entity.id);
-                                            }
-                                        }
-                                    }
-                                });
-                    }
-                });
+        int pulled = 0;
+        List<DocumentSnapshot> documents;
+        do {
+            Query query = collection.orderBy(FIELD_SERVER_UPDATED_AT)
+                    .orderBy(FieldPath.documentId())
+                    .limit(PULL_PAGE_SIZE);
+            if (watermark.serverUpdatedMicros != null) {
+                // Same as whereGreaterThan on the time, but documents sharing the last time are not skipped
+                query = query.startAfter(toTimestamp(watermark.serverUpdatedMicros), watermark.documentId);
+            }
+            documents = await(query::get).getDocuments();
+            applyPage(watermark, documents, handler);
+            pulled += documents.size();
+        } while (documents.size() == PULL_PAGE_SIZE && !isStopped());
+        return pulled;
+    }
+    
+    /**
+     * Applies the documents and moves the watermark past them in one transaction, so observers
+     * of the pulled tables see one invalidation per page and a crash never skips documents.
+     * A full read is handed to the handler in chunks of at most a page, which keeps its
+     * IN lists under SQLite's bound-variable limit.
+     */
+    private void applyPage(SyncWatermarkEntity watermark, List<DocumentSnapshot> documents, PageHandler handler) {
+        database.runInTransaction(() -> {
+            for (int from = 0; from < documents.size(); from += PULL_PAGE_SIZE) {
+                handler.apply(documents.subList(from, Math.min(from + PULL_PAGE_SIZE, documents.size())));
+            }
+            for (DocumentSnapshot doc : documents) {
+                watermark.advance(toMicros(doc.getTimestamp(FIELD_SERVER_UPDATED_AT)), doc.getId());
+            }
+            database.syncWatermarkDao().upsert(watermark);
+        });
+        Log.d(TAG, "Pulled " + documents.size() + " documents of " + watermark.collection);
+    }
+    
+    /**
+     * Starts a Firestore call and waits for its result, holding one of the process-wide RPC permits meanwhile.
+     */
+    private static <T> T await(Callable<Task<T>> call) throws Exception {
+        RPC_PERMITS.acquire();
+        try {
+            return Tasks.await(call.call(), RPC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            RPC_PERMITS.release();
+        }
+    }
+    
+    private static Long toMicros(Timestamp timestamp) {
+        return timestamp != null ? timestamp.getSeconds() * 1_000_000L + timestamp.getNanoseconds() / 1000 : null;
+    }
+    
+    private static Timestamp toTimestamp(long micros) {
+        return new Timestamp(Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1000);
+    }
+    
+    /**
+     * True when the remote document carries the update already stored locally.
+     */
+    private static boolean isSameVersion(Date localUpdatedAt, Date remoteUpdatedAt) {
+        return localUpdatedAt != null && localUpdatedAt.equals(remoteUpdatedAt);
     }
 }
 
@@ -3,11 +3,6 @@ package com.kitchenkompanion.data.repo;
 import android.content.Context;
 import android.util.Log;
 
-import androidx.lifecycle.LiveData;
-import androidx.work.Constraints;
-import androidx.work.Data;
-import androidx.work.NetworkType;
-import androidx.work.OneTimeWorkRequest;
 import androidx.work.WorkManager;
 
 import com.google.firebase.auth.FirebaseAuth;
@@ -16,10 +11,14 @@ import com.kitchenkompanion.KitchenKompanionApp;
 import com.kitchenkompanion.data.local.AppDatabase;
 import com.kitchenkompanion.data.local.GroceryDao;
 import com.kitchenkompanion.data.local.GroceryEntryEntity;
-import com.kitchenkompanion.data.local.ItemDao;
+import com.kitchenkompanion.data.local.GroceryRow;
 import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.ItemUsageDao;
+import com.kitchenkompanion.data.local.SyncOpDao;
+import com.kitchenkompanion.data.local.SyncOpEntity;
+import com.kitchenkompanion.utils.DateUtils;
 
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -32,16 +31,23 @@ import java.util.concurrent.Executors;
 public class GroceryRepository {
     
     private static final String TAG = "GroceryRepository";
+    
+    /** Items forecast to run out within this many days go on the list with the low-stock ones; about one shopping trip. */
+    public static final int RUN_OUT_HORIZON_DAYS = 7;
+    
+    private final AppDatabase database;
     private final GroceryDao groceryDao;
-    private final ItemDao itemDao;
+    private final ItemUsageDao itemUsageDao;
+    private final SyncOpDao syncOpDao;
     private final WorkManager workManager;
     private final ExecutorService executorService;
     private final Context context;
     
     public GroceryRepository(Context context) {
-        AppDatabase database = AppDatabase.getInstance(context);
+        this.database = AppDatabase.getInstance(context, getHouseholdId());
         this.groceryDao = database.groceryDao();
-        this.itemDao = database.itemDao();
+        this.itemUsageDao = database.itemUsageDao();
+        this.syncOpDao = database.syncOpDao();
         this.workManager = WorkManager.getInstance(context);
         this.executorService = Executors.newSingleThreadExecutor();
         this.context = context;
@@ -51,16 +57,20 @@ public class GroceryRepository {
         return KitchenKompanionApp.getInstance().getCurrentHouseholdId();
     }
     
+    private PantrySnapshotCache pantrySnapshots(String householdId) {
+        return PantrySnapshotCache.getInstance(context, householdId);
+    }
+    
     /**
-     * Get all grocery entries for current household
+     * Get all grocery entries for current household; re-runs that return the same list are dropped
      */
-    public LiveData<List<GroceryEntryEntity>> getAllEntries() {
+    public DistinctLiveData<List<GroceryRow>> getAllEntries() {
         String householdId = getHouseholdId();
         if (householdId == null) {
             Log.w(TAG, "No household ID available");
             return null;
         }
-        return groceryDao.getAllEntries(householdId);
+        return new DistinctLiveData<>(groceryDao.getAllEntries(householdId));
     }
     
     /**
@@ -81,47 +91,69 @@ public class GroceryRepository {
             entry.createdAt = new Date();
             entry.updatedAt = new Date();
             entry.isSynced = false;
-            groceryDao.insert(entry);
+            database.runInTransaction(() -> {
+                groceryDao.insert(entry);
+                syncOpDao.insert(SyncOpEntity.upsert(householdId, SyncOpEntity.TYPE_GROCERY_ENTRY, entry.id));
+            });
             
             scheduleSyncWork(householdId);
         });
     }
     
     /**
-     * Update checked status of an entry
+     * Update checked status of an entry, addressed by its local_id
      */
-    public void updateCheckedStatus(long entryId, boolean checked) {
+    public void updateCheckedStatus(long localId, boolean checked) {
         String householdId = getHouseholdId();
         if (householdId == null) return;
         
         executorService.execute(() -> {
-            groceryDao.updateCheckedStatus(String.valueOf(entryId), checked, new Date());
+            database.runInTransaction(() -> {
+                String id = groceryDao.getIdSync(localId);
+                if (id == null) return;
+                groceryDao.updateCheckedStatus(localId, checked, new Date());
+                syncOpDao.insert(SyncOpEntity.upsert(householdId, SyncOpEntity.TYPE_GROCERY_ENTRY, id));
+            });
             scheduleSyncWork(householdId);
         });
     }
     
     /**
-     * Delete an entry
+     * Delete an entry, addressed by its local_id
      */
-    public void delete(long entryId) {
+    public void delete(long localId) {
         String householdId = getHouseholdId();
         if (householdId == null) return;
         
         executorService.execute(() -> {
-            groceryDao.softDelete(String.valueOf(entryId), new Date());
+            database.runInTransaction(() -> {
+                String id = groceryDao.getIdSync(localId);
+                if (id == null) return;
+                groceryDao.softDelete(localId, new Date());
+                syncOpDao.insert(SyncOpEntity.delete(householdId, SyncOpEntity.TYPE_GROCERY_ENTRY, id));
+            });
             scheduleSyncWork(householdId);
         });
     }
     
     /**
-     * Delete all checked items
+     * Delete all checked items (soft delete, so the removal syncs to other devices)
      */
     public void deleteCheckedItems() {
         String householdId = getHouseholdId();
         if (householdId == null) return;
         
         executorService.execute(() -> {
-            groceryDao.deleteCheckedItems(householdId);
+            database.runInTransaction(() -> {
+                List<String> checkedIds = groceryDao.getCheckedEntryIdsSync(householdId);
+                groceryDao.softDeleteCheckedItems(householdId, new Date());
+                
+                List<SyncOpEntity> ops = new ArrayList<>(checkedIds.size());
+                for (String id : checkedIds) {
+                    ops.add(SyncOpEntity.delete(householdId, SyncOpEntity.TYPE_GROCERY_ENTRY, id));
+                }
+                syncOpDao.insertAll(ops);
+            });
             scheduleSyncWork(householdId);
         });
     }
@@ -135,32 +167,11 @@ public class GroceryRepository {
         
         executorService.execute(() -> {
             // Get items expiring in the next 7 days
-            Calendar calendar = Calendar.getInstance();
-            calendar.add(Calendar.DAY_OF_YEAR, 7);
-            Date sevenDaysFromNow = calendar.getTime();
+            int sevenDaysFromNow = DateUtils.epochDayFromToday(7);
             
-            List<ItemEntity> expiringItems = itemDao.getExpiringItemsSync(householdId, sevenDaysFromNow);
+            List<ItemEntity> expiringItems = pantrySnapshots(householdId).get().getExpiringBy(sevenDaysFromNow);
             
-            for (ItemEntity item : expiringItems) {
-                // Check if already in grocery list
-                GroceryEntryEntity existing = groceryDao.findByNameSync(householdId, item.name);
-                if (existing == null) {
-                    GroceryEntryEntity entry = new GroceryEntryEntity();
-                    entry.id = UUID.randomUUID().toString();
-                    entry.householdId = householdId;
-                    entry.listId = "default";
-                    entry.name = item.name;
-                    entry.quantity = item.quantity;
-                    entry.unit = item.unit;
-                    entry.source = "expiring";
-                    entry.checked = false;
-                    entry.createdAt = new Date();
-                    entry.updatedAt = new Date();
-                    entry.isSynced = false;
-                    
-                    groceryDao.insert(entry);
-                }
-            }
+            database.runInTransaction(() -> insertGeneratedEntries(householdId, expiringItems, "expiring"));
             
             Log.i(TAG, "Generated " + expiringItems.size() + " items from expiring pantry");
             scheduleSyncWork(householdId);
@@ -168,56 +179,61 @@ public class GroceryRepository {
     }
     
     /**
-     * Auto-generate grocery items from low stock pantry items
+     * Auto-generate grocery items from low stock pantry items and from items whose
+     * usage rate says they run out within {@link #RUN_OUT_HORIZON_DAYS}
      */
     public void generateFromLowStock() {
         String householdId = getHouseholdId();
         if (householdId == null) return;
         
         executorService.execute(() -> {
-            List<ItemEntity> lowStockItems = itemDao.getLowStockItemsSync(householdId);
+            List<ItemEntity> lowStockItems = pantrySnapshots(householdId).get().getLowStock();
+            // Stored rates decayed to now; the consumption history is not re-read
+            List<ItemEntity> runningOutItems = itemUsageDao.getRunningOutSync(householdId, RUN_OUT_HORIZON_DAYS, new Date());
             
-            for (ItemEntity item : lowStockItems) {
-                // Check if already in grocery list
-                GroceryEntryEntity existing = groceryDao.findByNameSync(householdId, item.name);
-                if (existing == null) {
-                    GroceryEntryEntity entry = new GroceryEntryEntity();
-                    entry.id = UUID.randomUUID().toString();
-                    entry.householdId = householdId;
-                    entry.listId = "default";
-                    entry.name = item.name;
-                    entry.quantity = item.quantity;
-                    entry.unit = item.unit;
-                    entry.source = "low-stock";
-                    entry.checked = false;
-                    entry.createdAt = new Date();
-                    entry.updatedAt = new Date();
-                    entry.isSynced = false;
-                    
-                    groceryDao.insert(entry);
-                }
-            }
+            database.runInTransaction(() -> {
+                insertGeneratedEntries(householdId, lowStockItems, "low-stock");
+                insertGeneratedEntries(householdId, runningOutItems, "running-out");
+            });
             
-            Log.i(TAG, "Generated " + lowStockItems.size() + " items from low stock");
+            Log.i(TAG, "Generated " + lowStockItems.size() + " items from low stock, "
+                    + runningOutItems.size() + " running out");
             scheduleSyncWork(householdId);
         });
     }
     
+    /**
+     * Adds a grocery entry for each pantry item not already on the list,
+     * with one outbox op per entry. Caller runs this inside a transaction.
+     */
+    private void insertGeneratedEntries(String householdId, List<ItemEntity> items, String source) {
+        List<SyncOpEntity> ops = new ArrayList<>();
+        for (ItemEntity item : items) {
+            // Check if already in grocery list
+            GroceryEntryEntity existing = groceryDao.findByNameSync(householdId, item.name);
+            if (existing == null) {
+                GroceryEntryEntity entry = new GroceryEntryEntity();
+                entry.id = UUID.randomUUID().toString();
+                entry.householdId = householdId;
+                entry.listId = "default";
+                entry.name = item.name;
+                entry.quantity = item.quantity;
+                entry.unit = item.unit;
+                entry.source = source;
+                entry.isChecked = false;
+                entry.createdAt = new Date();
+                entry.updatedAt = new Date();
+                entry.isSynced = false;
+                
+                groceryDao.insert(entry);
+                ops.add(SyncOpEntity.upsert(householdId, SyncOpEntity.TYPE_GROCERY_ENTRY, entry.id));
+            }
+        }
+        syncOpDao.insertAll(ops);
+    }
+    
     private void scheduleSyncWork(String householdId) {
-        Data inputData = new Data.Builder()
-                .putString("householdId", householdId)
-                .build();
-        
-        Constraints constraints = new Constraints.Builder()
-                .setRequiredNetworkType(NetworkType.CONNECTED)
-                .build();
-        
-        OneTimeWorkRequest syncWork = new OneTimeWorkRequest.Builder(FirebaseSyncWorker.class)
-                .setConstraints(constraints)
-                .setInputData(inputData)
-                .build();
-        
-        workManager.enqueue(syncWork);
+        SyncScheduler.requestSync(workManager, householdId);
     }
 }
 
@@ -1,141 +1,341 @@
 package com.kitchenkompanion.data.repo;
 
 import android.content.Context;
+import android.util.Log;
 
 import androidx.lifecycle.LiveData;
-import androidx.work.Constraints;
-import androidx.work.Data;
-import androidx.work.NetworkType;
-import androidx.work.OneTimeWorkRequest;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 import androidx.work.WorkManager;
 
 import com.kitchenkompanion.data.local.AppDatabase;
+import com.kitchenkompanion.data.local.ItemConsumptionEntity;
 import com.kitchenkompanion.data.local.ItemDao;
 import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.ItemNutritionDao;
+import com.kitchenkompanion.data.local.ItemNutritionEntity;
+import com.kitchenkompanion.data.local.ItemUsageDao;
+import com.kitchenkompanion.data.local.ItemUsageEntity;
+import com.kitchenkompanion.data.local.PantryRow;
+import com.kitchenkompanion.data.local.SyncOpDao;
+import com.kitchenkompanion.data.local.SyncOpEntity;
 import com.kitchenkompanion.utils.DateUtils;
 
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Repository for pantry items.
  * Coordinates between Room (local) and Firestore (remote) via WorkManager.
+ * Writes are buffered briefly and committed together; see {@link ItemWriteCoalescer}.
  */
 public class ItemRepository {
     
+    private static final String TAG = "ItemRepository";
+    
+    /** Page size for the pantry list; roughly two screens of item cards. */
+    private static final int PAGE_SIZE = 30;
+    /** Pages further than this from the viewport are dropped from memory. */
+    private static final int MAX_LOADED_ITEMS = PAGE_SIZE * 5;
+    /** Writes arriving within this long of the first buffered one are committed together. */
+    private static final long WRITE_WINDOW_MS = 300;
+    
+    private final AppDatabase database;
     private final ItemDao itemDao;
+    private final ItemNutritionDao itemNutritionDao;
+    private final ItemUsageDao itemUsageDao;
+    private final SyncOpDao syncOpDao;
     private final WorkManager workManager;
-    private final ExecutorService executorService;
+    private final ScheduledExecutorService executorService;
+    private final ItemWriteCoalescer writeCoalescer = new ItemWriteCoalescer();
     
-    public ItemRepository(Context context) {
-        AppDatabase database = AppDatabase.getInstance(context);
+    public ItemRepository(Context context, String householdId) {
+        this.database = AppDatabase.getInstance(context, householdId);
         this.itemDao = database.itemDao();
+        this.itemNutritionDao = database.itemNutritionDao();
+        this.itemUsageDao = database.itemUsageDao();
+        this.syncOpDao = database.syncOpDao();
         this.workManager = WorkManager.getInstance(context);
-        this.executorService = Executors.newSingleThreadExecutor();
+        this.executorService = Executors.newSingleThreadScheduledExecutor();
+    }
+    
+    /**
+     * Get all items for a household; re-runs that return the same rows are dropped
+     */
+    public DistinctLiveData<List<PantryRow>> getAllItems(String householdId) {
+        return new DistinctLiveData<>(itemDao.getAllItems(householdId));
+    }
+    
+    /**
+     * Get items by location; re-runs that return the same rows are dropped
+     */
+    public DistinctLiveData<List<PantryRow>> getItemsByLocation(String householdId, String location) {
+        return new DistinctLiveData<>(itemDao.getItemsByLocation(householdId, location));
+    }
+    
+    /**
+     * Get items expiring within N days; re-runs that return the same rows are dropped
+     */
+    public DistinctLiveData<List<PantryRow>> getExpiringItems(String householdId, int days) {
+        int lastDay = DateUtils.epochDayFromToday(days);
+        return new DistinctLiveData<>(itemDao.getExpiringItems(householdId, lastDay));
+    }
+    
+    /**
+     * Get all items for a household, loaded page by page
+     */
+    public LiveData<PagingData<PantryRow>> getAllItemsPaged(String householdId) {
+        return PagingLiveData.getLiveData(new Pager<>(
+                pagingConfig(),
+                () -> itemDao.getAllItemsPaged(householdId)));
+    }
+    
+    /**
+     * Get items by location, loaded page by page
+     */
+    public LiveData<PagingData<PantryRow>> getItemsByLocationPaged(String householdId, String location) {
+        return PagingLiveData.getLiveData(new Pager<>(
+                pagingConfig(),
+                () -> itemDao.getItemsByLocationPaged(householdId, location)));
+    }
+    
+    /**
+     * Get items expiring within N days, loaded page by page
+     */
+    public LiveData<PagingData<PantryRow>> getExpiringItemsPaged(String householdId, int days) {
+        int lastDay = DateUtils.epochDayFromToday(days);
+        return PagingLiveData.getLiveData(new Pager<>(
+                pagingConfig(),
+                () -> itemDao.getExpiringItemsPaged(householdId, lastDay)));
     }
     
     /**
-     * Get all items for a household
+     * Full-text search over item name, notes and barcode, loaded page by page.
+     * Each whitespace-separated term is prefix-matched; all terms must match.
      */
-    public LiveData<List<ItemEntity>> getAllItems(String householdId) {
-        return itemDao.getAllItems(householdId);
+    public LiveData<PagingData<PantryRow>> searchItemsPaged(String householdId, String query) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0) {
+            return getAllItemsPaged(householdId);
+        }
+        
+        StringBuilder ftsQuery = new StringBuilder();
+        for (String term : terms) {
+            if (ftsQuery.length() > 0) ftsQuery.append(' ');
+            ftsQuery.append(term).append('*');
+        }
+        String match = ftsQuery.toString();
+        return PagingLiveData.getLiveData(new Pager<>(
+                pagingConfig(),
+                () -> itemDao.searchItemsPaged(householdId, match, terms[0])));
     }
     
     /**
-     * Get items by location
+     * Splits user input into FTS-safe terms, dropping MATCH operators and quotes.
      */
-    public LiveData<List<ItemEntity>> getItemsByLocation(String householdId, String location) {
-        return itemDao.getItemsByLocation(householdId, location);
+    private static String[] tokenize(String query) {
+        if (query == null) return new String[0];
+        String cleaned = query.replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return cleaned.isEmpty() ? new String[0] : cleaned.split(" +");
+    }
+    
+    private static PagingConfig pagingConfig() {
+        // Placeholders off: unloaded rows are never bound, so bind cost follows the viewport
+        return new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2, MAX_LOADED_ITEMS);
     }
     
     /**
-     * Get items expiring within N days
+     * Get a single item by ID. Unchanged re-emissions are dropped so the edit screen is not
+     * repopulated, discarding the user's input, when a sync only touches other rows.
      */
-    public LiveData<List<ItemEntity>> getExpiringItems(String householdId, int days) {
-        Date expiryDate = DateUtils.addDays(new Date(), days);
-        return itemDao.getExpiringItems(householdId, expiryDate);
+    public DistinctLiveData<ItemEntity> getItemById(String itemId) {
+        return new DistinctLiveData<>(itemDao.getItemById(itemId));
     }
     
     /**
-     * Get a single item by ID
+     * Get the nutrition facts of an item; only the detail screen should ask for these
      */
-    public LiveData<ItemEntity> getItemById(String itemId) {
-        return itemDao.getItemById(itemId);
+    public LiveData<ItemNutritionEntity> getNutrition(String itemId) {
+        return itemNutritionDao.getByItemId(itemId);
+    }
+    
+    /**
+     * Get the usage rate of an item, for its "runs out in N days" forecast; null until it has been used
+     */
+    public LiveData<ItemUsageEntity> getUsage(String itemId) {
+        return itemUsageDao.getByItemId(itemId);
+    }
+    
+    /**
+     * Live items that won't last the given number of days at their usage rate. Call off the main thread.
+     */
+    public List<ItemEntity> getRunningOutSync(String householdId, int days) {
+        return itemUsageDao.getRunningOutSync(householdId, days, new Date());
     }
     
     /**
      * Insert a new item
      */
     public void insert(ItemEntity item, String householdId) {
-        executorService.execute(() -> {
-            if (item.id == null || item.id.isEmpty()) {
-                item.id = UUID.randomUUID().toString();
-            }
-            item.householdId = householdId;
-            item.createdAt = new Date();
-            item.updatedAt = new Date();
-            item.isSynced = false;
-            itemDao.insert(item);
-            
-            // Trigger sync
-            scheduleSyncWork(householdId);
-        });
+        insert(item, null, householdId);
+    }
+    
+    /**
+     * Insert a new item together with its nutrition facts (may be null)
+     */
+    public void insert(ItemEntity item, ItemNutritionEntity nutrition, String householdId) {
+        if (item.id == null || item.id.isEmpty()) {
+            item.id = UUID.randomUUID().toString();
+        }
+        item.householdId = householdId;
+        item.createdAt = new Date();
+        item.updatedAt = item.createdAt;
+        buffer(new ItemWriteCoalescer.PendingWrite(ItemWriteCoalescer.Kind.INSERT, item.id, householdId, item, nutrition));
     }
     
     /**
-     * Update an existing item
+     * Update an existing item. A lower quantity in the same unit is logged as a use
+     * and folded into the item's usage rate; edits merged within one window count as one use.
      */
     public void update(ItemEntity item, String householdId) {
-        executorService.execute(() -> {
-            item.updatedAt = new Date();
-            item.isSynced = false;
-            itemDao.update(item);
-            
-            // Trigger sync
-            scheduleSyncWork(householdId);
-        });
+        // Merged into a pending insert, this entity is what gets inserted
+        item.householdId = householdId;
+        item.updatedAt = new Date();
+        buffer(new ItemWriteCoalescer.PendingWrite(ItemWriteCoalescer.Kind.UPDATE, item.id, householdId, item, null));
     }
     
     /**
      * Delete an item (soft delete)
      */
     public void delete(String itemId, String householdId) {
-        executorService.execute(() -> {
-            itemDao.softDelete(itemId, new Date());
-            
-            // Trigger sync
-            scheduleSyncWork(householdId);
-        });
+        buffer(new ItemWriteCoalescer.PendingWrite(ItemWriteCoalescer.Kind.DELETE, itemId, householdId, null, null));
     }
     
     /**
-     * Schedule a sync work request
+     * Commits buffered writes now instead of at the end of the window. Call when the screen
+     * that made them goes away; the returned future completes once they are on disk.
      */
-    private void scheduleSyncWork(String householdId) {
-        Data inputData = new Data.Builder()
-                .putString("householdId", householdId)
-                .build();
+    public Future<?> flush() {
+        return executorService.submit(this::commitPendingWrites);
+    }
+    
+    private void buffer(ItemWriteCoalescer.PendingWrite write) {
+        if (writeCoalescer.add(write)) {
+            executorService.schedule(this::commitPendingWrites, WRITE_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Writes everything buffered in one transaction, one outbox op per item, then schedules one sync.
+     */
+    private void commitPendingWrites() {
+        List<ItemWriteCoalescer.PendingWrite> writes = writeCoalescer.drain();
+        if (writes.isEmpty()) return;
         
-        Constraints constraints = new Constraints.Builder()
-                .setRequiredNetworkType(NetworkType.CONNECTED)
-                .build();
+        Set<String> households = new LinkedHashSet<>();
+        database.runInTransaction(() -> {
+            for (ItemWriteCoalescer.PendingWrite write : writes) {
+                boolean written;
+                switch (write.kind) {
+                    case INSERT:
+                        written = commitInsert(write.item, write.nutrition);
+                        break;
+                    case UPDATE:
+                        written = commitUpdate(write.item);
+                        break;
+                    default:
+                        itemDao.softDelete(write.itemId, new Date());
+                        written = true;
+                }
+                if (written) {
+                    syncOpDao.insert(write.kind == ItemWriteCoalescer.Kind.DELETE
+                            ? SyncOpEntity.delete(write.householdId, SyncOpEntity.TYPE_ITEM, write.itemId)
+                            : SyncOpEntity.upsert(write.householdId, SyncOpEntity.TYPE_ITEM, write.itemId));
+                    households.add(write.householdId);
+                }
+            }
+        });
+        Log.d(TAG, "Committed " + writes.size() + " item writes, " + writeCoalescer.getMergedCount() + " merged so far");
         
-        OneTimeWorkRequest syncWork = new OneTimeWorkRequest.Builder(FirebaseSyncWorker.class)
-                .setConstraints(constraints)
-                .setInputData(inputData)
-                .build();
+        // Trigger sync
+        for (String householdId : households) {
+            scheduleSyncWork(householdId);
+        }
+    }
+    
+    private boolean commitInsert(ItemEntity item, ItemNutritionEntity nutrition) {
+        if (item.createdAt == null) {
+            item.createdAt = item.updatedAt;
+        }
+        item.expiryDay = DateUtils.toEpochDay(item.expiryDate);
+        item.isSynced = false;
+        item.localId = itemDao.insert(item);
+        if (nutrition != null && !nutrition.isEmpty()) {
+            nutrition.itemLocalId = item.localId;
+            itemNutritionDao.insert(nutrition);
+        }
+        return true;
+    }
+    
+    private boolean commitUpdate(ItemEntity item) {
+        // The edit screen builds a fresh entity from the UUID; @Update matches on local_id
+        ItemEntity current = itemDao.getItemByIdSync(item.id);
+        if (current == null) return false;
+        item.localId = current.localId;
+        item.createdAt = current.createdAt;
+        item.expiryDay = DateUtils.toEpochDay(item.expiryDate);
+        item.isSynced = false;
+        itemDao.update(item);
+        if (item.quantity < current.quantity && sameUnit(item.unit, current.unit)) {
+            recordUse(current, item);
+        }
+        return true;
+    }
+    
+    /**
+     * Appends the use to the log and updates the rate from its stored state only. Caller runs this in a transaction.
+     */
+    private void recordUse(ItemEntity before, ItemEntity after) {
+        ItemConsumptionEntity use = new ItemConsumptionEntity(before, after);
+        itemUsageDao.insertConsumption(use);
         
-        workManager.enqueue(syncWork);
+        ItemUsageEntity usage = itemUsageDao.getByItemLocalIdSync(before.localId);
+        if (usage == null) {
+            usage = new ItemUsageEntity(before);
+        }
+        // The quantity being lowered was last set when the item was last edited
+        usage.record(use.amount, use.consumedAt, before.updatedAt != null ? before.updatedAt : before.createdAt);
+        itemUsageDao.upsert(usage);
+    }
+    
+    /**
+     * The edit screen saves an empty unit field as "" where synced rows have null.
+     */
+    private static boolean sameUnit(String a, String b) {
+        return (a == null ? "" : a.trim()).equalsIgnoreCase(b == null ? "" : b.trim());
+    }
+    
+    /**
+     * Debounced: edits made within a few seconds of each other share one sync
+     */
+    private void scheduleSyncWork(String householdId) {
+        SyncScheduler.requestSync(workManager, householdId);
     }
     
     /**
-     * Force sync now
+     * Force sync now, as expedited work
      */
     public void forceSync(String householdId) {
-        scheduleSyncWork(householdId);
+        SyncScheduler.syncNow(workManager, householdId);
     }
 }
 
@@ -0,0 +1,90 @@
+package com.kitchenkompanion.data.repo;
+
+import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.ItemNutritionEntity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers item writes for a short window and merges the ones that hit the same item.
+ *
+ * Quick edits and swipe-deletes otherwise cost a transaction, a table invalidation and a
+ * sync enqueue each. Writes are keyed by item UUID and merged as they arrive:
+ * insert + update stays an insert of the latest fields, insert + delete cancels out,
+ * update + update keeps the latest fields, and a delete wins over everything else.
+ * {@link ItemRepository} drains the buffer and commits it in one transaction.
+ *
+ * Thread-safe; writes are added on the caller's thread and drained on the repository's.
+ */
+class ItemWriteCoalescer {
+    
+    enum Kind { INSERT, UPDATE, DELETE }
+    
+    static final class PendingWrite {
+        final Kind kind;
+        final String itemId;
+        final String householdId;
+        final ItemEntity item; // Null for a delete
+        final ItemNutritionEntity nutrition; // Inserts only; may be null
+        
+        PendingWrite(Kind kind, String itemId, String householdId, ItemEntity item, ItemNutritionEntity nutrition) {
+            this.kind = kind;
+            this.itemId = itemId;
+            this.householdId = householdId;
+            this.item = item;
+            this.nutrition = nutrition;
+        }
+    }
+    
+    // Insertion order is kept so ops reach the outbox in the order the items were first touched
+    private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    private int merged;
+    
+    /**
+     * Adds a write, merging it with a pending one for the same item.
+     *
+     * @return true if the buffer was empty, so the caller should schedule a flush
+     */
+    synchronized boolean add(PendingWrite write) {
+        boolean wasEmpty = pending.isEmpty();
+        PendingWrite previous = pending.get(write.itemId);
+        if (previous == null) {
+            pending.put(write.itemId, write);
+            return wasEmpty;
+        }
+        merged++;
+        if (previous.kind == Kind.DELETE) {
+            // The item is gone; a late edit from a screen that still showed it must not bring it back
+            return false;
+        }
+        if (write.kind == Kind.DELETE && previous.kind == Kind.INSERT) {
+            // Never reached the database, so there is nothing to delete or sync
+            pending.remove(write.itemId);
+        } else if (write.kind == Kind.UPDATE && previous.kind == Kind.INSERT) {
+            pending.put(write.itemId, new PendingWrite(Kind.INSERT, write.itemId, write.householdId,
+                    write.item, previous.nutrition));
+        } else {
+            pending.put(write.itemId, write);
+        }
+        return false;
+    }
+    
+    /**
+     * Removes and returns every pending write.
+     */
+    synchronized List<PendingWrite> drain() {
+        List<PendingWrite> writes = new ArrayList<>(pending.values());
+        pending.clear();
+        return writes;
+    }
+    
+    /**
+     * Number of writes folded into an earlier one since this buffer was created.
+     */
+    synchronized int getMergedCount() {
+        return merged;
+    }
+}
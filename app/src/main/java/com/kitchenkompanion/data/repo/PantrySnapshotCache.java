@@ -0,0 +1,152 @@
+package com.kitchenkompanion.data.repo;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.room.InvalidationTracker;
+
+import com.kitchenkompanion.data.local.AppDatabase;
+import com.kitchenkompanion.data.local.ItemEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Process-wide, per-household snapshot of the pantry.
+ *
+ * The AI assistant, recipe search and grocery generation all need the whole pantry on each
+ * button press. The first request loads it once; later requests read the snapshot until
+ * Room's InvalidationTracker reports a write to the items table, which drops it.
+ *
+ * Call {@link #get()} off the main thread; it queries the database when the snapshot is stale.
+ */
+public class PantrySnapshotCache {
+    
+    private static final String TAG = "PantrySnapshotCache";
+    
+    private static final Map<String, PantrySnapshotCache> INSTANCES = new HashMap<>();
+    
+    private final AppDatabase database;
+    private final String householdId;
+    private volatile PantrySnapshot snapshot;
+    // Bumped on every invalidation so a load that raced a write is not published
+    private volatile int generation;
+    
+    private PantrySnapshotCache(AppDatabase database, String householdId) {
+        this.database = database;
+        this.householdId = householdId;
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("items") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                generation++;
+                snapshot = null;
+            }
+        });
+    }
+    
+    public static PantrySnapshotCache getInstance(Context context, @NonNull String householdId) {
+        AppDatabase database = AppDatabase.getInstance(context, householdId);
+        synchronized (INSTANCES) {
+            PantrySnapshotCache cache = INSTANCES.get(householdId);
+            // A household database that was closed and reopened is a new instance with its own tracker
+            if (cache == null || cache.database != database) {
+                cache = new PantrySnapshotCache(database, householdId);
+                INSTANCES.put(householdId, cache);
+            }
+            return cache;
+        }
+    }
+    
+    /**
+     * Current pantry of the household, loading it first if a write made the last snapshot stale.
+     */
+    @WorkerThread
+    public PantrySnapshot get() {
+        PantrySnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            int loadedGeneration = generation;
+            current = new PantrySnapshot(database.itemDao().getAllItemsSync(householdId));
+            if (loadedGeneration == generation) {
+                snapshot = current;
+            }
+            Log.d(TAG, "Loaded " + current.size() + " items for household " + householdId);
+            return current;
+        }
+    }
+    
+    /**
+     * Immutable view of the household's live items, sorted by expiry day (undated first) and indexed by id.
+     * The entities are shared between callers and must be treated as read-only.
+     */
+    public static final class PantrySnapshot {
+        
+        private final List<ItemEntity> items;
+        private final Map<String, ItemEntity> itemsById;
+        
+        PantrySnapshot(List<ItemEntity> sortedItems) {
+            Map<String, ItemEntity> byId = new LinkedHashMap<>();
+            for (ItemEntity item : sortedItems) {
+                byId.put(item.id, item);
+            }
+            this.items = Collections.unmodifiableList(new ArrayList<>(sortedItems));
+            this.itemsById = Collections.unmodifiableMap(byId);
+        }
+        
+        public List<ItemEntity> getItems() {
+            return items;
+        }
+        
+        public ItemEntity getById(String itemId) {
+            return itemsById.get(itemId);
+        }
+        
+        public int size() {
+            return items.size();
+        }
+        
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
+        
+        /**
+         * Items expiring on or before the given epoch day, soonest first; same rows as ItemDao.getExpiringItemsSync.
+         */
+        public List<ItemEntity> getExpiringBy(int epochDay) {
+            List<ItemEntity> result = new ArrayList<>();
+            for (ItemEntity item : items) {
+                if (item.expiryDay == null) continue;
+                // Sorted by expiry day, so nothing after this one qualifies
+                if (item.expiryDay > epochDay) break;
+                result.add(item);
+            }
+            return result;
+        }
+        
+        /**
+         * Items at or below their low-stock threshold; same rows as ItemDao.getLowStockItemsSync.
+         */
+        public List<ItemEntity> getLowStock() {
+            List<ItemEntity> result = new ArrayList<>();
+            for (ItemEntity item : items) {
+                if (item.isLowStock) {
+                    result.add(item);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.kitchenkompanion.data.repo;
+
+import android.util.Log;
+
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.OutOfQuotaPolicy;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules {@link FirebaseSyncWorker} runs as unique work named per household.
+ *
+ * Mutations call {@link #requestSync}. The first one queues a run delayed by the debounce
+ * window, and later ones merge into it while it waits, so ticking ten grocery boxes costs
+ * one sync. A change made while a run is in progress queues a single follow-up behind it,
+ * since the running sync may have read the outbox already. So a household has at most one
+ * run queued and one running, and runs never overlap.
+ *
+ * {@link #syncNow} is the user's "sync now": it swaps a waiting run for an expedited one
+ * that starts without delay.
+ *
+ * Each decision reads the unique work's current state, so decisions run one at a time on
+ * a private thread rather than on the caller's.
+ */
+public final class SyncScheduler {
+    
+    private static final String TAG = "SyncScheduler";
+    private static final String WORK_NAME_PREFIX = "firebase_sync_";
+    
+    public static final long DEFAULT_DEBOUNCE_MS = 5_000;
+    
+    private static volatile long debounceMs = DEFAULT_DEBOUNCE_MS;
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+    
+    private SyncScheduler() {
+    }
+    
+    /**
+     * Sets how long a requested sync waits for further changes to merge into it. Zero syncs right away.
+     */
+    public static void setDebounceDelay(long delay, TimeUnit unit) {
+        debounceMs = unit.toMillis(delay);
+    }
+    
+    public static String workName(String householdId) {
+        return WORK_NAME_PREFIX + householdId;
+    }
+    
+    /**
+     * Syncs the household after the debounce delay, merging with any run already queued.
+     * @return completes once the request is enqueued or merged
+     */
+    public static Future<?> requestSync(WorkManager workManager, String householdId) {
+        return EXECUTOR.submit(() -> enqueue(workManager, householdId, false));
+    }
+    
+    /**
+     * Syncs the household as soon as the network allows, as expedited work.
+     * @return completes once the request is enqueued or merged
+     */
+    public static Future<?> syncNow(WorkManager workManager, String householdId) {
+        return EXECUTOR.submit(() -> enqueue(workManager, householdId, true));
+    }
+    
+    private static void enqueue(WorkManager workManager, String householdId, boolean expedited) {
+        String workName = workName(householdId);
+        boolean running = false;
+        boolean waiting = false; // Enqueued, blocked behind a running run, or backing off after a retry
+        try {
+            List<WorkInfo> infos = workManager.getWorkInfosForUniqueWork(workName).get();
+            for (WorkInfo info : infos) {
+                if (info.getState() == WorkInfo.State.RUNNING) {
+                    running = true;
+                } else if (!info.getState().isFinished()) {
+                    waiting = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            Log.w(TAG, "Could not read the state of " + workName, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        
+        ExistingWorkPolicy policy;
+        long delayMs = debounceMs;
+        if (waiting && (running || !expedited)) {
+            // The waiting run starts after this change was recorded, so it pushes it
+            return;
+        } else if (running) {
+            // Starts when the current run ends; changes made meanwhile have been collecting
+            policy = ExistingWorkPolicy.APPEND_OR_REPLACE;
+            delayMs = 0;
+        } else if (waiting) {
+            // The waiting run has not started, so it can be swapped for an immediate one
+            policy = ExistingWorkPolicy.REPLACE;
+        } else {
+            policy = ExistingWorkPolicy.KEEP;
+        }
+        workManager.enqueueUniqueWork(workName, policy, buildRequest(householdId, delayMs, expedited));
+        Log.d(TAG, "Enqueued " + workName + " with " + policy + (expedited ? ", expedited" : ""));
+    }
+    
+    private static OneTimeWorkRequest buildRequest(String householdId, long delayMs, boolean expedited) {
+        Data inputData = new Data.Builder()
+                .putString("householdId", householdId)
+                .build();
+        
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        
+        OneTimeWorkRequest.Builder builder = new OneTimeWorkRequest.Builder(FirebaseSyncWorker.class)
+                .setConstraints(constraints)
+                .setInputData(inputData);
+        if (expedited) {
+            // Expedited work can't be delayed; out of quota it runs as regular work
+            builder.setExpedited(OutOfQuotaPolicy.RUN_AS_NON_EXPEDITED_WORK_REQUEST);
+        } else if (delayMs > 0) {
+            builder.setInitialDelay(delayMs, TimeUnit.MILLISECONDS);
+        }
+        return builder.build();
+    }
+}
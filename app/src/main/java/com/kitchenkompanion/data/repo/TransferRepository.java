@@ -0,0 +1,416 @@
+package com.kitchenkompanion.data.repo;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.provider.OpenableColumns;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+import androidx.work.WorkManager;
+
+import com.kitchenkompanion.data.local.AppDatabase;
+import com.kitchenkompanion.data.local.GroceryDao;
+import com.kitchenkompanion.data.local.GroceryEntryEntity;
+import com.kitchenkompanion.data.local.ItemDao;
+import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.SyncOpDao;
+import com.kitchenkompanion.data.local.SyncOpEntity;
+import com.kitchenkompanion.data.transfer.RecordReader;
+import com.kitchenkompanion.data.transfer.RecordWriter;
+import com.kitchenkompanion.data.transfer.TransferFormat;
+import com.kitchenkompanion.utils.DateUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bulk import and export of pantry items and grocery entries as CSV or JSON.
+ *
+ * Files are streamed one record at a time, so memory stays flat for any file size.
+ * Imports commit {@link #BATCH_SIZE} rows per transaction together with their outbox ops
+ * and schedule one sync at the end instead of one per row. Exports page through the
+ * table by local_id. Progress is reported after every batch.
+ *
+ * Columns (CSV header row or JSON object keys):
+ * - Items: name, quantity, unit, location, expiry_date (yyyy-MM-dd), barcode, notes, low_stock_threshold
+ * - Grocery entries: name, quantity, unit, source, is_checked
+ * Only name is required; unknown columns are ignored. Imported rows always get new ids,
+ * so importing the same file twice adds the rows twice. The format of a document follows
+ * its MIME type or file extension (.json), defaulting to CSV.
+ *
+ * Usage: hold one instance per screen and {@link #shutdown()} it with the screen.
+ * transferRepository = new TransferRepository(context, householdId);
+ * transferRepository.importItems(uri, callback);
+ */
+public class TransferRepository {
+    
+    private static final String TAG = "TransferRepository";
+    
+    /** Rows per transaction; large enough to amortize the commit, small enough to keep the UI responsive. */
+    public static final int BATCH_SIZE = 500;
+    
+    public static final String[] ITEM_COLUMNS = {
+            "name", "quantity", "unit", "location", "expiry_date", "barcode", "notes", "low_stock_threshold"
+    };
+    public static final String[] GROCERY_COLUMNS = {
+            "name", "quantity", "unit", "source", "is_checked"
+    };
+    
+    private static final String SOURCE_IMPORT = "import";
+    
+    private final AppDatabase database;
+    private final ItemDao itemDao;
+    private final GroceryDao groceryDao;
+    private final SyncOpDao syncOpDao;
+    private final ContentResolver contentResolver;
+    private final WorkManager workManager;
+    private final ExecutorService executorService;
+    private final String householdId;
+    
+    public interface ProgressListener {
+        /** Rows imported or exported so far. */
+        void onProgress(int rows);
+    }
+    
+    /**
+     * Called on the repository's background thread.
+     */
+    public interface TransferCallback extends ProgressListener {
+        void onComplete(TransferResult result);
+        void onError(String error);
+    }
+    
+    public static class TransferResult {
+        public final int rows;
+        public final int skipped; // Import rows without a name or with unreadable values
+        public final long elapsedMs;
+        
+        TransferResult(int rows, int skipped, long elapsedMs) {
+            this.rows = rows;
+            this.skipped = skipped;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+    
+    public TransferRepository(Context context, String householdId) {
+        this.database = AppDatabase.getInstance(context, householdId);
+        this.itemDao = database.itemDao();
+        this.groceryDao = database.groceryDao();
+        this.syncOpDao = database.syncOpDao();
+        this.contentResolver = context.getContentResolver();
+        this.workManager = WorkManager.getInstance(context);
+        this.executorService = Executors.newSingleThreadExecutor();
+        this.householdId = householdId;
+    }
+    
+    public void importItems(Uri uri, TransferCallback callback) {
+        executorService.execute(() -> {
+            TransferFormat format = formatOf(uri);
+            try (InputStream in = contentResolver.openInputStream(uri)) {
+                if (in == null) throw new IOException("Cannot open " + uri);
+                callback.onComplete(importItems(in, format, callback));
+            } catch (IOException e) {
+                Log.e(TAG, "Item import failed", e);
+                callback.onError(e.getMessage());
+            }
+        });
+    }
+    
+    public void exportItems(Uri uri, TransferCallback callback) {
+        executorService.execute(() -> {
+            TransferFormat format = formatOf(uri);
+            try (OutputStream out = contentResolver.openOutputStream(uri, "wt")) {
+                if (out == null) throw new IOException("Cannot open " + uri);
+                callback.onComplete(exportItems(out, format, callback));
+            } catch (IOException e) {
+                Log.e(TAG, "Item export failed", e);
+                callback.onError(e.getMessage());
+            }
+        });
+    }
+    
+    public void importGroceryEntries(Uri uri, TransferCallback callback) {
+        executorService.execute(() -> {
+            TransferFormat format = formatOf(uri);
+            try (InputStream in = contentResolver.openInputStream(uri)) {
+                if (in == null) throw new IOException("Cannot open " + uri);
+                callback.onComplete(importGroceryEntries(in, format, callback));
+            } catch (IOException e) {
+                Log.e(TAG, "Grocery import failed", e);
+                callback.onError(e.getMessage());
+            }
+        });
+    }
+    
+    public void exportGroceryEntries(Uri uri, TransferCallback callback) {
+        executorService.execute(() -> {
+            TransferFormat format = formatOf(uri);
+            try (OutputStream out = contentResolver.openOutputStream(uri, "wt")) {
+                if (out == null) throw new IOException("Cannot open " + uri);
+                callback.onComplete(exportGroceryEntries(out, format, callback));
+            } catch (IOException e) {
+                Log.e(TAG, "Grocery export failed", e);
+                callback.onError(e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Stops the background thread once queued transfers finish; call when the owner is destroyed.
+     */
+    public void shutdown() {
+        executorService.shutdown();
+    }
+    
+    /**
+     * Reads items from the stream into the household; the caller closes the stream.
+     */
+    @WorkerThread
+    public TransferResult importItems(InputStream in, TransferFormat format, ProgressListener listener) throws IOException {
+        SimpleDateFormat dateFormat = dateFormat();
+        return importRecords(in, format, record -> {
+            String name = record.get("name");
+            if (name == null) return null;
+            Date now = new Date();
+            ItemEntity item = new ItemEntity();
+            item.id = UUID.randomUUID().toString();
+            item.householdId = householdId;
+            item.name = name;
+            item.quantity = parseNumber(record.get("quantity"), 1);
+            item.unit = record.get("unit");
+            item.location = record.get("location");
+            item.expiryDate = parseDate(dateFormat, record.get("expiry_date"));
+            item.expiryDay = DateUtils.toEpochDay(item.expiryDate);
+            item.barcode = record.get("barcode");
+            item.notes = record.get("notes");
+            item.lowStockThreshold = parseNumber(record.get("low_stock_threshold"), 0);
+            item.createdAt = now;
+            item.updatedAt = now;
+            return item;
+        }, batch -> {
+            itemDao.insertAll(batch);
+            List<SyncOpEntity> ops = new ArrayList<>(batch.size());
+            for (ItemEntity item : batch) {
+                ops.add(SyncOpEntity.upsert(householdId, SyncOpEntity.TYPE_ITEM, item.id));
+            }
+            syncOpDao.insertAll(ops);
+        }, listener);
+    }
+    
+    /**
+     * Reads grocery entries from the stream onto the household's list; the caller closes the stream.
+     */
+    @WorkerThread
+    public TransferResult importGroceryEntries(InputStream in, TransferFormat format, ProgressListener listener) throws IOException {
+        return importRecords(in, format, record -> {
+            String name = record.get("name");
+            if (name == null) return null;
+            Date now = new Date();
+            GroceryEntryEntity entry = new GroceryEntryEntity();
+            entry.id = UUID.randomUUID().toString();
+            entry.householdId = householdId;
+            entry.listId = "default";
+            entry.name = name;
+            entry.quantity = parseNumber(record.get("quantity"), 1);
+            entry.unit = record.get("unit");
+            entry.source = record.containsKey("source") ? record.get("source") : SOURCE_IMPORT;
+            entry.isChecked = parseBoolean(record.get("is_checked"));
+            entry.createdAt = now;
+            entry.updatedAt = now;
+            return entry;
+        }, batch -> {
+            groceryDao.insertAll(batch);
+            List<SyncOpEntity> ops = new ArrayList<>(batch.size());
+            for (GroceryEntryEntity entry : batch) {
+                ops.add(SyncOpEntity.upsert(householdId, SyncOpEntity.TYPE_GROCERY_ENTRY, entry.id));
+            }
+            syncOpDao.insertAll(ops);
+        }, listener);
+    }
+    
+    /**
+     * Writes the household's live items to the stream; the writer closes the stream when done.
+     */
+    @WorkerThread
+    public TransferResult exportItems(OutputStream out, TransferFormat format, ProgressListener listener) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        SimpleDateFormat dateFormat = dateFormat();
+        int rows = 0;
+        try (RecordWriter writer = format.openWriter(out, ITEM_COLUMNS)) {
+            long afterLocalId = 0;
+            List<ItemEntity> page;
+            while (!(page = itemDao.getItemsAfterSync(householdId, afterLocalId, BATCH_SIZE)).isEmpty()) {
+                for (ItemEntity item : page) {
+                    writer.write(item.name, number(item.quantity), item.unit, item.location,
+                            item.expiryDate != null ? dateFormat.format(item.expiryDate) : null,
+                            item.barcode, item.notes, number(item.lowStockThreshold));
+                }
+                rows += page.size();
+                afterLocalId = page.get(page.size() - 1).localId;
+                listener.onProgress(rows);
+            }
+        }
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        Log.i(TAG, "Exported " + rows + " items in " + elapsed + " ms");
+        return new TransferResult(rows, 0, elapsed);
+    }
+    
+    /**
+     * Writes the household's grocery entries to the stream; the writer closes the stream when done.
+     */
+    @WorkerThread
+    public TransferResult exportGroceryEntries(OutputStream out, TransferFormat format, ProgressListener listener) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        int rows = 0;
+        try (RecordWriter writer = format.openWriter(out, GROCERY_COLUMNS)) {
+            long afterLocalId = 0;
+            List<GroceryEntryEntity> page;
+            while (!(page = groceryDao.getEntriesAfterSync(householdId, afterLocalId, BATCH_SIZE)).isEmpty()) {
+                for (GroceryEntryEntity entry : page) {
+                    writer.write(entry.name, number(entry.quantity), entry.unit, entry.source, entry.isChecked);
+                }
+                rows += page.size();
+                afterLocalId = page.get(page.size() - 1).localId;
+                listener.onProgress(rows);
+            }
+        }
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        Log.i(TAG, "Exported " + rows + " grocery entries in " + elapsed + " ms");
+        return new TransferResult(rows, 0, elapsed);
+    }
+    
+    private TransferFormat formatOf(Uri uri) {
+        String name = null;
+        try (Cursor cursor = contentResolver.query(uri, new String[]{OpenableColumns.DISPLAY_NAME}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                name = cursor.getString(0);
+            }
+        }
+        return TransferFormat.detect(contentResolver.getType(uri), name);
+    }
+    
+    private interface RecordParser<T> {
+        /** The row for a record, or null to skip it. May throw IllegalArgumentException for bad values. */
+        T parse(Map<String, String> record);
+    }
+    
+    private interface BatchInserter<T> {
+        /** Runs inside the batch transaction. */
+        void insert(List<T> batch);
+    }
+    
+    /**
+     * Batches that committed before a failure stay imported, and a sync is still scheduled for them.
+     */
+    private <T> TransferResult importRecords(InputStream in, TransferFormat format, RecordParser<T> parser,
+                                             BatchInserter<T> inserter, ProgressListener listener) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        int rows = 0;
+        int skipped = 0;
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        RecordReader reader = format.openReader(in);
+        try {
+            Map<String, String> record;
+            while ((record = reader.next()) != null) {
+                T row;
+                try {
+                    row = parser.parse(record);
+                } catch (IllegalArgumentException e) {
+                    Log.w(TAG, "Skipping record " + reader.getRecordNumber() + ": " + e.getMessage());
+                    row = null;
+                }
+                if (row == null) {
+                    skipped++;
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == BATCH_SIZE) {
+                    rows += insertBatch(batch, inserter);
+                    listener.onProgress(rows);
+                }
+            }
+            if (!batch.isEmpty()) {
+                rows += insertBatch(batch, inserter);
+                listener.onProgress(rows);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Malformed input; Gson reports unexpected structure as IllegalStateException
+            throw new IOException("Imported " + rows + " rows, then record " + (reader.getRecordNumber() + 1)
+                    + " could not be read: " + e.getMessage(), e);
+        } finally {
+            if (rows > 0) {
+                scheduleSyncWork();
+            }
+        }
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        Log.i(TAG, "Imported " + rows + " rows (" + skipped + " skipped) in " + elapsed + " ms");
+        return new TransferResult(rows, skipped, elapsed);
+    }
+    
+    private <T> int insertBatch(List<T> batch, BatchInserter<T> inserter) {
+        database.runInTransaction(() -> inserter.insert(batch));
+        int count = batch.size();
+        batch.clear();
+        return count;
+    }
+    
+    private static SimpleDateFormat dateFormat() {
+        // Own instance per transfer; SimpleDateFormat is not thread-safe
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setLenient(false);
+        return format;
+    }
+    
+    private static Date parseDate(SimpleDateFormat format, String value) {
+        if (value == null) return null;
+        try {
+            return format.parse(value);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Unreadable date " + value);
+        }
+    }
+    
+    private static double parseNumber(String value, double fallback) {
+        if (value == null) return fallback;
+        try {
+            // Spreadsheets in many locales write decimal commas
+            return Double.parseDouble(value.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unreadable number " + value);
+        }
+    }
+    
+    private static boolean parseBoolean(String value) {
+        return value != null && (value.equalsIgnoreCase("true") || value.equals("1")
+                || value.equalsIgnoreCase("yes") || value.equalsIgnoreCase("x"));
+    }
+    
+    /** Whole quantities are written without a trailing ".0". */
+    private static Number number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return (long) value;
+        }
+        return value;
+    }
+    
+    /**
+     * One sync for the whole transfer; the outbox already holds an op per imported row.
+     */
+    private void scheduleSyncWork() {
+        SyncScheduler.requestSync(workManager, householdId);
+    }
+}
@@ -0,0 +1,130 @@
+package com.kitchenkompanion.data.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV reader: the first row names the columns, fields may be quoted, and quoted
+ * fields may contain commas, doubled quotes and line breaks. Values are trimmed, a leading byte
+ * order mark as written by spreadsheet apps is skipped, and blank lines are ignored.
+ */
+public class CsvRecordReader implements RecordReader {
+    
+    private static final int BUFFER_SIZE = 16 * 1024;
+    
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+    private String[] columns;
+    private int recordNumber;
+    
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+    
+    @Override
+    public Map<String, String> next() throws IOException {
+        if (columns == null) {
+            if (!readRow()) return null;
+            columns = new String[fields.size()];
+            for (int i = 0; i < columns.length; i++) {
+                String name = fields.get(i).trim().toLowerCase(Locale.ROOT);
+                columns[i] = i == 0 && name.startsWith("\uFEFF") ? name.substring(1) : name;
+            }
+        }
+        while (readRow()) {
+            if (fields.size() == 1 && fields.get(0).isEmpty()) continue;
+            recordNumber++;
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < Math.min(columns.length, fields.size()); i++) {
+                String value = fields.get(i).trim();
+                if (!value.isEmpty()) {
+                    record.put(columns[i], value);
+                }
+            }
+            return record;
+        }
+        return null;
+    }
+    
+    @Override
+    public int getRecordNumber() {
+        return recordNumber;
+    }
+    
+    /**
+     * Reads the next row into {@link #fields}; false at the end of the input.
+     */
+    private boolean readRow() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean sawAny = false;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (!sawAny) return false;
+                fields.add(field.toString());
+                return true;
+            }
+            sawAny = true;
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                return true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+    
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+    
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+    
+    private boolean fill() throws IOException {
+        int count = reader.read(buffer, 0, buffer.length);
+        if (count <= 0) return false;
+        position = 0;
+        limit = count;
+        return true;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,51 @@
+package com.kitchenkompanion.data.transfer;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * RFC 4180 CSV writer. The header row is written on open; fields are quoted only when they
+ * contain a comma, quote or line break. Rows end in CRLF.
+ */
+public class CsvRecordWriter implements RecordWriter {
+    
+    private final Writer writer;
+    private final int columnCount;
+    
+    public CsvRecordWriter(Writer writer, String[] columns) throws IOException {
+        this.writer = writer;
+        this.columnCount = columns.length;
+        write((Object[]) columns);
+    }
+    
+    @Override
+    public void write(Object... values) throws IOException {
+        if (values.length != columnCount) {
+            throw new IllegalArgumentException("Expected " + columnCount + " values, got " + values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            if (values[i] != null) {
+                writeField(String.valueOf(values[i]));
+            }
+        }
+        writer.write("\r\n");
+    }
+    
+    private void writeField(String value) throws IOException {
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+    
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,65 @@
+package com.kitchenkompanion.data.transfer;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams records from a top-level JSON array of flat objects. Strings, numbers and booleans
+ * are returned as text; nulls and nested values are skipped.
+ */
+public class JsonRecordReader implements RecordReader {
+    
+    private final JsonReader reader;
+    private boolean started;
+    private int recordNumber;
+    
+    public JsonRecordReader(Reader reader) {
+        this.reader = new JsonReader(reader);
+    }
+    
+    @Override
+    public Map<String, String> next() throws IOException {
+        if (!started) {
+            reader.beginArray();
+            started = true;
+        }
+        if (!reader.hasNext()) {
+            return null;
+        }
+        recordNumber++;
+        Map<String, String> record = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName().trim().toLowerCase(Locale.ROOT);
+            JsonToken token = reader.peek();
+            if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                String value = reader.nextString().trim();
+                if (!value.isEmpty()) {
+                    record.put(name, value);
+                }
+            } else if (token == JsonToken.BOOLEAN) {
+                record.put(name, String.valueOf(reader.nextBoolean()));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return record;
+    }
+    
+    @Override
+    public int getRecordNumber() {
+        return recordNumber;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
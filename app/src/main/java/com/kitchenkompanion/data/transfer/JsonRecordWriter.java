@@ -0,0 +1,52 @@
+package com.kitchenkompanion.data.transfer;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streams records as a top-level JSON array of flat objects, one per record.
+ * Null values are left out; numbers and booleans keep their JSON types.
+ */
+public class JsonRecordWriter implements RecordWriter {
+    
+    private final JsonWriter writer;
+    private final String[] columns;
+    
+    public JsonRecordWriter(Writer writer, String[] columns) throws IOException {
+        this.writer = new JsonWriter(writer);
+        this.columns = columns;
+        this.writer.beginArray();
+    }
+    
+    @Override
+    public void write(Object... values) throws IOException {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values, got " + values.length);
+        }
+        writer.beginObject();
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) continue;
+            writer.name(columns[i]);
+            if (value instanceof Number) {
+                writer.value((Number) value);
+            } else if (value instanceof Boolean) {
+                writer.value((Boolean) value);
+            } else {
+                writer.value(String.valueOf(value));
+            }
+        }
+        writer.endObject();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.endArray();
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.kitchenkompanion.data.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reads an import file one record at a time, so memory stays flat however long the file is.
+ */
+public interface RecordReader extends Closeable {
+    
+    /**
+     * Next record keyed by lower-case column name, or null at the end of the input.
+     * Empty and missing values are left out of the map.
+     */
+    Map<String, String> next() throws IOException;
+    
+    /**
+     * Position of the last record returned, for error messages (1-based).
+     */
+    int getRecordNumber();
+}
@@ -0,0 +1,15 @@
+package com.kitchenkompanion.data.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes export records one at a time in the column order given when the writer was opened.
+ */
+public interface RecordWriter extends Closeable {
+    
+    /**
+     * Writes one record. Values are Strings, Numbers, Booleans or null, one per column.
+     */
+    void write(Object... values) throws IOException;
+}
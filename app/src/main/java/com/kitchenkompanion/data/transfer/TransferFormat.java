@@ -0,0 +1,54 @@
+package com.kitchenkompanion.data.transfer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * File formats for bulk import and export. Both are read and written as UTF-8 streams.
+ */
+public enum TransferFormat {
+    
+    CSV("text/csv", "csv"),
+    JSON("application/json", "json");
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    public final String mimeType;
+    public final String extension;
+    
+    TransferFormat(String mimeType, String extension) {
+        this.mimeType = mimeType;
+        this.extension = extension;
+    }
+    
+    public RecordReader openReader(InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return this == CSV ? new CsvRecordReader(reader) : new JsonRecordReader(reader);
+    }
+    
+    public RecordWriter openWriter(OutputStream out, String[] columns) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return this == CSV ? new CsvRecordWriter(writer, columns) : new JsonRecordWriter(writer, columns);
+    }
+    
+    /**
+     * Format of a picked document, from its MIME type or else its file name; CSV when neither tells.
+     * Document providers often report CSV files as text/plain or application/octet-stream.
+     */
+    public static TransferFormat detect(String mimeType, String fileName) {
+        if (mimeType != null && mimeType.toLowerCase(Locale.ROOT).contains("json")) {
+            return JSON;
+        }
+        if (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith("." + JSON.extension)) {
+            return JSON;
+        }
+        return CSV;
+    }
+}
@@ -9,9 +9,8 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.kitchenkompanion.KitchenKompanionApp;
-import com.kitchenkompanion.data.local.AppDatabase;
-import com.kitchenkompanion.data.local.ItemDao;
 import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.repo.PantrySnapshotCache;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -59,7 +58,6 @@ public class AiViewModel extends AndroidViewModel {
     private static final String TAG = "AiViewModel";
     
     private final OnDeviceAiService aiService;
-    private final ItemDao itemDao;
     private final ExecutorService executorService;
     
     private final MutableLiveData<String> response = new MutableLiveData<>();
@@ -71,7 +69,6 @@ public class AiViewModel extends AndroidViewModel {
         super(application);
         // Use factory to get appropriate AI service implementation
         this.aiService = AiServiceFactory.INSTANCE.getInstance(application, false);
-        this.itemDao = AppDatabase.getInstance(application).itemDao();
         this.executorService = Executors.newSingleThreadExecutor();
         
         // Update service type for UI display
@@ -128,7 +125,7 @@ public class AiViewModel extends AndroidViewModel {
         
         executorService.execute(() -> {
             // Get pantry items
-            List<ItemEntity> items = itemDao.getAllItemsSync(householdId);
+            List<ItemEntity> items = PantrySnapshotCache.getInstance(getApplication(), householdId).get().getItems();
             
             if (items == null || items.isEmpty()) {
                 error.postValue("Your pantry is empty. Add items first!");
@@ -179,7 +176,7 @@ public class AiViewModel extends AndroidViewModel {
         
         executorService.execute(() -> {
             // Get pantry items
-            List<ItemEntity> items = itemDao.getAllItemsSync(householdId);
+            List<ItemEntity> items = PantrySnapshotCache.getInstance(getApplication(), householdId).get().getItems();
             
             StringBuilder pantryList = new StringBuilder();
             if (items != null) {
@@ -189,8 +189,8 @@ public class BarcodeScannerActivity extends AppCompatActivity {
             binding.progressBar.setVisibility(View.VISIBLE);
         });
         
-        // Lookup product in OpenFoodFacts
-        UpcLookupService.lookupProduct(barcode, new UpcLookupService.LookupCallback() {
+        // Lookup product locally, then in OpenFoodFacts
+        UpcLookupService.lookupProduct(this, barcode, new UpcLookupService.LookupCallback() {
             @Override
             public void onSuccess(ProductInfo product) {
                 runOnUiThread(() -> {
@@ -227,8 +227,8 @@ public class BarcodeScannerActivity extends AppCompatActivity {
         Intent intent = new Intent(this, AddEditItemActivity.class);
         intent.putExtra(AddEditItemActivity.EXTRA_BARCODE, barcode);
         intent.putExtra(AddEditItemActivity.EXTRA_PRODUCT_NAME, product.name);
-        if (product.nutritionJson != null) {
-            intent.putExtra(AddEditItemActivity.EXTRA_NUTRITION_JSON, product.nutritionJson);
+        if (product.nutrition != null) {
+            intent.putExtra(AddEditItemActivity.EXTRA_NUTRITION, product.nutrition);
         }
         startActivity(intent);
         finish();
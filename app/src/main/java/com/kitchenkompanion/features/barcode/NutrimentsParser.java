@@ -0,0 +1,91 @@
+package com.kitchenkompanion.features.barcode;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.kitchenkompanion.data.local.ItemNutritionEntity;
+
+import java.util.Map;
+
+/**
+ * Converts an OpenFoodFacts "nutriments" object into typed nutrition columns.
+ * 
+ * OpenFoodFacts reports each nutrient under several keys (e.g. "fat", "fat_100g",
+ * "fat_unit", "fat_serving"). The per-100g value of a common nutrient goes to its
+ * typed column; every key of the other nutrients is kept in the overflow JSON.
+ */
+public final class NutrimentsParser {
+    
+    private NutrimentsParser() {
+    }
+    
+    public static ItemNutritionEntity parse(JsonObject nutriments) {
+        ItemNutritionEntity nutrition = new ItemNutritionEntity();
+        if (nutriments == null) {
+            return nutrition;
+        }
+        
+        nutrition.energyKcal = per100g(nutriments, "energy-kcal");
+        nutrition.fat = per100g(nutriments, "fat");
+        nutrition.saturatedFat = per100g(nutriments, "saturated-fat");
+        nutrition.carbohydrates = per100g(nutriments, "carbohydrates");
+        nutrition.sugars = per100g(nutriments, "sugars");
+        nutrition.fiber = per100g(nutriments, "fiber");
+        nutrition.proteins = per100g(nutriments, "proteins");
+        nutrition.salt = per100g(nutriments, "salt");
+        nutrition.sodium = per100g(nutriments, "sodium");
+        
+        JsonObject extra = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : nutriments.entrySet()) {
+            if (!isTyped(nutrientName(entry.getKey()))) {
+                extra.add(entry.getKey(), entry.getValue());
+            }
+        }
+        if (extra.size() > 0) {
+            nutrition.extraJson = extra.toString();
+        }
+        
+        return nutrition;
+    }
+    
+    private static Double per100g(JsonObject nutriments, String nutrient) {
+        JsonElement value = nutriments.get(nutrient + "_100g");
+        if (value == null || !value.isJsonPrimitive()) {
+            return null;
+        }
+        JsonPrimitive primitive = value.getAsJsonPrimitive();
+        if (primitive.isNumber()) {
+            return primitive.getAsDouble();
+        }
+        try {
+            return Double.parseDouble(primitive.getAsString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * "saturated-fat_100g" -> "saturated-fat"
+     */
+    private static String nutrientName(String key) {
+        int underscore = key.indexOf('_');
+        return underscore >= 0 ? key.substring(0, underscore) : key;
+    }
+    
+    private static boolean isTyped(String nutrient) {
+        switch (nutrient) {
+            case "energy-kcal":
+            case "fat":
+            case "saturated-fat":
+            case "carbohydrates":
+            case "sugars":
+            case "fiber":
+            case "proteins":
+            case "salt":
+            case "sodium":
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.kitchenkompanion.features.barcode;
 
+import com.kitchenkompanion.data.local.ItemNutritionEntity;
+
 /**
  * Simple product information from barcode lookup.
  */
@@ -8,7 +10,7 @@ public class ProductInfo {
     public String name;
     public String brand;
     public String quantity;
-    public String nutritionJson;
+    public ItemNutritionEntity nutrition;
     public String imageUrl;
     
     public ProductInfo() {
@@ -1,11 +1,18 @@
 package com.kitchenkompanion.features.barcode;
 
+import android.content.Context;
 import android.util.Log;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.kitchenkompanion.data.local.AppDatabase;
+import com.kitchenkompanion.data.local.ItemNutritionEntity;
+import com.kitchenkompanion.data.local.ProductDao;
+import com.kitchenkompanion.data.local.ProductEntity;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
@@ -22,8 +29,10 @@ import okhttp3.Response;
  * 
  * No API key required!
  * 
+ * Common staples ship in the seed database's products table and resolve without a network call.
+ * 
  * Usage:
- * UpcLookupService.lookupProduct("0123456789", new LookupCallback() {
+ * UpcLookupService.lookupProduct(context, "0123456789", new LookupCallback() {
  *     public void onSuccess(ProductInfo product) { ... }
  *     public void onNotFound() { ... }
  *     public void onError(String error) { ... }
@@ -34,6 +43,7 @@ public class UpcLookupService {
     private static final String TAG = "UpcLookupService";
     private static final String BASE_URL = "https://world.openfoodfacts.org/api/v0/product/";
     private static final Gson gson = new Gson();
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
     
     private static final OkHttpClient client = new OkHttpClient.Builder()
             .connectTimeout(10, TimeUnit.SECONDS)
@@ -47,7 +57,27 @@ public class UpcLookupService {
     }
     
     /**
-     * Lookup product by barcode (UPC, EAN, etc.)
+     * Lookup product by barcode, checking the local products table before OpenFoodFacts.
+     * 
+     * @param context Any context; the application context is used
+     * @param barcode The barcode to lookup
+     * @param callback Callback for results, invoked on a background thread
+     */
+    public static void lookupProduct(Context context, String barcode, LookupCallback callback) {
+        ProductDao productDao = AppDatabase.getInstance(context).productDao();
+        executor.execute(() -> {
+            ProductEntity local = productDao.getByBarcode(barcode);
+            if (local != null) {
+                Log.d(TAG, "Resolved " + barcode + " from local products");
+                callback.onSuccess(toProductInfo(local));
+            } else {
+                lookupProduct(barcode, callback);
+            }
+        });
+    }
+    
+    /**
+     * Lookup product by barcode (UPC, EAN, etc.) on OpenFoodFacts
      * 
      * @param barcode The barcode to lookup
      * @param callback Callback for results
@@ -114,7 +144,7 @@ public class UpcLookupService {
                     // Nutrition data
                     if (productJson.has("nutriments") && !productJson.get("nutriments").isJsonNull()) {
                         JsonObject nutriments = productJson.getAsJsonObject("nutriments");
-                        product.nutritionJson = gson.toJson(nutriments);
+                        product.nutrition = NutrimentsParser.parse(nutriments);
                     }
                     
                     // Use brand + name if available
@@ -137,6 +167,30 @@ public class UpcLookupService {
             }
         });
     }
+    
+    private static ProductInfo toProductInfo(ProductEntity entity) {
+        ProductInfo product = new ProductInfo(entity.barcode, entity.name);
+        product.brand = entity.brand;
+        product.quantity = entity.quantity;
+        product.imageUrl = entity.imageUrl;
+        if (product.brand != null && !product.brand.isEmpty()) {
+            product.name = product.brand + " " + product.name;
+        }
+        
+        ItemNutritionEntity nutrition = new ItemNutritionEntity();
+        nutrition.energyKcal = entity.energyKcal;
+        nutrition.fat = entity.fat;
+        nutrition.saturatedFat = entity.saturatedFat;
+        nutrition.carbohydrates = entity.carbohydrates;
+        nutrition.sugars = entity.sugars;
+        nutrition.fiber = entity.fiber;
+        nutrition.proteins = entity.proteins;
+        nutrition.salt = entity.salt;
+        if (!nutrition.isEmpty()) {
+            product.nutrition = nutrition;
+        }
+        return product;
+    }
 }
 
 
@@ -8,13 +8,13 @@ import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.kitchenkompanion.data.local.GroceryEntryEntity;
+import com.kitchenkompanion.data.local.GroceryRow;
 import com.kitchenkompanion.databinding.ItemGroceryBinding;
 
 /**
  * Adapter for displaying grocery list items.
  */
-public class GroceryAdapter extends ListAdapter<GroceryEntryEntity, GroceryAdapter.ViewHolder> {
+public class GroceryAdapter extends ListAdapter<GroceryRow, GroceryAdapter.ViewHolder> {
     
     private OnItemClickListener listener;
     
@@ -22,19 +22,19 @@ public class GroceryAdapter extends ListAdapter<GroceryEntryEntity, GroceryAdapt
         super(DIFF_CALLBACK);
     }
     
-    private static final DiffUtil.ItemCallback<GroceryEntryEntity> DIFF_CALLBACK = 
-            new DiffUtil.ItemCallback<GroceryEntryEntity>() {
+    private static final DiffUtil.ItemCallback<GroceryRow> DIFF_CALLBACK = 
+            new DiffUtil.ItemCallback<GroceryRow>() {
         @Override
-        public boolean areItemsTheSame(@NonNull GroceryEntryEntity oldItem, 
-                                       @NonNull GroceryEntryEntity newItem) {
-            return oldItem.id == newItem.id;
+        public boolean areItemsTheSame(@NonNull GroceryRow oldItem, 
+                                       @NonNull GroceryRow newItem) {
+            return oldItem.id.equals(newItem.id);
         }
         
         @Override
-        public boolean areContentsTheSame(@NonNull GroceryEntryEntity oldItem, 
-                                          @NonNull GroceryEntryEntity newItem) {
+        public boolean areContentsTheSame(@NonNull GroceryRow oldItem, 
+                                          @NonNull GroceryRow newItem) {
             return oldItem.name.equals(newItem.name) 
-                    && oldItem.checked == newItem.checked
+                    && oldItem.isChecked == newItem.isChecked
                     && oldItem.quantity == newItem.quantity
                     && (oldItem.unit == null ? newItem.unit == null : oldItem.unit.equals(newItem.unit));
         }
@@ -58,8 +58,8 @@ public class GroceryAdapter extends ListAdapter<GroceryEntryEntity, GroceryAdapt
     }
     
     public interface OnItemClickListener {
-        void onCheckedChanged(GroceryEntryEntity entry, boolean isChecked);
-        void onItemLongClick(GroceryEntryEntity entry);
+        void onCheckedChanged(GroceryRow entry, boolean isChecked);
+        void onItemLongClick(GroceryRow entry);
     }
     
     class ViewHolder extends RecyclerView.ViewHolder {
@@ -70,7 +70,7 @@ public class GroceryAdapter extends ListAdapter<GroceryEntryEntity, GroceryAdapt
             this.binding = binding;
         }
         
-        void bind(GroceryEntryEntity entry) {
+        void bind(GroceryRow entry) {
             binding.itemName.setText(entry.name);
             
             // Format quantity
@@ -104,7 +104,7 @@ public class GroceryAdapter extends ListAdapter<GroceryEntryEntity, GroceryAdapt
             
             // Checkbox
             binding.checkbox.setOnCheckedChangeListener(null);
-            binding.checkbox.setChecked(entry.checked);
+            binding.checkbox.setChecked(entry.isChecked);
             binding.checkbox.setOnCheckedChangeListener((buttonView, isChecked) -> {
                 if (listener != null) {
                     listener.onCheckedChanged(entry, isChecked);
@@ -120,7 +120,7 @@ public class GroceryAdapter extends ListAdapter<GroceryEntryEntity, GroceryAdapt
             });
             
             // Strike-through when checked
-            if (entry.checked) {
+            if (entry.isChecked) {
                 binding.itemName.setPaintFlags(binding.itemName.getPaintFlags() | 
                         android.graphics.Paint.STRIKE_THRU_TEXT_FLAG);
                 binding.itemName.setAlpha(0.5f);
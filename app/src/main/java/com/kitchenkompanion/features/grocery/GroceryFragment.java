@@ -1,5 +1,6 @@
 package com.kitchenkompanion.features.grocery;
 
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -8,6 +9,8 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
@@ -17,9 +20,13 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.textfield.TextInputEditText;
+import com.kitchenkompanion.KitchenKompanionApp;
 import com.kitchenkompanion.R;
 import com.kitchenkompanion.data.local.GroceryEntryEntity;
+import com.kitchenkompanion.data.local.GroceryRow;
+import com.kitchenkompanion.data.repo.TransferRepository;
 import com.kitchenkompanion.databinding.FragmentGroceryBinding;
+import com.kitchenkompanion.features.transfer.TransferSnackbar;
 
 /**
  * Fragment for managing shared grocery lists.
@@ -32,6 +39,7 @@ import com.kitchenkompanion.databinding.FragmentGroceryBinding;
  * - Check/uncheck items
  * - Delete items
  * - Clear checked items
+ * - Import/export as CSV or JSON
  * - Real-time sync across devices
  */
 public class GroceryFragment extends Fragment {
@@ -39,6 +47,12 @@ public class GroceryFragment extends Fragment {
     private FragmentGroceryBinding binding;
     private GroceryViewModel viewModel;
     private GroceryAdapter adapter;
+    private TransferRepository transferRepository;
+    
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::importEntries);
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/csv"), this::exportEntries);
     
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -73,12 +87,12 @@ public class GroceryFragment extends Fragment {
         // Set up item listeners
         adapter.setOnItemClickListener(new GroceryAdapter.OnItemClickListener() {
             @Override
-            public void onCheckedChanged(GroceryEntryEntity entry, boolean isChecked) {
-                viewModel.updateCheckedStatus(entry.id, isChecked);
+            public void onCheckedChanged(GroceryRow entry, boolean isChecked) {
+                viewModel.updateCheckedStatus(entry.localId, isChecked);
             }
             
             @Override
-            public void onItemLongClick(GroceryEntryEntity entry) {
+            public void onItemLongClick(GroceryRow entry) {
                 showDeleteConfirmation(entry);
             }
         });
@@ -139,12 +153,12 @@ public class GroceryFragment extends Fragment {
                 .show();
     }
     
-    private void showDeleteConfirmation(GroceryEntryEntity entry) {
+    private void showDeleteConfirmation(GroceryRow entry) {
         new MaterialAlertDialogBuilder(requireContext())
                 .setTitle(R.string.delete_item)
                 .setMessage(getString(R.string.confirm_delete_grocery, entry.name))
                 .setPositiveButton(R.string.delete, (dialog, which) -> {
-                    viewModel.deleteEntry(entry.id);
+                    viewModel.deleteEntry(entry.localId);
                     Snackbar.make(binding.getRoot(), 
                             R.string.item_deleted, Snackbar.LENGTH_SHORT).show();
                 })
@@ -177,16 +191,51 @@ public class GroceryFragment extends Fragment {
             Snackbar.make(binding.getRoot(), 
                     R.string.cleared_checked_items, Snackbar.LENGTH_SHORT).show();
             return true;
+        } else if (id == R.id.action_import_grocery) {
+            importLauncher.launch(new String[]{"text/*", "application/json", "application/octet-stream"});
+            return true;
+        } else if (id == R.id.action_export_grocery) {
+            exportLauncher.launch("grocery_list.csv");
+            return true;
         }
         
         return super.onOptionsItemSelected(item);
     }
     
+    private void importEntries(Uri uri) {
+        TransferRepository repository = transferRepository();
+        if (uri == null || repository == null || binding == null) return;
+        repository.importGroceryEntries(uri, TransferSnackbar.forImport(binding.getRoot()));
+    }
+    
+    private void exportEntries(Uri uri) {
+        TransferRepository repository = transferRepository();
+        if (uri == null || repository == null || binding == null) return;
+        repository.exportGroceryEntries(uri, TransferSnackbar.forExport(binding.getRoot()));
+    }
+    
+    private TransferRepository transferRepository() {
+        if (transferRepository == null) {
+            String householdId = KitchenKompanionApp.getInstance().getCurrentHouseholdId();
+            if (householdId == null) return null;
+            transferRepository = new TransferRepository(requireContext().getApplicationContext(), householdId);
+        }
+        return transferRepository;
+    }
+    
     @Override
     public void onDestroyView() {
         super.onDestroyView();
         binding = null;
     }
+    
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        if (transferRepository != null) {
+            transferRepository.shutdown();
+        }
+    }
 }
 
 
@@ -7,6 +7,8 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 
 import com.kitchenkompanion.data.local.GroceryEntryEntity;
+import com.kitchenkompanion.data.local.GroceryRow;
+import com.kitchenkompanion.data.repo.DistinctLiveData;
 import com.kitchenkompanion.data.repo.GroceryRepository;
 
 import java.util.List;
@@ -17,7 +19,7 @@ import java.util.List;
 public class GroceryViewModel extends AndroidViewModel {
     
     private final GroceryRepository repository;
-    private final LiveData<List<GroceryEntryEntity>> entries;
+    private final DistinctLiveData<List<GroceryRow>> entries;
     
     public GroceryViewModel(@NonNull Application application) {
         super(application);
@@ -25,20 +27,27 @@ public class GroceryViewModel extends AndroidViewModel {
         entries = repository.getAllEntries();
     }
     
-    public LiveData<List<GroceryEntryEntity>> getEntries() {
+    public LiveData<List<GroceryRow>> getEntries() {
         return entries;
     }
     
+    /**
+     * Number of list re-queries that returned unchanged rows and were not delivered to the UI
+     */
+    public int getSuppressedEmissionCount() {
+        return entries != null ? entries.getSuppressedCount() : 0;
+    }
+    
     public void addEntry(GroceryEntryEntity entry) {
         repository.insert(entry);
     }
     
-    public void updateCheckedStatus(long id, boolean checked) {
-        repository.updateCheckedStatus(id, checked);
+    public void updateCheckedStatus(long localId, boolean checked) {
+        repository.updateCheckedStatus(localId, checked);
     }
     
-    public void deleteEntry(long id) {
-        repository.delete(id);
+    public void deleteEntry(long localId) {
+        repository.delete(localId);
     }
     
     public void deleteCheckedItems() {
@@ -20,10 +20,13 @@ import com.kitchenkompanion.data.local.AppDatabase;
 import com.kitchenkompanion.data.local.ItemDao;
 import com.kitchenkompanion.data.local.ItemEntity;
 import com.kitchenkompanion.utils.DateUtils;
+import com.kitchenkompanion.utils.ExpiryStatus;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * WorkManager worker that checks for expiring and low stock items daily.
@@ -31,7 +34,7 @@ import java.util.List;
  * Scheduling:
  * - Runs once per day (typically at midnight or app start)
  * - Checks items expiring in the next 3 days
- * - Checks items below low stock threshold
+ * - Checks items below low stock threshold or forecast to run out within 3 days
  * - Creates grouped notifications
  * 
  * Usage:
@@ -63,19 +66,26 @@ public class ExpiryCheckWorker extends Worker {
                 return Result.success();
             }
             
-            AppDatabase database = AppDatabase.getInstance(getApplicationContext());
+            AppDatabase database = AppDatabase.getInstance(getApplicationContext(), householdId);
             ItemDao itemDao = database.itemDao();
             
             // Check expiring items
-            Date warningDate = DateUtils.addDays(new Date(), EXPIRY_WARNING_DAYS);
-            List<ItemEntity> expiringItems = itemDao.getExpiringItemsSync(householdId, warningDate);
+            int today = DateUtils.todayEpochDay();
+            List<ItemEntity> expiringItems = itemDao.getExpiringItemsSync(householdId, today + EXPIRY_WARNING_DAYS);
             
-            // Check low stock items
-            List<ItemEntity> lowStockItems = itemDao.getLowStockItemsSync(householdId);
+            // Check low stock items, and items whose usage rate says they run out soon
+            Map<String, ItemEntity> lowStockById = new LinkedHashMap<>();
+            for (ItemEntity item : itemDao.getLowStockItemsSync(householdId)) {
+                lowStockById.put(item.id, item);
+            }
+            for (ItemEntity item : database.itemUsageDao().getRunningOutSync(householdId, EXPIRY_WARNING_DAYS, new Date())) {
+                lowStockById.putIfAbsent(item.id, item);
+            }
+            List<ItemEntity> lowStockItems = new ArrayList<>(lowStockById.values());
             
             // Create notifications
             if (!expiringItems.isEmpty()) {
-                notifyExpiringItems(expiringItems);
+                notifyExpiringItems(expiringItems, today);
             }
             
             if (!lowStockItems.isEmpty()) {
@@ -93,24 +103,25 @@ public class ExpiryCheckWorker extends Worker {
         }
     }
     
-    private void notifyExpiringItems(List<ItemEntity> items) {
+    private void notifyExpiringItems(List<ItemEntity> items, int today) {
         // Categorize by urgency
         List<ItemEntity> expired = new ArrayList<>();
         List<ItemEntity> expiringToday = new ArrayList<>();
         List<ItemEntity> expiringSoon = new ArrayList<>();
         
-        Date today = DateUtils.getToday();
-        Date tomorrow = DateUtils.addDays(today, 1);
-        
         for (ItemEntity item : items) {
-            if (item.expiryDate != null) {
-                if (DateUtils.isExpired(item.expiryDate)) {
+            switch (ExpiryStatus.classify(item.expiryDay, today, EXPIRY_WARNING_DAYS)) {
+                case EXPIRED:
                     expired.add(item);
-                } else if (item.expiryDate.before(tomorrow)) {
+                    break;
+                case TODAY:
                     expiringToday.add(item);
-                } else {
+                    break;
+                case SOON:
                     expiringSoon.add(item);
-                }
+                    break;
+                default:
+                    break;
             }
         }
         
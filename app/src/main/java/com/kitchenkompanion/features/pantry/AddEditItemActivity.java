@@ -3,6 +3,8 @@ package com.kitchenkompanion.features.pantry;
 import android.app.DatePickerDialog;
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.TextUtils;
+import android.view.View;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.widget.ArrayAdapter;
@@ -16,11 +18,16 @@ import androidx.lifecycle.ViewModelProvider;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.kitchenkompanion.R;
 import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.ItemNutritionEntity;
+import com.kitchenkompanion.data.local.ItemUsageEntity;
 import com.kitchenkompanion.databinding.ActivityAddEditItemBinding;
 import com.kitchenkompanion.utils.DateUtils;
 
+import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Activity for adding a new item or editing an existing one.
@@ -30,18 +37,22 @@ import java.util.Date;
  * - For editing: intent.putExtra(EXTRA_ITEM_ID, itemId)
  * - For barcode prefill: intent.putExtra(EXTRA_BARCODE, barcode)
  *                        intent.putExtra(EXTRA_PRODUCT_NAME, name)
+ *                        intent.putExtra(EXTRA_NUTRITION, nutritionEntity)
  */
 public class AddEditItemActivity extends AppCompatActivity {
     
     public static final String EXTRA_ITEM_ID = "item_id";
     public static final String EXTRA_BARCODE = "barcode";
     public static final String EXTRA_PRODUCT_NAME = "product_name";
-    public static final String EXTRA_NUTRITION_JSON = "nutrition_json";
+    public static final String EXTRA_NUTRITION = "nutrition";
     
     private ActivityAddEditItemBinding binding;
     private PantryViewModel viewModel;
     private String itemId;
     private Date selectedExpiryDate;
+    private ItemNutritionEntity scannedNutrition;
+    private ItemEntity loadedItem;
+    private ItemUsageEntity usage;
     
     private static final String[] LOCATIONS = {"Fridge", "Freezer", "Pantry", "Other"};
     private static final String[] UNITS = {"", "kg", "g", "L", "ml", "pcs", "cups", "tbsp", "tsp"};
@@ -117,8 +128,16 @@ public class AddEditItemActivity extends AppCompatActivity {
             viewModel.getItemById(itemId).observe(this, item -> {
                 if (item != null) {
                     populateFields(item);
+                    loadedItem = item;
+                    showForecast();
                 }
             });
+            // Nutrition lives in its own table and is only read here
+            viewModel.getNutrition(itemId).observe(this, this::showNutrition);
+            viewModel.getUsage(itemId).observe(this, usage -> {
+                this.usage = usage;
+                showForecast();
+            });
         } else {
             // New item
             setTitle(R.string.add_item);
@@ -126,7 +145,7 @@ public class AddEditItemActivity extends AppCompatActivity {
             // Check for barcode prefill
             String barcode = intent.getStringExtra(EXTRA_BARCODE);
             String productName = intent.getStringExtra(EXTRA_PRODUCT_NAME);
-            String nutritionJson = intent.getStringExtra(EXTRA_NUTRITION_JSON);
+            scannedNutrition = (ItemNutritionEntity) intent.getSerializableExtra(EXTRA_NUTRITION);
             
             if (barcode != null) {
                 binding.barcodeInput.setText(barcode);
@@ -134,10 +153,46 @@ public class AddEditItemActivity extends AppCompatActivity {
             if (productName != null) {
                 binding.nameInput.setText(productName);
             }
-            // nutritionJson will be saved with the item
+            // Scanned nutrition will be saved with the item
+            showNutrition(scannedNutrition);
+        }
+    }
+    
+    private void showNutrition(@Nullable ItemNutritionEntity nutrition) {
+        List<String> parts = new ArrayList<>();
+        if (nutrition != null) {
+            DecimalFormat format = new DecimalFormat("0.#");
+            if (nutrition.energyKcal != null) parts.add(getString(R.string.nutrition_energy, format.format(nutrition.energyKcal)));
+            if (nutrition.fat != null) parts.add(getString(R.string.nutrition_fat, format.format(nutrition.fat)));
+            if (nutrition.carbohydrates != null) parts.add(getString(R.string.nutrition_carbohydrates, format.format(nutrition.carbohydrates)));
+            if (nutrition.sugars != null) parts.add(getString(R.string.nutrition_sugars, format.format(nutrition.sugars)));
+            if (nutrition.proteins != null) parts.add(getString(R.string.nutrition_proteins, format.format(nutrition.proteins)));
+            if (nutrition.salt != null) parts.add(getString(R.string.nutrition_salt, format.format(nutrition.salt)));
+        }
+        
+        if (parts.isEmpty()) {
+            binding.nutritionSummary.setVisibility(View.GONE);
+        } else {
+            binding.nutritionSummary.setText(getString(R.string.nutrition_summary, TextUtils.join(" · ", parts)));
+            binding.nutritionSummary.setVisibility(View.VISIBLE);
         }
     }
     
+    /**
+     * Forecast from the stored quantity, not the one being typed, until the edit is saved.
+     */
+    private void showForecast() {
+        Integer days = usage != null && loadedItem != null ? usage.daysUntilEmpty(loadedItem.quantity, new Date()) : null;
+        if (days == null) {
+            binding.usageForecast.setVisibility(View.GONE);
+            return;
+        }
+        binding.usageForecast.setText(days == 0
+                ? getString(R.string.usage_runs_out_today)
+                : getString(R.string.usage_runs_out_in, days));
+        binding.usageForecast.setVisibility(View.VISIBLE);
+    }
+    
     private void populateFields(ItemEntity item) {
         binding.nameInput.setText(item.name);
         binding.barcodeInput.setText(item.barcode);
@@ -235,18 +290,13 @@ public class AddEditItemActivity extends AppCompatActivity {
         item.notes = binding.notesInput.getText().toString().trim();
         item.lowStockThreshold = lowStockThreshold;
         
-        // Save nutrition JSON if provided from barcode scan
-        String nutritionJson = getIntent().getStringExtra(EXTRA_NUTRITION_JSON);
-        if (nutritionJson != null) {
-            item.nutritionJson = nutritionJson;
-        }
-        
         // Save to database
         if (itemId != null) {
             viewModel.updateItem(item);
             Toast.makeText(this, R.string.item_updated, Toast.LENGTH_SHORT).show();
         } else {
-            viewModel.addItem(item);
+            // Nutrition from a barcode scan is stored alongside the new item
+            viewModel.addItem(item, scannedNutrition);
             Toast.makeText(this, R.string.item_added, Toast.LENGTH_SHORT).show();
         }
         
@@ -1,6 +1,7 @@
 package com.kitchenkompanion.features.pantry;
 
 import android.graphics.Color;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,25 +9,37 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
 import androidx.recyclerview.widget.DiffUtil;
-import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.kitchenkompanion.R;
-import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.PantryRow;
 import com.kitchenkompanion.utils.DateUtils;
+import com.kitchenkompanion.utils.ExpiryStatus;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Objects;
 
 /**
- * RecyclerView adapter for pantry items.
+ * Paged RecyclerView adapter for pantry items.
+ * Only the pages around the viewport are held and diffed, regardless of household size.
  */
-public class PantryAdapter extends ListAdapter<ItemEntity, PantryAdapter.ItemViewHolder> {
+public class PantryAdapter extends PagingDataAdapter<PantryRow, PantryAdapter.ItemViewHolder> {
+    
+    // A pantry has far fewer distinct expiry days than this; past it the cache simply starts over
+    private static final int MAX_CACHED_EXPIRY_DAYS = 512;
     
     private OnItemClickListener listener;
+    // Formatted expiry text by epoch day, so rebinding a row doesn't format a date again
+    private final SparseArray<String> expiryTextByDay = new SparseArray<>();
+    // Same symbols String.format would use for the quantity
+    private final DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
     
     public interface OnItemClickListener {
-        void onItemClick(ItemEntity item);
-        void onItemLongClick(ItemEntity item);
+        void onItemClick(PantryRow item);
+        void onItemLongClick(PantryRow item);
     }
     
     public PantryAdapter() {
@@ -37,18 +50,22 @@ public class PantryAdapter extends ListAdapter<ItemEntity, PantryAdapter.ItemVie
         this.listener = listener;
     }
     
-    private static final DiffUtil.ItemCallback<ItemEntity> DIFF_CALLBACK = 
-            new DiffUtil.ItemCallback<ItemEntity>() {
+    private static final DiffUtil.ItemCallback<PantryRow> DIFF_CALLBACK = 
+            new DiffUtil.ItemCallback<PantryRow>() {
         @Override
-        public boolean areItemsTheSame(@NonNull ItemEntity oldItem, @NonNull ItemEntity newItem) {
+        public boolean areItemsTheSame(@NonNull PantryRow oldItem, @NonNull PantryRow newItem) {
             return oldItem.id.equals(newItem.id);
         }
         
         @Override
-        public boolean areContentsTheSame(@NonNull ItemEntity oldItem, @NonNull ItemEntity newItem) {
-            return oldItem.name.equals(newItem.name) &&
+        public boolean areContentsTheSame(@NonNull PantryRow oldItem, @NonNull PantryRow newItem) {
+            return Objects.equals(oldItem.name, newItem.name) &&
                    oldItem.quantity == newItem.quantity &&
-                   oldItem.expiryDate != null && oldItem.expiryDate.equals(newItem.expiryDate);
+                   Objects.equals(oldItem.unit, newItem.unit) &&
+                   Objects.equals(oldItem.location, newItem.location) &&
+                   Objects.equals(oldItem.expiryDate, newItem.expiryDate) &&
+                   Objects.equals(oldItem.expiryDay, newItem.expiryDay) &&
+                   Objects.equals(oldItem.photoUrl, newItem.photoUrl);
         }
     };
     
@@ -57,13 +74,30 @@ public class PantryAdapter extends ListAdapter<ItemEntity, PantryAdapter.ItemVie
     public ItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_pantry, parent, false);
-        return new ItemViewHolder(view);
+        return new ItemViewHolder(view, symbols.getZeroDigit(), symbols.getDecimalSeparator());
     }
     
     @Override
     public void onBindViewHolder(@NonNull ItemViewHolder holder, int position) {
-        ItemEntity item = getItem(position);
-        holder.bind(item, listener);
+        PantryRow item = getItem(position);
+        if (item != null) {
+            holder.bind(item, expiryText(item), DateUtils.todayEpochDay(), listener);
+        }
+    }
+    
+    private String expiryText(PantryRow item) {
+        if (item.expiryDate == null) return null;
+        if (item.expiryDay == null) return DateUtils.formatForDisplay(item.expiryDate);
+        
+        String text = expiryTextByDay.get(item.expiryDay);
+        if (text == null) {
+            if (expiryTextByDay.size() >= MAX_CACHED_EXPIRY_DAYS) {
+                expiryTextByDay.clear();
+            }
+            text = DateUtils.formatForDisplay(item.expiryDate);
+            expiryTextByDay.put(item.expiryDay, text);
+        }
+        return text;
     }
     
     static class ItemViewHolder extends RecyclerView.ViewHolder {
@@ -73,9 +107,18 @@ public class PantryAdapter extends ListAdapter<ItemEntity, PantryAdapter.ItemVie
         private final TextView locationText;
         private final ImageView photoImage;
         private final View expiryIndicator;
+        private final char zeroDigit;
+        private final char decimalSeparator;
+        // Reused for the quantity text; TextView.setText(char[], ...) wraps it without a copy
+        private char[] quantityChars = new char[32];
+        private PantryRow boundItem;
+        private OnItemClickListener boundListener;
+        private boolean clickListenersSet;
         
-        ItemViewHolder(View itemView) {
+        ItemViewHolder(View itemView, char zeroDigit, char decimalSeparator) {
             super(itemView);
+            this.zeroDigit = zeroDigit;
+            this.decimalSeparator = decimalSeparator;
             nameText = itemView.findViewById(R.id.item_name);
             quantityText = itemView.findViewById(R.id.item_quantity);
             expiryText = itemView.findViewById(R.id.item_expiry);
@@ -84,13 +127,11 @@ public class PantryAdapter extends ListAdapter<ItemEntity, PantryAdapter.ItemVie
             expiryIndicator = itemView.findViewById(R.id.expiry_indicator);
         }
         
-        void bind(ItemEntity item, OnItemClickListener listener) {
+        void bind(PantryRow item, String expiryLabel, int today, OnItemClickListener listener) {
             nameText.setText(item.name);
             
             // Quantity
-            String quantityStr = String.format("%.1f %s", item.quantity, 
-                    item.unit != null ? item.unit : "");
-            quantityText.setText(quantityStr);
+            setQuantityText(item.quantity, item.unit);
             
             // Location
             if (item.location != null && !item.location.isEmpty()) {
@@ -101,27 +142,26 @@ public class PantryAdapter extends ListAdapter<ItemEntity, PantryAdapter.ItemVie
             }
             
             // Expiry date and status
-            if (item.expiryDate != null) {
-                expiryText.setText(DateUtils.formatForDisplay(item.expiryDate));
+            if (expiryLabel != null) {
+                expiryText.setText(expiryLabel);
                 expiryText.setVisibility(View.VISIBLE);
                 
                 // Set expiry status color
-                if (DateUtils.isExpired(item.expiryDate)) {
-                    expiryIndicator.setBackgroundColor(
-                            itemView.getContext().getColor(R.color.status_expired));
-                    expiryText.setTextColor(
-                            itemView.getContext().getColor(R.color.status_expired));
-                } else if (DateUtils.isExpiringSoon(item.expiryDate, 3)) {
-                    expiryIndicator.setBackgroundColor(
-                            itemView.getContext().getColor(R.color.status_expiring_soon));
-                    expiryText.setTextColor(
-                            itemView.getContext().getColor(R.color.status_expiring_soon));
-                } else {
-                    expiryIndicator.setBackgroundColor(
-                            itemView.getContext().getColor(R.color.status_fresh));
-                    expiryText.setTextColor(
-                            itemView.getContext().getColor(R.color.status_fresh));
+                int statusColor;
+                switch (ExpiryStatus.classify(item.expiryDay, today)) {
+                    case EXPIRED:
+                        statusColor = R.color.status_expired;
+                        break;
+                    case TODAY:
+                    case SOON:
+                        statusColor = R.color.status_expiring_soon;
+                        break;
+                    default:
+                        statusColor = R.color.status_fresh;
+                        break;
                 }
+                expiryIndicator.setBackgroundColor(itemView.getContext().getColor(statusColor));
+                expiryText.setTextColor(itemView.getContext().getColor(statusColor));
             } else {
                 expiryText.setVisibility(View.GONE);
                 expiryIndicator.setBackgroundColor(Color.TRANSPARENT);
@@ -137,14 +177,53 @@ public class PantryAdapter extends ListAdapter<ItemEntity, PantryAdapter.ItemVie
                 photoImage.setImageResource(R.drawable.ic_pantry);
             }
             
-            // Click listeners
-            if (listener != null) {
-                itemView.setOnClickListener(v -> listener.onItemClick(item));
+            // Click listeners are set once per holder and read the row bound at click time
+            boundItem = item;
+            boundListener = listener;
+            if (listener != null && !clickListenersSet) {
+                itemView.setOnClickListener(v -> boundListener.onItemClick(boundItem));
                 itemView.setOnLongClickListener(v -> {
-                    listener.onItemLongClick(item);
+                    boundListener.onItemLongClick(boundItem);
                     return true;
                 });
+                clickListenersSet = true;
+            }
+        }
+        
+        /**
+         * Writes "quantity unit" with one decimal, as "%.1f %s" would, into the reused buffer.
+         */
+        private void setQuantityText(double quantity, String unit) {
+            long tenths = Math.round(Math.abs(quantity) * 10);
+            int unitLength = unit != null ? unit.length() : 0;
+            // Sign, up to 19 digits, separator, decimal and space
+            if (quantityChars.length < 23 + unitLength) {
+                quantityChars = new char[23 + unitLength];
+            }
+            char[] chars = quantityChars;
+            int length = 0;
+            if (quantity < 0 && tenths > 0) {
+                chars[length++] = '-';
+            }
+            int digitsStart = length;
+            long whole = tenths / 10;
+            do {
+                chars[length++] = (char) (zeroDigit + whole % 10);
+                whole /= 10;
+            } while (whole > 0);
+            for (int i = digitsStart, j = length - 1; i < j; i++, j--) {
+                char digit = chars[i];
+                chars[i] = chars[j];
+                chars[j] = digit;
+            }
+            chars[length++] = decimalSeparator;
+            chars[length++] = (char) (zeroDigit + tenths % 10);
+            chars[length++] = ' ';
+            if (unit != null) {
+                unit.getChars(0, unitLength, chars, length);
+                length += unitLength;
             }
+            quantityText.setText(chars, 0, length);
         }
     }
 }
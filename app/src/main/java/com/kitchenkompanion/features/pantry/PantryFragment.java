@@ -2,6 +2,8 @@ package com.kitchenkompanion.features.pantry;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,6 +12,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.LoadState;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -17,14 +20,17 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.snackbar.Snackbar;
 import com.kitchenkompanion.R;
-import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.PantryRow;
 import com.kitchenkompanion.databinding.FragmentPantryBinding;
 
+import kotlin.Unit;
+
 /**
  * Fragment displaying pantry items with swipe-to-delete and click-to-edit functionality.
  * 
  * Features:
  * - List all items in the current household
+ * - Full-text search over name, notes and barcode
  * - Color-coded expiry status
  * - Swipe left to delete
  * - Tap to view/edit item
@@ -51,6 +57,7 @@ public class PantryFragment extends Fragment {
         viewModel = new ViewModelProvider(this).get(PantryViewModel.class);
         
         setupRecyclerView();
+        setupSearch();
         setupFab();
         observeData();
     }
@@ -63,12 +70,12 @@ public class PantryFragment extends Fragment {
         // Set up item click listeners
         adapter.setOnItemClickListener(new PantryAdapter.OnItemClickListener() {
             @Override
-            public void onItemClick(ItemEntity item) {
+            public void onItemClick(PantryRow item) {
                 openEditItem(item.id);
             }
             
             @Override
-            public void onItemLongClick(ItemEntity item) {
+            public void onItemLongClick(PantryRow item) {
                 showItemOptions(item);
             }
         });
@@ -82,14 +89,33 @@ public class PantryFragment extends Fragment {
             
             @Override
             public void onSwiped(@NonNull RecyclerView.ViewHolder viewHolder, int direction) {
-                int position = viewHolder.getAdapterPosition();
-                ItemEntity item = adapter.getCurrentList().get(position);
-                deleteItem(item);
+                int position = viewHolder.getBindingAdapterPosition();
+                PantryRow item = position != RecyclerView.NO_POSITION ? adapter.peek(position) : null;
+                if (item != null) {
+                    deleteItem(item);
+                }
             }
         });
         itemTouchHelper.attachToRecyclerView(binding.recyclerView);
     }
     
+    private void setupSearch() {
+        binding.searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+            
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+            
+            @Override
+            public void afterTextChanged(Editable s) {
+                viewModel.setSearchQuery(s.toString());
+            }
+        });
+    }
+    
     private void setupFab() {
         binding.fabAdd.setOnClickListener(v -> {
             Intent intent = new Intent(requireContext(), AddEditItemActivity.class);
@@ -98,25 +124,35 @@ public class PantryFragment extends Fragment {
     }
     
     private void observeData() {
-        viewModel.getItems().observe(getViewLifecycleOwner(), items -> {
-            if (items != null && !items.isEmpty()) {
-                adapter.submitList(items);
-                binding.emptyView.setVisibility(View.GONE);
-                binding.recyclerView.setVisibility(View.VISIBLE);
-            } else {
-                binding.emptyView.setVisibility(View.VISIBLE);
-                binding.recyclerView.setVisibility(View.GONE);
+        if (viewModel.getItems() == null) {
+            showEmptyState(true);
+            return;
+        }
+        
+        viewModel.getItems().observe(getViewLifecycleOwner(), pagingData ->
+                adapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData));
+        
+        // Empty state is decided once the first page has loaded
+        adapter.addLoadStateListener(loadStates -> {
+            if (binding != null && loadStates.getRefresh() instanceof LoadState.NotLoading) {
+                showEmptyState(adapter.getItemCount() == 0);
             }
+            return Unit.INSTANCE;
         });
     }
     
+    private void showEmptyState(boolean empty) {
+        binding.emptyView.setVisibility(empty ? View.VISIBLE : View.GONE);
+        binding.recyclerView.setVisibility(empty ? View.GONE : View.VISIBLE);
+    }
+    
     private void openEditItem(String itemId) {
         Intent intent = new Intent(requireContext(), AddEditItemActivity.class);
         intent.putExtra(AddEditItemActivity.EXTRA_ITEM_ID, itemId);
         startActivity(intent);
     }
     
-    private void showItemOptions(ItemEntity item) {
+    private void showItemOptions(PantryRow item) {
         new MaterialAlertDialogBuilder(requireContext())
                 .setTitle(item.name)
                 .setItems(new String[]{
@@ -132,7 +168,7 @@ public class PantryFragment extends Fragment {
                 .show();
     }
     
-    private void confirmDelete(ItemEntity item) {
+    private void confirmDelete(PantryRow item) {
         new MaterialAlertDialogBuilder(requireContext())
                 .setTitle(R.string.delete_item)
                 .setMessage(R.string.confirm_delete)
@@ -141,11 +177,18 @@ public class PantryFragment extends Fragment {
                 .show();
     }
     
-    private void deleteItem(ItemEntity item) {
+    private void deleteItem(PantryRow item) {
         viewModel.deleteItem(item.id);
         Snackbar.make(binding.getRoot(), R.string.item_deleted, Snackbar.LENGTH_SHORT).show();
     }
     
+    @Override
+    public void onStop() {
+        super.onStop();
+        // Swipe-deletes are buffered briefly; write them before the process may be killed in the background
+        viewModel.flushWrites();
+    }
+    
     @Override
     public void onDestroyView() {
         super.onDestroyView();
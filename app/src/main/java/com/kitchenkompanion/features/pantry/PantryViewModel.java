@@ -5,54 +5,102 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
 import com.kitchenkompanion.auth.HouseholdSelectionActivity;
 import com.kitchenkompanion.data.local.ItemEntity;
+import com.kitchenkompanion.data.local.ItemNutritionEntity;
+import com.kitchenkompanion.data.local.ItemUsageEntity;
+import com.kitchenkompanion.data.local.PantryRow;
+import com.kitchenkompanion.data.repo.DistinctLiveData;
 import com.kitchenkompanion.data.repo.ItemRepository;
 
-import java.util.List;
-
 /**
  * ViewModel for the Pantry feature.
+ * List streams are paged and cached in the ViewModel scope so they survive configuration changes.
+ * Paged lists are diffed by PagingDataAdapter; the item stream drops unchanged re-emissions.
  */
 public class PantryViewModel extends AndroidViewModel {
     
     private final ItemRepository repository;
-    private final LiveData<List<ItemEntity>> items;
+    private final MutableLiveData<String> searchQuery = new MutableLiveData<>("");
+    private final LiveData<PagingData<PantryRow>> items;
     private final String householdId;
+    private DistinctLiveData<ItemEntity> item;
+    private String itemId;
     
     public PantryViewModel(@NonNull Application application) {
         super(application);
-        repository = new ItemRepository(application);
         householdId = HouseholdSelectionActivity.getSelectedHouseholdId(application);
+        repository = new ItemRepository(application, householdId);
         
         if (householdId != null) {
-            items = repository.getAllItems(householdId);
+            // An empty query falls back to the full pantry list
+            items = PagingLiveData.cachedIn(
+                    Transformations.switchMap(searchQuery,
+                            query -> repository.searchItemsPaged(householdId, query)),
+                    ViewModelKt.getViewModelScope(this));
         } else {
             items = null;
         }
     }
     
-    public LiveData<List<ItemEntity>> getItems() {
+    public LiveData<PagingData<PantryRow>> getItems() {
         return items;
     }
     
-    public LiveData<List<ItemEntity>> getItemsByLocation(String location) {
-        return repository.getItemsByLocation(householdId, location);
+    public void setSearchQuery(String query) {
+        String normalized = query != null ? query.trim() : "";
+        if (!normalized.equals(searchQuery.getValue())) {
+            searchQuery.setValue(normalized);
+        }
     }
     
-    public LiveData<List<ItemEntity>> getExpiringItems(int days) {
-        return repository.getExpiringItems(householdId, days);
+    public LiveData<PagingData<PantryRow>> getItemsByLocation(String location) {
+        return PagingLiveData.cachedIn(
+                repository.getItemsByLocationPaged(householdId, location), ViewModelKt.getViewModelScope(this));
+    }
+    
+    public LiveData<PagingData<PantryRow>> getExpiringItems(int days) {
+        return PagingLiveData.cachedIn(
+                repository.getExpiringItemsPaged(householdId, days), ViewModelKt.getViewModelScope(this));
     }
     
     public LiveData<ItemEntity> getItemById(String itemId) {
-        return repository.getItemById(itemId);
+        if (item == null || !itemId.equals(this.itemId)) {
+            this.itemId = itemId;
+            item = repository.getItemById(itemId);
+        }
+        return item;
+    }
+    
+    /**
+     * Number of item re-queries that returned an unchanged row and were not delivered to the UI
+     */
+    public int getSuppressedEmissionCount() {
+        return item != null ? item.getSuppressedCount() : 0;
+    }
+    
+    public LiveData<ItemNutritionEntity> getNutrition(String itemId) {
+        return repository.getNutrition(itemId);
+    }
+    
+    public LiveData<ItemUsageEntity> getUsage(String itemId) {
+        return repository.getUsage(itemId);
     }
     
     public void addItem(ItemEntity item) {
         repository.insert(item, householdId);
     }
     
+    public void addItem(ItemEntity item, ItemNutritionEntity nutrition) {
+        repository.insert(item, nutrition, householdId);
+    }
+    
     public void updateItem(ItemEntity item) {
         repository.update(item, householdId);
     }
@@ -64,6 +112,20 @@ public class PantryViewModel extends AndroidViewModel {
     public void forceSync() {
         repository.forceSync(householdId);
     }
+    
+    /**
+     * Commits item writes still waiting in the repository's buffer
+     */
+    public void flushWrites() {
+        repository.flush();
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        // The edit screen saves and finishes at once; its write should not wait out the buffer window
+        repository.flush();
+    }
 }
 
 
@@ -9,11 +9,10 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.kitchenkompanion.KitchenKompanionApp;
-import com.kitchenkompanion.data.local.AppDatabase;
-import com.kitchenkompanion.data.local.ItemDao;
 import com.kitchenkompanion.data.local.ItemEntity;
 import com.kitchenkompanion.data.remote.RecipeService;
 import com.kitchenkompanion.data.remote.dto.RecipeSearchResponse;
+import com.kitchenkompanion.data.repo.PantrySnapshotCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,7 +27,6 @@ public class RecipesViewModel extends AndroidViewModel {
     private static final String TAG = "RecipesViewModel";
     
     private final RecipeService recipeService;
-    private final ItemDao itemDao;
     private final ExecutorService executorService;
     
     private final MutableLiveData<List<RecipeSearchResponse>> recipes = new MutableLiveData<>();
@@ -38,7 +36,6 @@ public class RecipesViewModel extends AndroidViewModel {
     public RecipesViewModel(@NonNull Application application) {
         super(application);
         this.recipeService = RecipeService.getInstance(application);
-        this.itemDao = AppDatabase.getInstance(application).itemDao();
         this.executorService = Executors.newSingleThreadExecutor();
     }
     
@@ -68,7 +65,7 @@ public class RecipesViewModel extends AndroidViewModel {
         
         executorService.execute(() -> {
             // Get all pantry items
-            List<ItemEntity> items = itemDao.getAllItemsSync(householdId);
+            List<ItemEntity> items = PantrySnapshotCache.getInstance(getApplication(), householdId).get().getItems();
             
             if (items == null || items.isEmpty()) {
                 error.postValue("Your pantry is empty. Add items first!");
@@ -0,0 +1,75 @@
+package com.kitchenkompanion.features.transfer;
+
+import android.view.View;
+
+import androidx.annotation.StringRes;
+
+import com.google.android.material.snackbar.Snackbar;
+import com.kitchenkompanion.R;
+import com.kitchenkompanion.data.repo.TransferRepository;
+
+/**
+ * Shows the progress of an import or export in one Snackbar, which stays up until the
+ * transfer finishes and then reports the row count or the error.
+ * Callbacks arrive on the repository's thread and are posted to the view; once the view
+ * is detached (its screen was destroyed) they are dropped.
+ */
+public class TransferSnackbar implements TransferRepository.TransferCallback {
+    
+    private final View view;
+    private final Snackbar snackbar;
+    @StringRes private final int progressRes;
+    @StringRes private final int doneRes;
+    
+    private TransferSnackbar(View view, @StringRes int progressRes, @StringRes int doneRes) {
+        this.view = view;
+        this.progressRes = progressRes;
+        this.doneRes = doneRes;
+        this.snackbar = Snackbar.make(view, view.getContext().getString(progressRes, 0), Snackbar.LENGTH_INDEFINITE);
+        snackbar.show();
+    }
+    
+    public static TransferSnackbar forImport(View view) {
+        return new TransferSnackbar(view, R.string.transfer_importing, R.string.transfer_imported);
+    }
+    
+    public static TransferSnackbar forExport(View view) {
+        return new TransferSnackbar(view, R.string.transfer_exporting, R.string.transfer_exported);
+    }
+    
+    @Override
+    public void onProgress(int rows) {
+        post(() -> snackbar.setText(view.getContext().getString(progressRes, rows)));
+    }
+    
+    @Override
+    public void onComplete(TransferRepository.TransferResult result) {
+        post(() -> {
+            String message = view.getContext().getString(doneRes, result.rows);
+            if (result.skipped > 0) {
+                message += " " + view.getContext().getString(R.string.transfer_skipped, result.skipped);
+            }
+            finish(message);
+        });
+    }
+    
+    @Override
+    public void onError(String error) {
+        post(() -> finish(view.getContext().getString(R.string.transfer_failed,
+                error != null ? error : view.getContext().getString(R.string.error_generic))));
+    }
+    
+    private void post(Runnable action) {
+        view.post(() -> {
+            if (view.isAttachedToWindow()) {
+                action.run();
+            }
+        });
+    }
+    
+    private void finish(String message) {
+        snackbar.setText(message);
+        snackbar.setDuration(Snackbar.LENGTH_LONG);
+        snackbar.show();
+    }
+}
@@ -5,6 +5,7 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -19,6 +20,11 @@ public class DateUtils {
     private static final SimpleDateFormat TIMESTAMP_FORMAT = 
             new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
     
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    
+    // Today's epoch day and the local-time millis range it covers; replaced once a day
+    private static volatile Today today = new Today(Long.MIN_VALUE, Long.MIN_VALUE, 0);
+    
     /**
      * Formats a date to ISO 8601 string (yyyy-MM-dd)
      */
@@ -90,12 +96,7 @@ public class DateUtils {
      */
     public static boolean isExpired(Date date) {
         if (date == null) return false;
-        Calendar today = Calendar.getInstance();
-        today.set(Calendar.HOUR_OF_DAY, 0);
-        today.set(Calendar.MINUTE, 0);
-        today.set(Calendar.SECOND, 0);
-        today.set(Calendar.MILLISECOND, 0);
-        return date.before(today.getTime());
+        return toEpochDay(date) < todayEpochDay();
     }
     
     /**
@@ -103,10 +104,48 @@ public class DateUtils {
      */
     public static boolean isExpiringSoon(Date date, int days) {
         if (date == null) return false;
-        long daysUntil = daysUntil(date);
+        int daysUntil = toEpochDay(date) - todayEpochDay();
         return daysUntil >= 0 && daysUntil <= days;
     }
     
+    /**
+     * Converts a date to days since 1970-01-01 in the device time zone
+     */
+    public static Integer toEpochDay(Date date) {
+        if (date == null) return null;
+        return toEpochDay(date.getTime(), TimeZone.getDefault());
+    }
+    
+    private static int toEpochDay(long millis, TimeZone zone) {
+        return (int) Math.floorDiv(millis + zone.getOffset(millis), DAY_MILLIS);
+    }
+    
+    /**
+     * Returns today's epoch day. Cached until local midnight, so callers can use it per row.
+     */
+    public static int todayEpochDay() {
+        long now = System.currentTimeMillis();
+        Today cached = today;
+        if (now >= cached.startMillis && now < cached.endMillis) {
+            return cached.epochDay;
+        }
+        TimeZone zone = TimeZone.getDefault();
+        int epochDay = toEpochDay(now, zone);
+        long localStart = (long) epochDay * DAY_MILLIS;
+        long start = localStart - zone.getOffset(now);
+        // Offset at the next midnight, so a DST change tonight doesn't stretch the cached day
+        long end = localStart + DAY_MILLIS - zone.getOffset(start + DAY_MILLIS);
+        today = new Today(start, end, epochDay);
+        return epochDay;
+    }
+    
+    /**
+     * Returns the epoch day N days from today
+     */
+    public static int epochDayFromToday(int days) {
+        return todayEpochDay() + days;
+    }
+    
     /**
      * Returns today's date at midnight
      */
@@ -129,6 +168,18 @@ public class DateUtils {
         cal.add(Calendar.DAY_OF_MONTH, days);
         return cal.getTime();
     }
+    
+    private static final class Today {
+        final long startMillis;
+        final long endMillis;
+        final int epochDay;
+        
+        Today(long startMillis, long endMillis, int epochDay) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.epochDay = epochDay;
+        }
+    }
 }
 
 
@@ -0,0 +1,33 @@
+package com.kitchenkompanion.utils;
+
+/**
+ * Expiry bucket of an item, computed from epoch days with integer math only.
+ * Safe to call per row while binding: no Calendar or Date is created.
+ */
+public enum ExpiryStatus {
+    NONE,
+    EXPIRED,
+    TODAY,
+    SOON,
+    FRESH;
+    
+    /** Days ahead that still count as "expiring soon". */
+    public static final int SOON_DAYS = 3;
+    
+    /**
+     * @param expiryDay item expiry as an epoch day, or null if the item has no expiry date
+     * @param todayEpochDay {@link DateUtils#todayEpochDay()}
+     */
+    public static ExpiryStatus classify(Integer expiryDay, int todayEpochDay) {
+        return classify(expiryDay, todayEpochDay, SOON_DAYS);
+    }
+    
+    public static ExpiryStatus classify(Integer expiryDay, int todayEpochDay, int soonDays) {
+        if (expiryDay == null) return NONE;
+        int daysLeft = expiryDay - todayEpochDay;
+        if (daysLeft < 0) return EXPIRED;
+        if (daysLeft == 0) return TODAY;
+        if (daysLeft <= soonDays) return SOON;
+        return FRESH;
+    }
+}